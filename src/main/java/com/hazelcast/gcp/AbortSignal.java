@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.net.HttpURLConnection;
+
+/**
+ * Aborts the in-flight and all subsequent {@link RestClient} calls made with it, e.g. a long-polling request which would
+ * otherwise keep its thread blocked until the read timeout.
+ */
+final class AbortSignal {
+    private volatile boolean aborted;
+    private volatile HttpURLConnection connection;
+
+    /**
+     * Disconnects the connection of the call in flight, so that its blocked read fails, and makes the subsequent calls
+     * fail before sending their requests.
+     */
+    void abort() {
+        aborted = true;
+        HttpURLConnection currentConnection = connection;
+        if (currentConnection != null) {
+            currentConnection.disconnect();
+        }
+    }
+
+    /**
+     * Registers the connected {@code connection} of the call in flight.
+     *
+     * @throws RestClientException if this signal has already been aborted
+     */
+    void register(HttpURLConnection connection) {
+        this.connection = connection;
+        if (aborted) {
+            throw new RestClientException("REST call aborted", null);
+        }
+    }
+}
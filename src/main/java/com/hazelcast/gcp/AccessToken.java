@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OAuth 2.0 Access Token with its lifetime, as returned by the Google OAuth API and the Metadata Server.
+ */
+final class AccessToken {
+    private final String value;
+    private final long expiresInMs;
+
+    AccessToken(String value, long expiresInMs) {
+        this.value = value;
+        this.expiresInMs = expiresInMs;
+    }
+
+    /**
+     * Parses a token response, e.g. {@code {"access_token":"ya29...","expires_in":3599,"token_type":"Bearer"}}; a
+     * response without {@code expires_in} gives a token which is not reused.
+     */
+    static AccessToken parse(String response) {
+        JsonObject json = Json.parse(response).asObject();
+        long expiresInSec = json.getLong("expires_in", 0L);
+        return new AccessToken(json.get("access_token").asString(), TimeUnit.SECONDS.toMillis(expiresInSec));
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the remaining lifetime of the token at the time it was fetched.
+     */
+    long getExpiresInMs() {
+        return expiresInMs;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the OAuth Access Token of one set of credentials, i.e. a private key file or the service account of the
+ * instance, shared by all {@link GcpClient}s in the JVM using them (see {@link GcpClientRegistry}).
+ * <p>
+ * A token is reused until {@link #EXPIRY_MARGIN_MS} before it expires, so that it does not expire during a discovery
+ * round. Concurrent calls are serialized, so that only one of them fetches a new token.
+ */
+final class AccessTokenCache {
+    static final long EXPIRY_MARGIN_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategy.class);
+
+    private final GcpMetadataApi gcpMetadataApi;
+    private final GcpAuthenticator gcpAuthenticator;
+    private final String privateKeyPath;
+    private final Clock clock;
+
+    private String accessToken;
+    private long expiryTimeMs;
+
+    AccessTokenCache(GcpMetadataApi gcpMetadataApi, GcpAuthenticator gcpAuthenticator, String privateKeyPath) {
+        this(gcpMetadataApi, gcpAuthenticator, privateKeyPath, Clock.systemUTC());
+    }
+
+    /**
+     * For test purposes only.
+     */
+    AccessTokenCache(GcpMetadataApi gcpMetadataApi, GcpAuthenticator gcpAuthenticator, String privateKeyPath,
+                     Clock clock) {
+        this.gcpMetadataApi = gcpMetadataApi;
+        this.gcpAuthenticator = gcpAuthenticator;
+        this.privateKeyPath = privateKeyPath;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached token, or fetches a new one from the Google OAuth API (if a private key is configured) or from
+     * the Metadata Server.
+     */
+    synchronized String get() {
+        long nowMs = clock.millis();
+        if (accessToken == null || nowMs >= expiryTimeMs) {
+            LOGGER.finest("Fetching OAuth Access Token");
+            AccessToken token = privateKeyPath != null
+                    ? gcpAuthenticator.refreshAccessToken(privateKeyPath)
+                    : gcpMetadataApi.accessToken();
+            accessToken = token.getValue();
+            expiryTimeMs = nowMs + token.getExpiresInMs() - EXPIRY_MARGIN_MS;
+        }
+        return accessToken;
+    }
+
+    /**
+     * Drops the cached token if it is {@code rejectedToken}, e.g. after the API responded with 401 Unauthorized, so that
+     * the next call fetches a new one.
+     */
+    synchronized void invalidate(String rejectedToken) {
+        if (rejectedToken != null && rejectedToken.equals(accessToken)) {
+            accessToken = null;
+        }
+    }
+}
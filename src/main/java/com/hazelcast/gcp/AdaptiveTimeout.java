@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.util.Arrays;
+
+/**
+ * Connect and read timeout of one class of endpoints (e.g. the Metadata API) that adapts to the observed latency.
+ * <p>
+ * The timeout is the p99 latency of the recent successful calls multiplied by the latency factor and bounded by the
+ * {@link TimeoutPolicy}. Until enough calls are observed, the maximum timeout is used.
+ */
+final class AdaptiveTimeout {
+    static final int MIN_SAMPLES = 10;
+
+    private static final int MAX_SAMPLES = 100;
+    private static final double PERCENTILE = 0.99;
+
+    private final TimeoutPolicy policy;
+    private final long[] samples = new long[MAX_SAMPLES];
+
+    private int sampleCount;
+    private int nextSample;
+
+    AdaptiveTimeout(TimeoutPolicy policy) {
+        this.policy = policy;
+    }
+
+    synchronized void recordLatencyMs(long latencyMs) {
+        samples[nextSample] = latencyMs;
+        nextSample = (nextSample + 1) % MAX_SAMPLES;
+        sampleCount = Math.min(sampleCount + 1, MAX_SAMPLES);
+    }
+
+    synchronized int timeoutMs() {
+        if (sampleCount < MIN_SAMPLES) {
+            return policy.getMaxTimeoutMs();
+        }
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        long p99 = sorted[(int) Math.ceil(PERCENTILE * sampleCount) - 1];
+        long timeout = (long) Math.ceil(p99 * (double) policy.getLatencyFactor());
+        return (int) Math.max(policy.getMinTimeoutMs(), Math.min(policy.getMaxTimeoutMs(), timeout));
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import java.util.Locale;
+
+/**
+ * Preferred IP address family of the discovered instances.
+ */
+enum AddressFamily {
+    IPV4, IPV6;
+
+    /**
+     * Creates {@link AddressFamily} from the {@code spec} String ("ipv4" or "ipv6", case-insensitive).
+     *
+     * @throws IllegalArgumentException if the specified spec is not a valid address family
+     */
+    static AddressFamily parse(String spec) {
+        for (AddressFamily addressFamily : values()) {
+            if (addressFamily.name().equals(spec.trim().toUpperCase(Locale.ENGLISH))) {
+                return addressFamily;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Invalid address family: '%s', expected 'ipv4' or 'ipv6'", spec));
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable compact representation of a discovery result, kept by the layers which retain or compare the results of
+ * successive discovery rounds.
+ * <p>
+ * IPv4 addresses are stored as {@code int}s in parallel arrays and the zone, network and subnetwork of each instance as
+ * an index into a table of their distinct combinations. Together with its 2 to 4 slots in the lookup index, an IPv4
+ * instance takes 20 to 28 bytes (plus 8 if its creation time is known) instead of a {@link GcpAddress} with its strings
+ * (about 220 bytes retained). Other addresses (IPv6, host names) are kept as strings in overflow arrays, which are
+ * allocated only when such an address occurs. Likewise, the creation times are allocated only when any of them is known.
+ * <p>
+ * Instances can be looked up by their private address in constant time, so that two snapshots are diffed in linear
+ * time without materializing {@link GcpAddress}es of the unchanged instances.
+ */
+final class AddressSnapshot {
+    static final AddressSnapshot EMPTY = of(new ArrayList<GcpAddress>());
+
+    /**
+     * Marks an address which is not stored as an {@code int}; 0.0.0.0 itself is stored in the overflow array.
+     */
+    private static final int NOT_IPV4 = 0;
+    private static final int IPV4_OCTETS = 4;
+    private static final int OCTET_BITS = 8;
+    private static final int OCTET_MASK = 0xff;
+    private static final int MAX_OCTET_DIGITS = 3;
+    private static final int DECIMAL_RADIX = 10;
+    private static final int INDEX_SLOTS_PER_INSTANCE_BITS = 2;
+    private static final int HASH_MULTIPLIER = 31;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private final int size;
+    private final int[] privateIpv4;
+    private final int[] publicIpv4;
+    private final String[] privateOverflow;
+    private final String[] publicOverflow;
+    private final long[] creationTime;
+    private final int[] location;
+    private final Location[] locations;
+    private final int[] index;
+
+    private AddressSnapshot(int size, int[] privateIpv4, int[] publicIpv4, String[] privateOverflow,
+                            String[] publicOverflow, long[] creationTime, int[] location, Location[] locations) {
+        this.size = size;
+        this.privateIpv4 = privateIpv4;
+        this.publicIpv4 = publicIpv4;
+        this.privateOverflow = privateOverflow;
+        this.publicOverflow = publicOverflow;
+        this.creationTime = creationTime;
+        this.location = location;
+        this.locations = locations;
+        this.index = buildIndex();
+    }
+
+    static AddressSnapshot of(List<GcpAddress> addresses) {
+        int size = addresses.size();
+        int[] privateIpv4 = new int[size];
+        int[] publicIpv4 = new int[size];
+        String[] privateOverflow = null;
+        String[] publicOverflow = null;
+        long[] creationTime = null;
+        int[] location = new int[size];
+        Map<Location, Integer> locations = new HashMap<Location, Integer>();
+        for (int i = 0; i < size; i++) {
+            GcpAddress address = addresses.get(i);
+            privateIpv4[i] = parseIpv4(address.getPrivateAddress());
+            if (privateIpv4[i] == NOT_IPV4) {
+                privateOverflow = overflow(privateOverflow, size, i, address.getPrivateAddress());
+            }
+            publicIpv4[i] = parseIpv4(address.getPublicAddress());
+            if (publicIpv4[i] == NOT_IPV4) {
+                publicOverflow = overflow(publicOverflow, size, i, address.getPublicAddress());
+            }
+            creationTime = creationTime(creationTime, size, i, address.getCreationTime());
+            Location key = new Location(address.getZone(), address.getNetwork(), address.getSubnetwork());
+            Integer locationIndex = locations.get(key);
+            if (locationIndex == null) {
+                locationIndex = locations.size();
+                locations.put(key, locationIndex);
+            }
+            location[i] = locationIndex;
+        }
+        Location[] locationTable = new Location[locations.size()];
+        for (Map.Entry<Location, Integer> entry : locations.entrySet()) {
+            locationTable[entry.getValue()] = entry.getKey();
+        }
+        return new AddressSnapshot(size, privateIpv4, publicIpv4, privateOverflow, publicOverflow, creationTime, location,
+                locationTable);
+    }
+
+    private static String[] overflow(String[] overflow, int size, int i, String address) {
+        if (address == null) {
+            return overflow;
+        }
+        String[] result = overflow == null ? new String[size] : overflow;
+        result[i] = address;
+        return result;
+    }
+
+    private static long[] creationTime(long[] creationTime, int size, int i, long value) {
+        if (value == GcpAddress.UNKNOWN_CREATION_TIME) {
+            return creationTime;
+        }
+        long[] result = creationTime;
+        if (result == null) {
+            result = new long[size];
+            Arrays.fill(result, GcpAddress.UNKNOWN_CREATION_TIME);
+        }
+        result[i] = value;
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    GcpAddress get(int i) {
+        Location instanceLocation = locations[location[i]];
+        return new GcpAddress(privateAddress(i), publicAddress(i), instanceLocation.zone, instanceLocation.network,
+                instanceLocation.subnetwork, creationTime(i));
+    }
+
+    String privateAddress(int i) {
+        return address(privateIpv4, privateOverflow, i);
+    }
+
+    String publicAddress(int i) {
+        return address(publicIpv4, publicOverflow, i);
+    }
+
+    long creationTime(int i) {
+        return creationTime == null ? GcpAddress.UNKNOWN_CREATION_TIME : creationTime[i];
+    }
+
+    /**
+     * Returns a read-only view which materializes the {@link GcpAddress}es on access.
+     */
+    List<GcpAddress> asList() {
+        return new AbstractList<GcpAddress>() {
+            @Override
+            public GcpAddress get(int i) {
+                return AddressSnapshot.this.get(i);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns the position of the instance with the same private address as the instance {@code i} of {@code other},
+     * or {@code -1} if there is none.
+     */
+    int indexOfSamePrivateAddress(AddressSnapshot other, int i) {
+        if (size == 0) {
+            return -1;
+        }
+        int mask = index.length - 1;
+        int slot = other.privateHash(i) & mask;
+        while (index[slot] != 0) {
+            int candidate = index[slot] - 1;
+            if (privateIpv4[candidate] == other.privateIpv4[i]
+                    && Objects.equals(overflowAt(privateOverflow, candidate), overflowAt(other.privateOverflow, i))) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns {@code true} if the instance {@code i} equals the instance {@code j} of {@code other}.
+     */
+    boolean sameInstance(int i, AddressSnapshot other, int j) {
+        return privateIpv4[i] == other.privateIpv4[j]
+                && publicIpv4[i] == other.publicIpv4[j]
+                && Objects.equals(overflowAt(privateOverflow, i), overflowAt(other.privateOverflow, j))
+                && Objects.equals(overflowAt(publicOverflow, i), overflowAt(other.publicOverflow, j))
+                && locations[location[i]].equals(other.locations[other.location[j]]);
+    }
+
+    /**
+     * Open addressing table of the positions (plus one) by the private address, with the load factor of at most 0.5.
+     */
+    private int[] buildIndex() {
+        int[] result = new int[Math.max(2, Integer.highestOneBit(Math.max(size, 1)) << INDEX_SLOTS_PER_INSTANCE_BITS)];
+        int mask = result.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = privateHash(i) & mask;
+            while (result[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            result[slot] = i + 1;
+        }
+        return result;
+    }
+
+    private int privateHash(int i) {
+        int hash = privateIpv4[i] != NOT_IPV4 ? privateIpv4[i] : Objects.hashCode(overflowAt(privateOverflow, i));
+        // spreads the host part of the addresses from the same subnet over the whole table
+        return hash * GOLDEN_RATIO;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AddressSnapshot that = (AddressSnapshot) o;
+        if (size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!sameInstance(i, that, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = size;
+        for (int i = 0; i < size; i++) {
+            result = HASH_MULTIPLIER * result + privateHash(i);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+
+    private static String overflowAt(String[] overflow, int i) {
+        return overflow == null ? null : overflow[i];
+    }
+
+    private static String address(int[] ipv4, String[] overflow, int i) {
+        return ipv4[i] != NOT_IPV4 ? formatIpv4(ipv4[i]) : overflowAt(overflow, i);
+    }
+
+    /**
+     * Parses a canonical dotted-quad IPv4 address (no leading zeros), or returns {@link #NOT_IPV4}.
+     */
+    static int parseIpv4(String address) {
+        if (address == null) {
+            return NOT_IPV4;
+        }
+        int result = 0;
+        int octets = 0;
+        int start = 0;
+        while (start <= address.length() && octets < IPV4_OCTETS) {
+            int end = address.indexOf('.', start);
+            if (end < 0) {
+                end = address.length();
+            }
+            int octet = parseOctet(address, start, end);
+            if (octet < 0) {
+                return NOT_IPV4;
+            }
+            result = (result << OCTET_BITS) | octet;
+            octets++;
+            start = end + 1;
+        }
+        return octets == IPV4_OCTETS && start == address.length() + 1 ? result : NOT_IPV4;
+    }
+
+    private static int parseOctet(String address, int start, int end) {
+        int length = end - start;
+        if (length < 1 || length > MAX_OCTET_DIGITS || (length > 1 && address.charAt(start) == '0')) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = address.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * DECIMAL_RADIX + (c - '0');
+        }
+        return result <= OCTET_MASK ? result : -1;
+    }
+
+    static String formatIpv4(int address) {
+        StringBuilder result = new StringBuilder();
+        for (int shift = (IPV4_OCTETS - 1) * OCTET_BITS; shift >= 0; shift -= OCTET_BITS) {
+            if (result.length() > 0) {
+                result.append('.');
+            }
+            result.append((address >>> shift) & OCTET_MASK);
+        }
+        return result.toString();
+    }
+
+    private static final class Location {
+        private final String zone;
+        private final String network;
+        private final String subnetwork;
+
+        private Location(String zone, String network, String subnetwork) {
+            this.zone = zone;
+            this.network = network;
+            this.subnetwork = subnetwork;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Location that = (Location) o;
+            return Objects.equals(zone, that.zone) && Objects.equals(network, that.network)
+                    && Objects.equals(subnetwork, that.subnetwork);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(zone, network, subnetwork);
+        }
+    }
+}
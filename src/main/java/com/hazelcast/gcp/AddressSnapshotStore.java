@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the last successfully discovered addresses in the local filesystem, so that a member restarted during
+ * a Compute API outage can still join the existing cluster instead of starting standalone.
+ * <p>
+ * File format: the header line {@code v2 <crc32 of the rest> <save time in ms>}, the line with the configuration key
+ * (the file name holds only its hash) and the body with one
+ * {@code <private address>\t<public address>\t<zone>\t<network>\t<subnetwork>\t<creation time in ms>} line per
+ * instance (empty if unknown). The files of other versions, which did not record the key, are ignored.
+ */
+final class AddressSnapshotStore {
+    private static final ILogger LOGGER = Logger.getLogger(AddressSnapshotStore.class);
+
+    private static final String VERSION = "v2";
+    private static final String SEPARATOR = "\t";
+    private static final int HEADER_PARTS = 3;
+    private static final int RADIX = 16;
+    private static final int ZONE_COLUMN = 2;
+    private static final int NETWORK_COLUMN = 3;
+    private static final int SUBNETWORK_COLUMN = 4;
+    private static final int CREATION_TIME_COLUMN = 5;
+
+    private final File file;
+    private final String key;
+    private final long maxAgeMs;
+    private final Clock clock;
+
+    private AddressSnapshot lastSaved = AddressSnapshot.EMPTY;
+
+    AddressSnapshotStore(File directory, String key, long maxAgeMs) {
+        this(directory, key, maxAgeMs, Clock.systemUTC());
+    }
+
+    /**
+     * For test purposes only.
+     */
+    AddressSnapshotStore(File directory, String key, long maxAgeMs, Clock clock) {
+        this.file = new File(directory, String.format("hazelcast-gcp-%08x.addresses", key.hashCode()));
+        this.key = key;
+        this.maxAgeMs = maxAgeMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns {@link AddressSnapshotStore} for the given configuration or {@code null} if the cache directory is not
+     * configured.
+     */
+    static AddressSnapshotStore create(GcpConfig gcpConfig) {
+        if (gcpConfig.getCacheDirectory() == null) {
+            return null;
+        }
+        // every setting which affects the discovered addresses, so that a changed configuration never loads stale ones
+        String key = String.format("projects=%s;zones=%s;region=%s;filter=%s;network=%s;subnetwork=%s;address-family=%s;"
+                        + "instance-source=%s;instance-group=%s;instances-file=%s", gcpConfig.getProjects(),
+                gcpConfig.getZones(), gcpConfig.getRegion(), gcpConfig.getFilter(), gcpConfig.getNetwork(),
+                gcpConfig.getSubnetwork(), gcpConfig.getAddressFamily(), gcpConfig.getInstanceSource(),
+                gcpConfig.getInstanceGroup(), gcpConfig.getInstancesFile());
+        return new AddressSnapshotStore(new File(gcpConfig.getCacheDirectory()), key,
+                gcpConfig.getLastKnownInstancesMaxAgeMs());
+    }
+
+    /**
+     * Saves {@code addresses} unless they are the same as the last saved ones. Failures are logged and ignored.
+     */
+    synchronized void save(List<GcpAddress> addresses) {
+        AddressSnapshot snapshot = AddressSnapshot.of(addresses);
+        if (snapshot.equals(lastSaved)) {
+            return;
+        }
+        StringBuilder body = new StringBuilder(key).append('\n');
+        for (GcpAddress address : addresses) {
+            body.append(address.getPrivateAddress()).append(SEPARATOR)
+                .append(emptyIfNull(address.getPublicAddress())).append(SEPARATOR)
+                .append(emptyIfNull(address.getZone())).append(SEPARATOR)
+                .append(emptyIfNull(address.getNetwork())).append(SEPARATOR)
+                .append(emptyIfNull(address.getSubnetwork())).append(SEPARATOR)
+                .append(emptyIfUnknown(address.getCreationTime())).append('\n');
+        }
+        byte[] bodyBytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        String header = String.format("%s %s %s%n", VERSION, Long.toHexString(crc32(bodyBytes)), clock.millis());
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+
+        byte[] data = new byte[headerBytes.length + bodyBytes.length];
+        System.arraycopy(headerBytes, 0, data, 0, headerBytes.length);
+        System.arraycopy(bodyBytes, 0, data, headerBytes.length, bodyBytes.length);
+        try {
+            Utils.writeAtomically(file, data);
+            lastSaved = snapshot;
+        } catch (IOException e) {
+            LOGGER.warning(String.format("Cannot write GCP addresses snapshot file '%s'", file), e);
+        }
+    }
+
+    /**
+     * Returns the saved addresses or {@code null} if there is no valid snapshot or it is older than the maximum age
+     * (unless the maximum age is 0).
+     */
+    List<GcpAddress> load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            String body = validBody(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            return body == null ? null : parseBody(body);
+        } catch (Exception e) {
+            LOGGER.warning(String.format("Cannot read GCP addresses snapshot file '%s', ignoring it", file), e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the body of {@code content} or {@code null} if it has another version, checksum or key, or is too old.
+     */
+    private String validBody(String content) {
+        int headerEnd = content.indexOf('\n');
+        String[] header = content.substring(0, Math.max(headerEnd, 0)).trim().split(" ");
+        if (header.length != HEADER_PARTS || !VERSION.equals(header[0])) {
+            LOGGER.warning(String.format("Unsupported GCP addresses snapshot file '%s', ignoring it", file));
+            return null;
+        }
+        String rest = content.substring(headerEnd + 1);
+        if (crc32(rest.getBytes(StandardCharsets.UTF_8)) != Long.parseLong(header[1], RADIX)) {
+            LOGGER.warning(String.format("Corrupted GCP addresses snapshot file '%s', ignoring it", file));
+            return null;
+        }
+        if (!rest.startsWith(key + '\n')) {
+            LOGGER.fine(String.format("GCP addresses snapshot file '%s' belongs to another configuration, ignoring it", file));
+            return null;
+        }
+        long ageMs = clock.millis() - Long.parseLong(header[2]);
+        if (maxAgeMs > 0 && ageMs > maxAgeMs) {
+            LOGGER.warning(String.format("GCP addresses snapshot file '%s' saved %s ms ago is older than %s ms, ignoring it",
+                    file, ageMs, maxAgeMs));
+            return null;
+        }
+        LOGGER.fine(String.format("Read GCP addresses snapshot saved %s ms ago", ageMs));
+        return rest.substring(key.length() + 1);
+    }
+
+    private static List<GcpAddress> parseBody(String body) {
+        List<GcpAddress> result = new ArrayList<GcpAddress>();
+        for (String line : body.split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split(SEPARATOR, -1);
+            result.add(new GcpAddress(parts[0], nullIfEmpty(parts[1]), column(parts, ZONE_COLUMN),
+                    column(parts, NETWORK_COLUMN), column(parts, SUBNETWORK_COLUMN), creationTime(parts)));
+        }
+        return result;
+    }
+
+    private static String column(String[] parts, int index) {
+        return parts.length > index ? nullIfEmpty(parts[index]) : null;
+    }
+
+    private static long creationTime(String[] parts) {
+        String value = column(parts, CREATION_TIME_COLUMN);
+        return value == null ? GcpAddress.UNKNOWN_CREATION_TIME : Long.parseLong(value);
+    }
+
+    private static String emptyIfUnknown(long creationTime) {
+        return creationTime == GcpAddress.UNKNOWN_CREATION_TIME ? "" : String.valueOf(creationTime);
+    }
+
+    private static String emptyIfNull(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String nullIfEmpty(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static long crc32(byte[] data) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, data.length);
+        return crc32.getValue();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link InstanceSource} which lists the instances in all zones of each project with a single Compute API
+ * instances.aggregatedList call per project.
+ * <p>
+ * It is the cheapest source for the deployments spanning many zones, but it ignores the configured zones.
+ */
+final class AggregatedListInstanceSource
+        implements InstanceSource {
+    private static final ILogger LOGGER = Logger.getLogger(AggregatedListInstanceSource.class);
+
+    private final GcpComputeApi gcpComputeApi;
+    private final Filter filter;
+
+    AggregatedListInstanceSource(GcpComputeApi gcpComputeApi, Filter filter) {
+        this.gcpComputeApi = gcpComputeApi;
+        this.filter = filter;
+    }
+
+    @Override
+    public List<GcpAddress> instances(List<String> projects, List<String> zones, AccessTokenSupplier accessToken) {
+        List<GcpAddress> result = new ArrayList<GcpAddress>();
+        for (String project : projects) {
+            LOGGER.finest(String.format("Fetching instances in all zones for project '%s'", project));
+            result.addAll(gcpComputeApi.aggregatedInstances(project, filter, accessToken.get()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import com.hazelcast.core.HazelcastException;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * {@link InstanceSource} decorator which shares the instances fetched for the same projects and zones between the
+ * callers, e.g. the discovery strategies sharing one {@link GcpClient}, so that they do not call the GCP APIs each.
+ * <p>
+ * A call made while another one is fetching the instances waits for it and returns its result. Additionally, the last
+ * result is reused for {@code ttlMs} (if positive), kept as a compact {@link AddressSnapshot}. A {@link PartialResult}
+ * is shared with the waiting calls, but not cached.
+ */
+final class CachingInstanceSource
+        implements InstanceSource {
+    private final InstanceSource delegate;
+    private final long ttlMs;
+    private final Clock clock;
+
+    private List<String> cachedProjects;
+    private List<String> cachedZones;
+    private AddressSnapshot cachedResult;
+    private long cachedTimeMs;
+
+    private List<String> inFlightProjects;
+    private List<String> inFlightZones;
+    private FutureTask<List<GcpAddress>> inFlight;
+
+    CachingInstanceSource(InstanceSource delegate, long ttlMs, Clock clock) {
+        this.delegate = delegate;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public List<GcpAddress> instances(final List<String> projects, final List<String> zones,
+                                      final AccessTokenSupplier accessToken) {
+        FutureTask<List<GcpAddress>> task;
+        boolean fetching = false;
+        synchronized (this) {
+            if (cachedResult != null && clock.millis() - cachedTimeMs < ttlMs && projects.equals(cachedProjects)
+                    && zones.equals(cachedZones)) {
+                return new ArrayList<GcpAddress>(cachedResult.asList());
+            }
+            if (inFlight != null && projects.equals(inFlightProjects) && zones.equals(inFlightZones)) {
+                task = inFlight;
+            } else {
+                task = new FutureTask<List<GcpAddress>>(new Callable<List<GcpAddress>>() {
+                    @Override
+                    public List<GcpAddress> call() {
+                        return delegate.instances(projects, zones, accessToken);
+                    }
+                });
+                inFlight = task;
+                inFlightProjects = projects;
+                inFlightZones = zones;
+                fetching = true;
+            }
+        }
+        if (fetching) {
+            fetch(task, projects, zones);
+        }
+        return await(task);
+    }
+
+    private void fetch(FutureTask<List<GcpAddress>> task, List<String> projects, List<String> zones) {
+        long nowMs = clock.millis();
+        task.run();
+        synchronized (this) {
+            if (inFlight == task) {
+                inFlight = null;
+            }
+            List<GcpAddress> result = resultOrNull(task);
+            if (result == null || PartialResult.isPartial(result)) {
+                // the failed projects or zones are fetched again by the next call
+                cachedResult = null;
+            } else if (ttlMs > 0) {
+                cachedProjects = projects;
+                cachedZones = zones;
+                cachedResult = AddressSnapshot.of(result);
+                cachedTimeMs = nowMs;
+            }
+        }
+    }
+
+    private static List<GcpAddress> resultOrNull(FutureTask<List<GcpAddress>> task) {
+        try {
+            return task.get();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static List<GcpAddress> await(FutureTask<List<GcpAddress>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HazelcastException("Interrupted while waiting for GCP instances", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new HazelcastException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link InstanceSource} which reads the instances from a local file instead of calling GCP APIs, e.g. for the
+ * deployments with a fixed set of instances or to compare the other sources against a known set of instances.
+ * <p>
+ * The file is read on every call, so it can be updated while the member is running. Each line has the format
+ * {@code <private address> [<public address> [<zone>]]}; empty lines and lines starting with {@code #} are ignored.
+ */
+final class FileInstanceSource
+        implements InstanceSource {
+    private static final int ZONE_COLUMN = 2;
+
+    private final File file;
+
+    FileInstanceSource(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public List<GcpAddress> instances(List<String> projects, List<String> zones, AccessTokenSupplier accessToken) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Cannot read instances file '%s'", file), e);
+        }
+        List<GcpAddress> result = new ArrayList<GcpAddress>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            String publicAddress = parts.length > 1 ? parts[1] : null;
+            String zone = parts.length > ZONE_COLUMN ? parts[ZONE_COLUMN] : null;
+            result.add(new GcpAddress(parts[0], publicAddress, zone));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Represents an instance filter expression which is evaluated server-side by the Compute API.
+ * <p>
+ * Instances of {@link Filter} are created by {@link FilterParser} (or from a legacy {@link Label}) and compiled with
+ * {@link #toComputeFilter()} into the Compute API {@code filter} syntax. Since the Compute API does not document the
+ * {@code NOT} operator, negations are pushed down to the comparisons (De Morgan's laws) during the compilation.
+ *
+ * @see <a href="https://cloud.google.com/compute/docs/reference/rest/v1/instances/list">Compute API instances.list</a>
+ */
+abstract class Filter {
+
+    /**
+     * Compiles the filter into the Compute API {@code filter} syntax, e.g.
+     * {@code (labels.application = "hazelcast") AND (name = "hz-*")}.
+     */
+    String toComputeFilter() {
+        return compile(false);
+    }
+
+    /**
+     * Compiles the filter and encodes it, so that it can be used as the value of the {@code filter} query parameter.
+     */
+    String toQueryParameter() {
+        try {
+            return URLEncoder.encode(toComputeFilter(), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    abstract String compile(boolean negated);
+
+    static Filter comparison(String field, String value) {
+        return new Comparison(field, value);
+    }
+
+    static Filter label(Label label) {
+        return comparison(String.format("labels.%s", label.getKey()), label.getValue());
+    }
+
+    static Filter not(Filter filter) {
+        return new Negation(filter);
+    }
+
+    static Filter and(Filter... filters) {
+        return and(asList(filters));
+    }
+
+    static Filter and(List<Filter> filters) {
+        return composite("AND", filters);
+    }
+
+    static Filter or(List<Filter> filters) {
+        return composite("OR", filters);
+    }
+
+    private static Filter composite(String operator, List<Filter> filters) {
+        List<Filter> nonNull = new ArrayList<Filter>();
+        for (Filter filter : filters) {
+            if (filter != null) {
+                nonNull.add(filter);
+            }
+        }
+        if (nonNull.isEmpty()) {
+            return null;
+        }
+        if (nonNull.size() == 1) {
+            return nonNull.get(0);
+        }
+        return new Composite(operator, nonNull);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Filter)) {
+            return false;
+        }
+        return toComputeFilter().equals(((Filter) o).toComputeFilter());
+    }
+
+    @Override
+    public int hashCode() {
+        return toComputeFilter().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toComputeFilter();
+    }
+
+    private static final class Comparison
+            extends Filter {
+        private final String field;
+        private final String value;
+
+        private Comparison(String field, String value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        @Override
+        String compile(boolean negated) {
+            String operator = negated ? "!=" : "=";
+            return String.format("%s %s \"%s\"", field, operator, value.replace("\\", "\\\\").replace("\"", "\\\""));
+        }
+    }
+
+    private static final class Negation
+            extends Filter {
+        private final Filter filter;
+
+        private Negation(Filter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        String compile(boolean negated) {
+            return filter.compile(!negated);
+        }
+    }
+
+    private static final class Composite
+            extends Filter {
+        private final String operator;
+        private final List<Filter> filters;
+
+        private Composite(String operator, List<Filter> filters) {
+            this.operator = operator;
+            this.filters = unmodifiableList(filters);
+        }
+
+        @Override
+        String compile(boolean negated) {
+            String effectiveOperator = operator;
+            if (negated) {
+                effectiveOperator = "AND".equals(operator) ? "OR" : "AND";
+            }
+            StringBuilder result = new StringBuilder();
+            for (Filter filter : filters) {
+                if (result.length() > 0) {
+                    result.append(' ').append(effectiveOperator).append(' ');
+                }
+                result.append('(').append(filter.compile(negated)).append(')');
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the instance filter specification into {@link Filter}.
+ * <p>
+ * Grammar:
+ * <pre>
+ * expression  := disjunction
+ * disjunction := conjunction ("OR" conjunction)*
+ * conjunction := negation (["AND"] negation)*
+ * negation    := "NOT" negation | "(" disjunction ")" | comparison
+ * comparison  := field ("=" | "!=") value
+ * field       := "labels.&lt;key&gt;" | "name" | "tags" | "machineType"
+ * </pre>
+ * Values may be double-quoted and may end with "*" to match a prefix, e.g. {@code name=hz-member-*}.
+ * <p>
+ * Example: {@code labels.application=hazelcast AND (labels.env=prod OR labels.env=staging) AND NOT tags=maintenance}.
+ */
+final class FilterParser {
+    private static final String LABELS_PREFIX = "labels.";
+    private static final String DELIMITERS = "()=\"";
+
+    private final String spec;
+    private final List<String> tokens;
+    private int position;
+
+    private FilterParser(String spec) {
+        this.spec = spec;
+        this.tokens = tokenize(spec);
+    }
+
+    /**
+     * Creates {@link Filter} from the {@code spec} String.
+     *
+     * @throws IllegalArgumentException if the specified spec is not a valid filter expression
+     */
+    static Filter parse(String spec) {
+        FilterParser parser = new FilterParser(spec);
+        if (parser.tokens.isEmpty()) {
+            throw parser.invalid("empty expression");
+        }
+        Filter result = parser.disjunction();
+        if (parser.position < parser.tokens.size()) {
+            throw parser.invalid(String.format("unexpected '%s'", parser.tokens.get(parser.position)));
+        }
+        return result;
+    }
+
+    private Filter disjunction() {
+        List<Filter> filters = new ArrayList<Filter>();
+        filters.add(conjunction());
+        while (accept("OR")) {
+            filters.add(conjunction());
+        }
+        return Filter.or(filters);
+    }
+
+    private Filter conjunction() {
+        List<Filter> filters = new ArrayList<Filter>();
+        filters.add(negation());
+        while (position < tokens.size() && !"OR".equals(peek()) && !")".equals(peek())) {
+            accept("AND");
+            filters.add(negation());
+        }
+        return Filter.and(filters);
+    }
+
+    private Filter negation() {
+        if (accept("NOT")) {
+            return Filter.not(negation());
+        }
+        if (accept("(")) {
+            Filter result = disjunction();
+            expect(")");
+            return result;
+        }
+        return comparison();
+    }
+
+    private Filter comparison() {
+        String field = next("field");
+        String operator = next("operator");
+        String value = unquote(next("value"));
+        Filter result = Filter.comparison(computeFieldFor(field), computeValueFor(field, value));
+        if ("=".equals(operator)) {
+            return result;
+        }
+        if ("!=".equals(operator)) {
+            return Filter.not(result);
+        }
+        throw invalid(String.format("expected '=' or '!=' but found '%s'", operator));
+    }
+
+    private String computeFieldFor(String field) {
+        if (field.startsWith(LABELS_PREFIX) && field.length() > LABELS_PREFIX.length()) {
+            return field;
+        }
+        if ("name".equals(field) || "machineType".equals(field)) {
+            return field;
+        }
+        if ("tags".equals(field)) {
+            return "tags.items";
+        }
+        throw invalid(String.format("unsupported field '%s'", field));
+    }
+
+    /**
+     * Instances return the machine type as a full resource URL, so a short machine type name is matched by suffix.
+     */
+    private static String computeValueFor(String field, String value) {
+        if ("machineType".equals(field) && !value.contains("/")) {
+            return String.format("*/machineTypes/%s", value);
+        }
+        return value;
+    }
+
+    private String peek() {
+        return tokens.get(position);
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && token.equals(peek())) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw invalid(String.format("expected '%s'", token));
+        }
+    }
+
+    private String next(String expected) {
+        if (position >= tokens.size()) {
+            throw invalid(String.format("expected %s", expected));
+        }
+        return tokens.get(position++);
+    }
+
+    private IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException(String.format("Invalid filter specification: '%s' (%s)", spec, reason));
+    }
+
+    private static String unquote(String token) {
+        if (token.length() >= 2 && token.startsWith("\"") && token.endsWith("\"")) {
+            return token.substring(1, token.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+        }
+        return token;
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private static List<String> tokenize(String spec) {
+        List<String> result = new ArrayList<String>();
+        int i = 0;
+        while (i < spec.length()) {
+            char c = spec.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == '=') {
+                result.add(String.valueOf(c));
+                i++;
+            } else if (c == '!' && i + 1 < spec.length() && spec.charAt(i + 1) == '=') {
+                result.add("!=");
+                i += 2;
+            } else if (c == '"') {
+                int end = i + 1;
+                while (end < spec.length() && spec.charAt(end) != '"') {
+                    end += spec.charAt(end) == '\\' ? 2 : 1;
+                }
+                if (end >= spec.length()) {
+                    throw new IllegalArgumentException(String.format("Invalid filter specification: '%s' (unterminated quote)",
+                            spec));
+                }
+                result.add(spec.substring(i, end + 1));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < spec.length() && !isDelimiter(spec, end)) {
+                    end++;
+                }
+                result.add(spec.substring(i, end));
+                i = end;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isDelimiter(String spec, int index) {
+        char c = spec.charAt(index);
+        if (Character.isWhitespace(c) || DELIMITERS.indexOf(c) >= 0) {
+            return true;
+        }
+        return c == '!' && index + 1 < spec.length() && spec.charAt(index + 1) == '=';
+    }
+}
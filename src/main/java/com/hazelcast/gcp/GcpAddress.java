@@ -15,16 +15,44 @@
 
 package com.hazelcast.gcp;
 
+import java.util.Objects;
+
 /**
  * Structure that represents the discovery output information.
  */
 final class GcpAddress {
+    /**
+     * Creation time of an instance which is not known, e.g. read from the instances file.
+     */
+    static final long UNKNOWN_CREATION_TIME = -1;
+
     private final String privateAddress;
     private final String publicAddress;
+    private final String zone;
+    private final String network;
+    private final String subnetwork;
+    private final long creationTime;
 
     GcpAddress(String privateAddress, String publicAddress) {
+        this(privateAddress, publicAddress, null);
+    }
+
+    GcpAddress(String privateAddress, String publicAddress, String zone) {
+        this(privateAddress, publicAddress, zone, null, null);
+    }
+
+    GcpAddress(String privateAddress, String publicAddress, String zone, String network, String subnetwork) {
+        this(privateAddress, publicAddress, zone, network, subnetwork, UNKNOWN_CREATION_TIME);
+    }
+
+    GcpAddress(String privateAddress, String publicAddress, String zone, String network, String subnetwork,
+               long creationTime) {
         this.privateAddress = privateAddress;
         this.publicAddress = publicAddress;
+        this.zone = zone;
+        this.network = network;
+        this.subnetwork = subnetwork;
+        this.creationTime = creationTime;
     }
 
     String getPrivateAddress() {
@@ -35,6 +63,35 @@ final class GcpAddress {
         return publicAddress;
     }
 
+    /**
+     * Returns the GCP zone of the instance or {@code null} if unknown.
+     */
+    String getZone() {
+        return zone;
+    }
+
+    /**
+     * Returns the name of the VPC network of the selected network interface or {@code null} if unknown.
+     */
+    String getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns the name of the VPC subnetwork of the selected network interface or {@code null} if unknown.
+     */
+    String getSubnetwork() {
+        return subnetwork;
+    }
+
+    /**
+     * Returns the creation time of the instance in milliseconds since the epoch or {@link #UNKNOWN_CREATION_TIME}. It
+     * describes the instance rather than its address, so it is not a part of {@link #equals(Object)}.
+     */
+    long getCreationTime() {
+        return creationTime;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -45,18 +102,16 @@ final class GcpAddress {
         }
 
         GcpAddress that = (GcpAddress) o;
-
-        if (privateAddress != null ? !privateAddress.equals(that.privateAddress) : that.privateAddress != null) {
-            return false;
-        }
-        return publicAddress != null ? publicAddress.equals(that.publicAddress) : that.publicAddress == null;
+        return Objects.equals(privateAddress, that.privateAddress)
+                && Objects.equals(publicAddress, that.publicAddress)
+                && Objects.equals(zone, that.zone)
+                && Objects.equals(network, that.network)
+                && Objects.equals(subnetwork, that.subnetwork);
     }
 
     @Override
     public int hashCode() {
-        int result = privateAddress != null ? privateAddress.hashCode() : 0;
-        result = 31 * result + (publicAddress != null ? publicAddress.hashCode() : 0);
-        return result;
+        return Objects.hash(privateAddress, publicAddress, zone, network, subnetwork);
     }
 
     @Override
@@ -64,6 +119,9 @@ final class GcpAddress {
         return "GcpAddress{"
                 + "privateAddress='" + privateAddress + '\''
                 + ", publicAddress='" + publicAddress + '\''
+                + ", zone='" + zone + '\''
+                + ", network='" + network + '\''
+                + ", subnetwork='" + subnetwork + '\''
                 + '}';
     }
 }
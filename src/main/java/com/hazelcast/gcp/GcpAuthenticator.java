@@ -39,27 +39,36 @@ class GcpAuthenticator {
     private static final String SCOPE = "https://www.googleapis.com/auth/cloud-platform";
 
     private final String endpoint;
+    private final AdaptiveTimeout timeout;
 
-    GcpAuthenticator() {
-        this(GOOGLE_AUTH_ENDPOINT);
+    GcpAuthenticator(TimeoutPolicy timeoutPolicy) {
+        this(GOOGLE_AUTH_ENDPOINT, timeoutPolicy);
     }
 
     /**
      * For test purposes only.
      */
     GcpAuthenticator(String endpoint) {
+        this(endpoint, TimeoutPolicy.defaultFor(GcpProperties.OAUTH_API_TIMEOUT));
+    }
+
+    /**
+     * For test purposes only.
+     */
+    GcpAuthenticator(String endpoint, TimeoutPolicy timeoutPolicy) {
         this.endpoint = endpoint;
+        this.timeout = new AdaptiveTimeout(timeoutPolicy);
     }
 
-    String refreshAccessToken(String privateKeyPath) {
+    AccessToken refreshAccessToken(String privateKeyPath) {
         return refreshAccessToken(privateKeyPath, System.currentTimeMillis());
     }
 
-    String refreshAccessToken(String privateKeyPath, long currentTimeMs) {
+    AccessToken refreshAccessToken(String privateKeyPath, long currentTimeMs) {
         try {
             String body = createBody(privateKeyPath, currentTimeMs);
             String response = callService(body);
-            return parseResponse(response);
+            return AccessToken.parse(response);
         } catch (FileNotFoundException e) {
             throw new HazelcastException(String.format("Private key json file not found. "
                     + "Please ensure you have stored the json file at the specified file path: %s", privateKeyPath)
@@ -141,10 +150,6 @@ class GcpAuthenticator {
     }
 
     private String callService(String body) {
-        return RestClient.create(endpoint).withBody(body).post();
-    }
-
-    private static String parseResponse(String response) {
-        return Json.parse(response).asObject().get("access_token").asString();
+        return RestClient.create(endpoint).withBody(body).withTimeout(timeout).post();
     }
 }
@@ -18,11 +18,19 @@ package com.hazelcast.gcp;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 
+import java.io.File;
+import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
-import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 
@@ -37,31 +45,96 @@ class GcpClient {
     private static final int HTTP_NOT_FOUND = 404;
 
     private static final int RETRIES = 3;
-    private static final List<String> NON_RETRYABLE_KEYWORDS = asList("Private key json file not found",
-            "Request had insufficient authentication scopes", "Required 'compute.instances.list' permission",
-            "Service account not enabled on this instance");
+    private static final String RUNNING = "RUNNING";
+    /**
+     * Failures which are not REST call errors, and so are not classified by the HTTP status.
+     */
+    private static final List<String> NON_RETRYABLE_KEYWORDS = singletonList("Private key json file not found");
 
     private boolean isKnownExceptionAlreadyLogged;
 
     private final GcpMetadataApi gcpMetadataApi;
     private final GcpComputeApi gcpComputeApi;
-    private final GcpAuthenticator gcpAuthenticator;
+    private final AccessTokenCache accessTokenCache;
 
-    private final String privateKeyPath;
-    private final List<String> projects;
-    private final List<String> zones;
-    private final Label label;
+    private final InstanceSource instanceSource;
+    private final AddressSnapshotStore addressSnapshotStore;
+    private final MembershipTracker membershipTracker = new MembershipTracker();
+    private final StoppedMemberSuspector stoppedMemberSuspector;
+    private final ZoneRefreshScheduler zoneRefreshScheduler;
+    private final Executor instancesExecutor;
 
-    GcpClient(GcpMetadataApi gcpMetadataApi, GcpComputeApi gcpComputeApi, GcpAuthenticator gcpAuthenticator,
+    private volatile List<String> projects;
+    private volatile List<String> zones;
+
+    /**
+     * @param accessTokenCache cache of the access token for the credentials of {@code gcpConfig}, which may be shared
+     *                         with other clients
+     */
+    GcpClient(GcpMetadataApi gcpMetadataApi, GcpComputeApi gcpComputeApi, AccessTokenCache accessTokenCache,
               GcpConfig gcpConfig) {
+        this(gcpMetadataApi, gcpComputeApi, accessTokenCache, gcpConfig, new DaemonThreadExecutor());
+    }
+
+    /**
+     * For test purposes only.
+     */
+    GcpClient(GcpMetadataApi gcpMetadataApi, GcpComputeApi gcpComputeApi, AccessTokenCache accessTokenCache,
+              GcpConfig gcpConfig, Executor refreshExecutor) {
         this.gcpMetadataApi = gcpMetadataApi;
         this.gcpComputeApi = gcpComputeApi;
-        this.gcpAuthenticator = gcpAuthenticator;
+        this.accessTokenCache = accessTokenCache;
+
+        this.zoneRefreshScheduler = new ZoneRefreshScheduler(gcpConfig.getZoneRefreshMaxStalenessMs(), Clock.systemUTC());
+        this.instancesExecutor = PerZoneInstanceSource.newExecutor(gcpConfig.getApiParallelism());
+        this.instanceSource = createInstanceSource(gcpConfig, gcpComputeApi, gcpMetadataApi, zoneRefreshScheduler,
+                instancesExecutor);
+        this.addressSnapshotStore = AddressSnapshotStore.create(gcpConfig);
+        this.stoppedMemberSuspector = new StoppedMemberSuspector(this, gcpConfig.getMemberStatusCheckIntervalMs());
+        membershipTracker.addListener(stoppedMemberSuspector);
+        initProjectsAndZones(gcpConfig, refreshExecutor);
+    }
+
+    /**
+     * Resolves projects and zones. If they were persisted by a previous run, the cached values are used immediately and
+     * refreshed asynchronously, so that the member does not wait for the Metadata and Compute API calls at startup.
+     */
+    private void initProjectsAndZones(final GcpConfig gcpConfig, Executor refreshExecutor) {
+        final ProjectZonesCache cache = ProjectZonesCache.create(gcpConfig);
+        ProjectZonesCache.Entry cached = cache == null ? null : cache.load();
+        if (cached != null) {
+            LOGGER.fine(String.format("Using projects %s and zones %s cached at %s", cached.getProjects(),
+                    cached.getZones(), new Date(cached.getRefreshTimeMs())));
+            this.projects = cached.getProjects();
+            this.zones = cached.getZones();
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        resolveProjectsAndZones(gcpConfig, cache);
+                    } catch (Exception e) {
+                        LOGGER.warning("Cannot refresh GCP projects and zones, using the cached values", e);
+                    }
+                }
+            });
+        } else {
+            resolveProjectsAndZones(gcpConfig, cache);
+        }
+    }
 
-        this.privateKeyPath = gcpConfig.getPrivateKeyPath();
-        this.projects = projectFromConfigOrMetadataApi(gcpConfig);
-        this.zones = zonesFromConfigOrComputeApi(gcpConfig);
-        this.label = gcpConfig.getLabel();
+    private void resolveProjectsAndZones(GcpConfig gcpConfig, ProjectZonesCache cache) {
+        List<String> resolvedProjects = projectFromConfigOrMetadataApi(gcpConfig);
+        List<String> resolvedZones = zonesFromConfigOrComputeApi(gcpConfig, resolvedProjects);
+        if (resolvedZones.isEmpty() && zones != null && !zones.isEmpty()) {
+            // the zones could not be fetched (e.g. 403), the known ones are better than discovering nothing
+            LOGGER.warning(String.format("Cannot refresh GCP projects and zones, using the cached zones %s", zones));
+            return;
+        }
+        this.projects = resolvedProjects;
+        this.zones = resolvedZones;
+        if (cache != null && !resolvedZones.isEmpty()) {
+            cache.store(resolvedProjects, resolvedZones, System.currentTimeMillis());
+        }
     }
 
     private List<String> projectFromConfigOrMetadataApi(final GcpConfig gcpConfig) {
@@ -77,14 +150,14 @@ class GcpClient {
         }, RETRIES, NON_RETRYABLE_KEYWORDS));
     }
 
-    private List<String> zonesFromConfigOrComputeApi(final GcpConfig gcpConfig) {
+    private List<String> zonesFromConfigOrComputeApi(final GcpConfig gcpConfig, final List<String> projects) {
         try {
             if (gcpConfig.getRegion() != null) {
                 LOGGER.finest("Property 'region' configured, fetching GCP zones of the specified GCP region");
                 return RetryUtils.retry(new Callable<List<String>>() {
                     @Override
                     public List<String> call() {
-                        return fetchZones(gcpConfig.getRegion());
+                        return fetchZones(gcpConfig.getRegion(), projects);
                     }
                 }, RETRIES, NON_RETRYABLE_KEYWORDS);
             }
@@ -98,7 +171,7 @@ class GcpClient {
                 @Override
                 public List<String> call() {
                     String region = gcpMetadataApi.currentRegion();
-                    return fetchZones(region);
+                    return fetchZones(region, projects);
                 }
             }, RETRIES, NON_RETRYABLE_KEYWORDS);
         } catch (RestClientException e) {
@@ -107,21 +180,130 @@ class GcpClient {
         }
     }
 
+    /**
+     * Fetches the addresses of the matching instances.
+     * <p>
+     * If the cache directory is configured, then every complete result is persisted and used as the fallback when
+     * the GCP APIs are unavailable, so that the member does not start standalone. Permanent failures (e.g. HTTP 401,
+     * 403 or 404) are not hidden by the fallback, nor are the results older than the configured maximum age used.
+     * <p>
+     * Each project (or zone, depending on the instance source) is fetched and retried independently, see
+     * {@link PerZoneInstanceSource}.
+     * <p>
+     * Every successful result is also compared with the previous one to notify the {@link GcpMembershipListener}s.
+     */
     List<GcpAddress> getAddresses() {
+        CachingAccessTokenSupplier accessToken = new CachingAccessTokenSupplier();
         try {
-            return RetryUtils.retry(new Callable<List<GcpAddress>>() {
-                @Override
-                public List<GcpAddress> call() {
-                    return fetchGcpAddresses();
+            List<GcpAddress> result = instanceSource.instances(projects, zones, accessToken);
+            if (PartialResult.isPartial(result)) {
+                accessToken.invalidate();
+                LOGGER.warning(String.format("Discovered GCP instances are incomplete, failed to fetch %s",
+                        ((PartialResult) result).getFailedUnits()));
+            } else if (addressSnapshotStore != null && !result.isEmpty()) {
+                addressSnapshotStore.save(result);
+            }
+            membershipTracker.update(result);
+            return result;
+        } catch (RuntimeException e) {
+            accessToken.invalidate();
+            List<GcpAddress> lastKnownAddresses = lastKnownAddresses(e);
+            if (lastKnownAddresses != null) {
+                LOGGER.warning(String.format("Cannot fetch GCP instances, using %s last known addresses",
+                        lastKnownAddresses.size()), e);
+                return lastKnownAddresses;
+            }
+            if (e instanceof RestClientException) {
+                handleKnownException((RestClientException) e);
+                return emptyList();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the persisted addresses to use instead of failing with {@code e} or {@code null} if there are none or the
+     * failure is permanent, e.g. invalid credentials, which the persisted addresses would only hide.
+     */
+    private List<GcpAddress> lastKnownAddresses(RuntimeException e) {
+        RestClientException restClientException = RetryUtils.restClientExceptionOf(e);
+        if (addressSnapshotStore == null || (restClientException != null && !restClientException.isRetryable())) {
+            return null;
+        }
+        return addressSnapshotStore.load();
+    }
+
+    GcpMetadataApi getMetadataApi() {
+        return gcpMetadataApi;
+    }
+
+    MembershipTracker getMembershipTracker() {
+        return membershipTracker;
+    }
+
+    /**
+     * Returns the suspector of the members running on stopped instances, shared by all strategies using this client.
+     */
+    StoppedMemberSuspector getStoppedMemberSuspector() {
+        return stoppedMemberSuspector;
+    }
+
+    /**
+     * Returns the private addresses of the {@code removed} instances which are confirmed to be not running or deleted,
+     * by listing their zones without the discovery filter. An instance with an unknown zone is never confirmed.
+     */
+    Set<String> notRunningInstances(List<GcpMembershipEvent> removed) {
+        Map<String, Map<String, String>> statusesByZone = new HashMap<String, Map<String, String>>();
+        Set<String> result = new HashSet<String>();
+        String accessToken = null;
+        for (GcpMembershipEvent event : removed) {
+            String zone = event.getZone();
+            if (zone == null) {
+                continue;
+            }
+            if (!statusesByZone.containsKey(zone)) {
+                if (accessToken == null) {
+                    accessToken = fetchAccessToken();
                 }
-            }, RETRIES, NON_RETRYABLE_KEYWORDS);
-        } catch (RestClientException e) {
-            handleKnownException(e);
-            return emptyList();
+                statusesByZone.put(zone, instanceStatuses(zone, accessToken));
+            }
+            String status = statusesByZone.get(zone).get(event.getPrivateAddress());
+            if (!RUNNING.equals(status)) {
+                result.add(event.getPrivateAddress());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges the instance statuses of {@code zone} in all projects; an address running in any project is running.
+     */
+    private Map<String, String> instanceStatuses(String zone, String accessToken) {
+        Map<String, String> result = new HashMap<String, String>();
+        for (String project : projects) {
+            for (Map.Entry<String, String> entry : gcpComputeApi.instanceStatuses(project, zone, accessToken).entrySet()) {
+                if (!RUNNING.equals(result.get(entry.getKey()))) {
+                    result.put(entry.getKey(), entry.getValue());
+                }
+            }
         }
+        return result;
     }
 
-    private List<String> fetchZones(String region) {
+    ZoneRefreshScheduler getZoneRefreshScheduler() {
+        return zoneRefreshScheduler;
+    }
+
+    /**
+     * Stops the threads which list the instances concurrently, see {@link GcpConfig#getApiParallelism()}.
+     */
+    void shutdown() {
+        if (instancesExecutor instanceof ExecutorService) {
+            ((ExecutorService) instancesExecutor).shutdown();
+        }
+    }
+
+    private List<String> fetchZones(String region, List<String> projects) {
         List<String> zones = new ArrayList<>();
         String accessToken = fetchAccessToken();
         for (String project : projects) {
@@ -130,32 +312,50 @@ class GcpClient {
         return zones;
     }
 
-    private List<GcpAddress> fetchGcpAddresses() {
-        LOGGER.finest("Fetching OAuth Access Token");
-        final String accessToken = fetchAccessToken();
-
-        List<GcpAddress> result = new ArrayList<GcpAddress>();
-        for (final String project : projects) {
-            for (final String zone : zones) {
-                LOGGER.finest(String.format("Fetching instances for project '%s' and zone '%s'", project, zone));
-                List<GcpAddress> addresses = gcpComputeApi.instances(project, zone, label, accessToken);
-                LOGGER.finest(String.format("Found the following instances for project '%s' and zone '%s': %s", project, zone,
-                        addresses));
-                result.addAll(addresses);
-            }
+    private static InstanceSource createInstanceSource(GcpConfig gcpConfig, GcpComputeApi gcpComputeApi,
+                                                       GcpMetadataApi gcpMetadataApi, ZoneRefreshScheduler scheduler,
+                                                       Executor executor) {
+        InstanceSource.Type type = gcpConfig.getInstanceSource();
+        InstanceSource result;
+        switch (type) {
+            case AGGREGATED:
+                result = new AggregatedListInstanceSource(gcpComputeApi, gcpConfig.getFilter());
+                break;
+            case INSTANCE_GROUP:
+                result = new ManagedInstanceGroupInstanceSource(gcpComputeApi, gcpMetadataApi, gcpConfig);
+                break;
+            case FILE:
+                result = new FileInstanceSource(new File(gcpConfig.getInstancesFile()));
+                break;
+            default:
+                result = new ZoneScanInstanceSource(gcpComputeApi, gcpConfig.getFilter());
         }
-        return result;
+        if (type != InstanceSource.Type.FILE) {
+            result = new PerZoneInstanceSource(result, type == InstanceSource.Type.ZONES, executor, RETRIES,
+                    NON_RETRYABLE_KEYWORDS, scheduler);
+        }
+        return new CachingInstanceSource(result, gcpConfig.getInstancesCacheTtlMs(), Clock.systemUTC());
     }
 
     private String fetchAccessToken() {
-        if (privateKeyPath != null) {
-            return gcpAuthenticator.refreshAccessToken(privateKeyPath);
-        }
-        return gcpMetadataApi.accessToken();
+        return accessTokenCache.get();
     }
 
-    String getAvailabilityZone() {
-        return gcpMetadataApi.currentZone();
+    GcpInstanceMetadata getInstanceMetadata() {
+        return RetryUtils.retry(new Callable<GcpInstanceMetadata>() {
+            @Override
+            public GcpInstanceMetadata call() {
+                return gcpMetadataApi.currentInstance();
+            }
+        }, RETRIES, NON_RETRYABLE_KEYWORDS);
+    }
+
+    /**
+     * Fetches the instance metadata with a single Metadata Server call, for the callers which must not wait for the
+     * retries, e.g. a Hazelcast Client which may be running outside GCP.
+     */
+    GcpInstanceMetadata getInstanceMetadataWithoutRetries() {
+        return gcpMetadataApi.currentInstance();
     }
 
     private void handleKnownException(RestClientException e) {
@@ -181,4 +381,41 @@ class GcpClient {
         }
         LOGGER.finest(e);
     }
+
+    /**
+     * Takes the access token from the {@link AccessTokenCache} on the first use and reuses it within a single discovery
+     * call.
+     */
+    private final class CachingAccessTokenSupplier
+            implements InstanceSource.AccessTokenSupplier {
+        private String accessToken;
+
+        @Override
+        public synchronized String get() {
+            if (accessToken == null) {
+                accessToken = fetchAccessToken();
+            }
+            return accessToken;
+        }
+
+        /**
+         * Drops the token used by a failed call from the cache, since the failure may be caused by a revoked token.
+         */
+        synchronized void invalidate() {
+            accessTokenCache.invalidate(accessToken);
+        }
+    }
+
+    /**
+     * Runs each task in a new daemon thread, so that a pending refresh never prevents the JVM from exiting.
+     */
+    private static final class DaemonThreadExecutor
+            implements Executor {
+        @Override
+        public void execute(Runnable command) {
+            Thread thread = new Thread(command, "hz.gcp.refresh");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
 }
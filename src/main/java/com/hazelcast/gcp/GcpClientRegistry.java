@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.core.HazelcastException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * JVM-wide registry of {@link GcpClient}s shared by all {@link GcpDiscoveryStrategy} instances, e.g. a member and
+ * Hazelcast clients running in the same JVM.
+ * <p>
+ * Strategies with the same discovery configuration share one {@link GcpClient}, so its instance listings, caches and
+ * adaptive timeouts are reused. Strategies with different configurations still share the API clients whose settings
+ * match, so that e.g. the Compute API rate limit and the observed latencies apply to the whole JVM, and the
+ * {@link AccessTokenCache} of the same credentials, so that the token is not fetched by every strategy. Every shared
+ * object is reference counted and the {@link GcpClient} is shut down when the last strategy using it releases it.
+ * <p>
+ * A {@link GcpClient} is registered as a {@link FutureTask} and created outside the registry lock, so its creation
+ * (which may call the Metadata and Compute APIs to resolve the projects and zones) does not block the strategies with
+ * other configurations, while the strategies started concurrently with the same configuration wait for the same
+ * client; if its creation fails, all of them fail.
+ */
+final class GcpClientRegistry {
+    private static final GcpClientRegistry INSTANCE = new GcpClientRegistry(new Factory());
+
+    private final Factory factory;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    /**
+     * For test purposes only.
+     */
+    GcpClientRegistry(Factory factory) {
+        this.factory = factory;
+    }
+
+    static GcpClientRegistry instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the {@link GcpClient} for {@code gcpConfig}, creating it if no other strategy uses the same configuration.
+     * Each call must be paired with {@link #release(GcpConfig)}.
+     */
+    GcpClient acquire(GcpConfig gcpConfig) {
+        FutureTask<GcpClient> client;
+        boolean created;
+        synchronized (this) {
+            client = clientTask(gcpConfig);
+            created = client == null;
+            if (created) {
+                client = newClientTask(gcpConfig);
+                register(clientKey(gcpConfig), client);
+            }
+        }
+        if (created) {
+            client.run();
+        }
+        try {
+            return client.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(gcpConfig);
+            throw new HazelcastException("Interrupted while creating the GCP client", e);
+        } catch (ExecutionException e) {
+            release(gcpConfig);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new HazelcastException(e.getCause());
+        }
+    }
+
+    /**
+     * Acquires the shared API clients and the {@link GcpClient} task for {@code gcpConfig}, or returns {@code null} if
+     * the {@link GcpClient} must be created.
+     */
+    @SuppressWarnings("unchecked")
+    private FutureTask<GcpClient> clientTask(GcpConfig gcpConfig) {
+        if (acquire(metadataApiKey(gcpConfig)) == null) {
+            register(metadataApiKey(gcpConfig), factory.metadataApi(gcpConfig));
+        }
+        if (acquire(computeApiKey(gcpConfig)) == null) {
+            register(computeApiKey(gcpConfig), factory.computeApi(gcpConfig));
+        }
+        if (acquire(authenticatorKey(gcpConfig)) == null) {
+            register(authenticatorKey(gcpConfig), factory.authenticator(gcpConfig));
+        }
+        if (acquire(accessTokenKey(gcpConfig)) == null) {
+            register(accessTokenKey(gcpConfig), factory.accessTokenCache(
+                    (GcpMetadataApi) entries.get(metadataApiKey(gcpConfig)).value,
+                    (GcpAuthenticator) entries.get(authenticatorKey(gcpConfig)).value, gcpConfig));
+        }
+        return (FutureTask<GcpClient>) acquire(clientKey(gcpConfig));
+    }
+
+    private FutureTask<GcpClient> newClientTask(final GcpConfig gcpConfig) {
+        final GcpMetadataApi metadataApi = (GcpMetadataApi) entries.get(metadataApiKey(gcpConfig)).value;
+        final GcpComputeApi computeApi = (GcpComputeApi) entries.get(computeApiKey(gcpConfig)).value;
+        final AccessTokenCache accessTokenCache = (AccessTokenCache) entries.get(accessTokenKey(gcpConfig)).value;
+        return new FutureTask<GcpClient>(new Callable<GcpClient>() {
+            @Override
+            public GcpClient call() {
+                return factory.client(metadataApi, computeApi, accessTokenCache, gcpConfig);
+            }
+        });
+    }
+
+    /**
+     * Releases the {@link GcpClient} acquired for {@code gcpConfig}; it is shut down if no other strategy uses it.
+     */
+    void release(GcpConfig gcpConfig) {
+        Object client;
+        synchronized (this) {
+            client = release(clientKey(gcpConfig));
+            release(metadataApiKey(gcpConfig));
+            release(computeApiKey(gcpConfig));
+            release(authenticatorKey(gcpConfig));
+            release(accessTokenKey(gcpConfig));
+        }
+        if (client != null) {
+            shutdown((FutureTask<?>) client);
+        }
+    }
+
+    /**
+     * Shuts down the client of a released task; a task is released only by the strategies which waited for it, so it is
+     * already completed, possibly with a failure.
+     */
+    private static void shutdown(FutureTask<?> client) {
+        try {
+            ((GcpClient) client.get()).shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // the client was not created
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Increments the reference count of {@code key} and returns its value, or {@code null} if it is not registered.
+     */
+    private Object acquire(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.references++;
+        return entry.value;
+    }
+
+    private Object register(String key, Object value) {
+        Entry entry = new Entry(value);
+        entry.references = 1;
+        entries.put(key, entry);
+        return value;
+    }
+
+    /**
+     * Decrements the reference count of {@code key} and returns the value if it is no longer used, otherwise {@code null}.
+     */
+    private Object release(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || --entry.references > 0) {
+            return null;
+        }
+        entries.remove(key);
+        return entry.value;
+    }
+
+    private static String metadataApiKey(GcpConfig gcpConfig) {
+        return String.format("metadata-api;timeout=%s", gcpConfig.getMetadataApiTimeout());
+    }
+
+    private static String computeApiKey(GcpConfig gcpConfig) {
+        return String.format("compute-api;timeout=%s;network=%s;subnetwork=%s;address-family=%s;qps=%s",
+                gcpConfig.getComputeApiTimeout(), gcpConfig.getNetwork(), gcpConfig.getSubnetwork(),
+                gcpConfig.getAddressFamily(), gcpConfig.getComputeApiQps());
+    }
+
+    private static String authenticatorKey(GcpConfig gcpConfig) {
+        return String.format("oauth-api;timeout=%s", gcpConfig.getOauthApiTimeout());
+    }
+
+    /**
+     * Returns the key of the credentials, which are the private key file or (if it is not configured) the service
+     * account of the instance.
+     */
+    private static String accessTokenKey(GcpConfig gcpConfig) {
+        return String.format("access-token;private-key-path=%s", gcpConfig.getPrivateKeyPath());
+    }
+
+    /**
+     * Returns the key of all the properties used by {@link GcpClient}; the properties used only by the strategy (e.g.
+     * the port range) are not included, so that they do not prevent sharing.
+     */
+    private static String clientKey(GcpConfig gcpConfig) {
+        return String.format("client;%s;%s;%s;private-key-path=%s;projects=%s;zones=%s;region=%s;filter=%s;"
+                        + "instance-group=%s;instance-source=%s;instances-file=%s;instances-cache-ttl-ms=%s;"
+                        + "api-parallelism=%s;cache-directory=%s;last-known-instances-max-age-ms=%s;"
+                        + "zone-refresh-max-staleness-ms=%s;member-status-check-interval-ms=%s",
+                metadataApiKey(gcpConfig), computeApiKey(gcpConfig), authenticatorKey(gcpConfig),
+                gcpConfig.getPrivateKeyPath(), gcpConfig.getProjects(), gcpConfig.getZones(), gcpConfig.getRegion(),
+                gcpConfig.getFilter(), gcpConfig.getInstanceGroup(), gcpConfig.getInstanceSource(),
+                gcpConfig.getInstancesFile(), gcpConfig.getInstancesCacheTtlMs(), gcpConfig.getApiParallelism(),
+                gcpConfig.getCacheDirectory(), gcpConfig.getLastKnownInstancesMaxAgeMs(),
+                gcpConfig.getZoneRefreshMaxStalenessMs(), gcpConfig.getMemberStatusCheckIntervalMs());
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private int references;
+
+        private Entry(Object value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Creates the shared objects.
+     */
+    static class Factory {
+        GcpMetadataApi metadataApi(GcpConfig gcpConfig) {
+            return new GcpMetadataApi(gcpConfig.getMetadataApiTimeout());
+        }
+
+        GcpComputeApi computeApi(GcpConfig gcpConfig) {
+            return new GcpComputeApi(gcpConfig.getComputeApiTimeout(), gcpConfig.getNetwork(), gcpConfig.getSubnetwork(),
+                    gcpConfig.getAddressFamily(), new ProjectRateLimiter(gcpConfig.getComputeApiQps()));
+        }
+
+        GcpAuthenticator authenticator(GcpConfig gcpConfig) {
+            return new GcpAuthenticator(gcpConfig.getOauthApiTimeout());
+        }
+
+        AccessTokenCache accessTokenCache(GcpMetadataApi metadataApi, GcpAuthenticator authenticator,
+                                          GcpConfig gcpConfig) {
+            return new AccessTokenCache(metadataApi, authenticator, gcpConfig.getPrivateKeyPath());
+        }
+
+        GcpClient client(GcpMetadataApi metadataApi, GcpComputeApi computeApi, AccessTokenCache accessTokenCache,
+                         GcpConfig gcpConfig) {
+            return new GcpClient(metadataApi, computeApi, accessTokenCache, gcpConfig);
+        }
+    }
+}
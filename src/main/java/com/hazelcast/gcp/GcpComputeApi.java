@@ -17,12 +17,23 @@ package com.hazelcast.gcp;
 
 import com.hazelcast.internal.json.Json;
 import com.hazelcast.internal.json.JsonArray;
+import com.hazelcast.internal.json.JsonObject;
 import com.hazelcast.internal.json.JsonValue;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.hazelcast.gcp.Utils.lastPartOf;
+import static java.util.Arrays.asList;
 
 /**
  * Responsible for connecting to the Google Cloud Compute API.
@@ -30,52 +41,257 @@ import static com.hazelcast.gcp.Utils.lastPartOf;
  * @see <a href="https://cloud.google.com/compute/docs/reference/rest/v1/">Compute Engine API</a>
  */
 class GcpComputeApi {
+    private static final ILogger LOGGER = Logger.getLogger(GcpComputeApi.class);
+
     private static final String GOOGLE_API_ENDPOINT = "https://www.googleapis.com";
+    private static final String RUNNING = "RUNNING";
 
     private final String endpoint;
+    private final AdaptiveTimeout timeout;
+    private final String network;
+    private final String subnetwork;
+    private final AddressFamily addressFamily;
+    private final ProjectRateLimiter rateLimiter;
 
-    GcpComputeApi() {
-        this.endpoint = GOOGLE_API_ENDPOINT;
+    GcpComputeApi(TimeoutPolicy timeoutPolicy, String network, String subnetwork, AddressFamily addressFamily,
+                  ProjectRateLimiter rateLimiter) {
+        this(GOOGLE_API_ENDPOINT, timeoutPolicy, network, subnetwork, addressFamily, rateLimiter);
     }
 
     /**
      * For test purposes only.
      */
     GcpComputeApi(String endpoint) {
+        this(endpoint, TimeoutPolicy.defaultFor(GcpProperties.COMPUTE_API_TIMEOUT), null, null, AddressFamily.IPV4,
+                ProjectRateLimiter.UNLIMITED);
+    }
+
+    /**
+     * For test purposes only.
+     */
+    GcpComputeApi(String endpoint, TimeoutPolicy timeoutPolicy, String network, String subnetwork,
+                  AddressFamily addressFamily, ProjectRateLimiter rateLimiter) {
         this.endpoint = endpoint;
+        this.timeout = new AdaptiveTimeout(timeoutPolicy);
+        this.network = network;
+        this.subnetwork = subnetwork;
+        this.addressFamily = addressFamily;
+        this.rateLimiter = rateLimiter;
     }
 
-    List<GcpAddress> instances(String project, String zone, Label label, String accessToken) {
-        String response = RestClient
-                .create(urlFor(project, zone, label))
-                .withHeader("Authorization", String.format("OAuth %s", accessToken))
-                .get();
+    List<GcpAddress> instances(String project, String zone, Filter filter, String accessToken) {
+        return runningInstances(pagedInstances(project, urlFor(project, zone, filter), zone, accessToken));
+    }
 
-        List<GcpAddress> result = new ArrayList<GcpAddress>();
-        for (JsonValue item : toJsonArray(Json.parse(response).asObject().get("items"))) {
-            if ("RUNNING".equals(item.asObject().get("status").asString())) {
-                String privateAddress = null;
-                String publicAddress = null;
-                for (JsonValue networkInterface : toJsonArray(item.asObject().get("networkInterfaces"))) {
-                    privateAddress = networkInterface.asObject().getString("networkIP", null);
-                    for (JsonValue accessConfig : toJsonArray(networkInterface.asObject().get("accessConfigs"))) {
-                        publicAddress = accessConfig.asObject().getString("natIP", null);
+    /**
+     * Returns the status (e.g. {@code RUNNING} or {@code TERMINATED}) of every instance in {@code zone}, regardless of
+     * the discovery filter, keyed by every address of its network interfaces which discovery may report as the private
+     * address: the internal IPv4 address ({@code networkIP}) and the internal and external IPv6 addresses. An address
+     * of a running instance is reported as running, even if a stopped instance still holds the same address.
+     */
+    Map<String, String> instanceStatuses(String project, String zone, String accessToken) {
+        Map<String, String> result = new HashMap<String, String>();
+        for (InstancesPayloadScanner.Instance instance : pagedInstances(project, urlFor(project, zone, null), zone,
+                accessToken)) {
+            for (InstancesPayloadScanner.NetworkInterface networkInterface : instance.getNetworkInterfaces()) {
+                for (String address : asList(networkInterface.getNetworkIp(), networkInterface.getIpv6Address(),
+                        networkInterface.getExternalIpv6())) {
+                    if (address != null && !RUNNING.equals(result.get(address))) {
+                        result.put(address, instance.getStatus());
                     }
                 }
-                if (privateAddress != null) {
-                    result.add(new GcpAddress(privateAddress, publicAddress));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lists the instances in all zones of {@code project} with a single aggregatedList call.
+     */
+    List<GcpAddress> aggregatedInstances(String project, Filter filter, String accessToken) {
+        String url = String.format("%s/compute/v1/projects/%s/aggregated/instances", endpoint, project);
+        if (filter != null) {
+            url = String.format("%s?filter=%s", url, filter.toQueryParameter());
+        }
+        return runningInstances(pagedInstances(project, url, null, accessToken));
+    }
+
+    /**
+     * Lists the instances from all pages of an {@code instances.list} response (of the zone {@code zone}) or of
+     * an {@code instances.aggregatedList} response (if {@code zone} is {@code null}).
+     */
+    private List<InstancesPayloadScanner.Instance> pagedInstances(String project, String url, String zone,
+                                                                  String accessToken) {
+        List<InstancesPayloadScanner.Instance> result = new ArrayList<InstancesPayloadScanner.Instance>();
+        String pageToken = null;
+        do {
+            rateLimiter.acquire(project);
+            byte[] response = RestClient
+                    .create(withPageToken(url, pageToken))
+                    .withHeader("Authorization", String.format("OAuth %s", accessToken))
+                    .withTimeout(timeout)
+                    .getBytes();
+            InstancesPayloadScanner.Page page = zone != null
+                    ? InstancesPayloadScanner.scanList(response, zone)
+                    : InstancesPayloadScanner.scanAggregatedList(response);
+            result.addAll(page.getInstances());
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+        return result;
+    }
+
+    private static String withPageToken(String url, String pageToken) {
+        if (pageToken == null) {
+            return url;
+        }
+        try {
+            return String.format("%s%spageToken=%s", url, url.contains("?") ? "&" : "?", URLEncoder.encode(pageToken, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<GcpAddress> runningInstances(List<InstancesPayloadScanner.Instance> instances) {
+        List<GcpAddress> result = new ArrayList<GcpAddress>();
+        for (InstancesPayloadScanner.Instance instance : instances) {
+            if (RUNNING.equals(instance.getStatus())) {
+                GcpAddress address = toGcpAddress(instance);
+                if (address != null) {
+                    result.add(address);
                 }
             }
         }
+        return result;
+    }
 
+    private GcpAddress toGcpAddress(InstancesPayloadScanner.Instance instance) {
+        InstancesPayloadScanner.NetworkInterface networkInterface = selectNetworkInterface(instance.getNetworkInterfaces());
+        if (networkInterface == null) {
+            LOGGER.finest(String.format("Instance '%s' has no network interface, skipping it", instance.getName()));
+            return null;
+        }
+        String privateIpv4 = networkInterface.getNetworkIp();
+        String publicIpv4 = networkInterface.getNatIp();
+        String publicIpv6 = networkInterface.getExternalIpv6();
+        // the external IPv6 address is also reachable from within the VPC, e.g. in IPv6-only subnets with external access
+        String privateIpv6 = networkInterface.getIpv6Address() != null ? networkInterface.getIpv6Address() : publicIpv6;
+
+        boolean useIpv6 = addressFamily == AddressFamily.IPV6 ? privateIpv6 != null : privateIpv4 == null;
+        String privateAddress = useIpv6 ? privateIpv6 : privateIpv4;
+        if (privateAddress == null) {
+            return null;
+        }
+        String publicAddress = useIpv6 ? publicIpv6 : publicIpv4;
+        return new GcpAddress(privateAddress, publicAddress, instance.getZone(),
+                lastPartOrNull(networkInterface.getNetwork()), lastPartOrNull(networkInterface.getSubnetwork()),
+                creationTime(instance.getCreationTimestamp()));
+    }
+
+    private static long creationTime(String creationTimestamp) {
+        if (creationTimestamp == null) {
+            return GcpAddress.UNKNOWN_CREATION_TIME;
+        }
+        try {
+            return OffsetDateTime.parse(creationTimestamp).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            LOGGER.finest(String.format("Cannot parse the instance creation timestamp '%s'", creationTimestamp));
+            return GcpAddress.UNKNOWN_CREATION_TIME;
+        }
+    }
+
+    /**
+     * Returns the first network interface in the configured network and subnetwork, or the primary network interface
+     * (listed first by the Compute API) if neither is configured or no interface matches them. Returns {@code null} only
+     * if there is no network interface at all.
+     */
+    private InstancesPayloadScanner.NetworkInterface selectNetworkInterface(
+            List<InstancesPayloadScanner.NetworkInterface> networkInterfaces) {
+        for (InstancesPayloadScanner.NetworkInterface networkInterface : networkInterfaces) {
+            if (matches(network, networkInterface.getNetwork()) && matches(subnetwork, networkInterface.getSubnetwork())) {
+                return networkInterface;
+            }
+        }
+        return networkInterfaces.isEmpty() ? null : networkInterfaces.get(0);
+    }
+
+    /**
+     * Compares by the resource name, so that both a name and a full resource URL can be configured.
+     */
+    private static boolean matches(String preferred, String resourceUrl) {
+        if (preferred == null) {
+            return true;
+        }
+        return resourceUrl != null && lastPartOf(resourceUrl, "/").equals(lastPartOf(preferred, "/"));
+    }
+
+    private static String lastPartOrNull(String resourceUrl) {
+        return resourceUrl == null ? null : lastPartOf(resourceUrl, "/");
+    }
+
+    /**
+     * Lists the instances of the managed instance group {@code group}, grouped by zone.
+     *
+     * @param location "regions/&lt;region&gt;" for a regional or "zones/&lt;zone&gt;" for a zonal managed instance group
+     * @return instance names by zone
+     */
+    Map<String, List<String>> managedInstances(String project, String location, String group, String accessToken) {
+        String url = String.format("%s/compute/v1/projects/%s/%s/instanceGroupManagers/%s/listManagedInstances", endpoint,
+                project, location, group);
+        Map<String, List<String>> result = new LinkedHashMap<String, List<String>>();
+        String pageToken = null;
+        do {
+            rateLimiter.acquire(project);
+            String response = RestClient
+                    .create(withPageToken(url, pageToken))
+                    .withHeader("Authorization", String.format("OAuth %s", accessToken))
+                    .withBody("")
+                    .withTimeout(timeout)
+                    .post();
+            JsonObject page = Json.parse(response).asObject();
+            addManagedInstances(result, toJsonArray(page.get("managedInstances")));
+            pageToken = page.getString("nextPageToken", null);
+        } while (pageToken != null);
         return result;
     }
 
+    private static void addManagedInstances(Map<String, List<String>> result, JsonArray managedInstances) {
+        for (JsonValue managedInstance : managedInstances) {
+            String instanceUrl = managedInstance.asObject().getString("instance", null);
+            String zone = zoneOf(instanceUrl);
+            if (zone != null) {
+                List<String> names = result.get(zone);
+                if (names == null) {
+                    names = new ArrayList<String>();
+                    result.put(zone, names);
+                }
+                names.add(lastPartOf(instanceUrl, "/"));
+            }
+        }
+    }
+
+    /**
+     * Extracts the zone from an instance URL, e.g. ".../projects/project-1/zones/us-east1-b/instances/hz-1".
+     */
+    private static String zoneOf(String instanceUrl) {
+        if (instanceUrl == null) {
+            return null;
+        }
+        String[] parts = instanceUrl.split("/");
+        for (int i = 0; i < parts.length - 1; i++) {
+            if ("zones".equals(parts[i])) {
+                return parts[i + 1];
+            }
+        }
+        return null;
+    }
+
     List<String> zones(String project, String region, String accessToken) {
+        rateLimiter.acquire(project);
         String url = String.format("%s/compute/v1/projects/%s/regions/%s?alt=json&fields=zones", endpoint, project, region);
         String response = RestClient
                 .create(url)
                 .withHeader("Authorization", String.format("OAuth %s", accessToken))
+                .withTimeout(timeout)
                 .get();
 
         JsonArray zoneUrls = toJsonArray(Json.parse(response).asObject().get("zones"));
@@ -87,10 +303,10 @@ class GcpComputeApi {
         return zones;
     }
 
-    private String urlFor(String project, String zone, Label label) {
+    private String urlFor(String project, String zone, Filter filter) {
         String url = String.format("%s/compute/v1/projects/%s/zones/%s/instances", endpoint, project, zone);
-        if (label != null) {
-            url = String.format("%s?filter=labels.%s+eq+%s", url, label.getKey(), label.getValue());
+        if (filter != null) {
+            url = String.format("%s?filter=%s", url, filter.toQueryParameter());
         }
         return url;
     }
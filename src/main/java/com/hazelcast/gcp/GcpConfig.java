@@ -26,18 +26,58 @@ final class GcpConfig {
     private final String privateKeyPath;
     private final List<String> projects;
     private final List<String> zones;
-    private final Label label;
+    private final Filter filter;
+    private final String instanceGroup;
+    private final InstanceSource.Type instanceSource;
+    private final String instancesFile;
+    private final long instancesCacheTtlMs;
+    private final int apiParallelism;
+    private final String network;
+    private final String subnetwork;
+    private final AddressFamily addressFamily;
     private final PortRange hzPort;
     private final String region;
+    private final String cacheDirectory;
+    private final long lastKnownInstancesMaxAgeMs;
+    private final TimeoutPolicy metadataApiTimeout;
+    private final TimeoutPolicy computeApiTimeout;
+    private final TimeoutPolicy oauthApiTimeout;
+    private final float computeApiQps;
+    private final long startupJitterMs;
+    private final long zoneRefreshMaxStalenessMs;
+    private final long memberStatusCheckIntervalMs;
+    private final boolean watchPreemption;
+    private final boolean watchMaintenanceEvents;
+    private final int seedCount;
 
-    private GcpConfig(String privateKeyPath, List<String> projects, List<String> zones,
-                      Label label, PortRange hzPort, String region) {
-        this.privateKeyPath = privateKeyPath;
-        this.projects = projects;
-        this.zones = zones;
-        this.label = label;
-        this.hzPort = hzPort;
-        this.region = region;
+    @SuppressWarnings("checkstyle:executablestatementcount")
+    private GcpConfig(Builder builder) {
+        this.privateKeyPath = builder.privateKeyPath;
+        this.projects = builder.projects;
+        this.zones = builder.zones;
+        this.filter = builder.filter;
+        this.instanceGroup = builder.instanceGroup;
+        this.instanceSource = builder.instanceSource;
+        this.instancesFile = builder.instancesFile;
+        this.instancesCacheTtlMs = builder.instancesCacheTtlMs;
+        this.apiParallelism = builder.apiParallelism;
+        this.network = builder.network;
+        this.subnetwork = builder.subnetwork;
+        this.addressFamily = builder.addressFamily;
+        this.hzPort = builder.hzPort;
+        this.region = builder.region;
+        this.cacheDirectory = builder.cacheDirectory;
+        this.lastKnownInstancesMaxAgeMs = builder.lastKnownInstancesMaxAgeMs;
+        this.metadataApiTimeout = builder.metadataApiTimeout;
+        this.computeApiTimeout = builder.computeApiTimeout;
+        this.oauthApiTimeout = builder.oauthApiTimeout;
+        this.computeApiQps = builder.computeApiQps;
+        this.startupJitterMs = builder.startupJitterMs;
+        this.zoneRefreshMaxStalenessMs = builder.zoneRefreshMaxStalenessMs;
+        this.memberStatusCheckIntervalMs = builder.memberStatusCheckIntervalMs;
+        this.watchPreemption = builder.watchPreemption;
+        this.watchMaintenanceEvents = builder.watchMaintenanceEvents;
+        this.seedCount = builder.seedCount;
     }
 
     String getPrivateKeyPath() {
@@ -52,8 +92,40 @@ final class GcpConfig {
         return zones;
     }
 
-    Label getLabel() {
-        return label;
+    Filter getFilter() {
+        return filter;
+    }
+
+    String getInstanceGroup() {
+        return instanceGroup;
+    }
+
+    InstanceSource.Type getInstanceSource() {
+        return instanceSource;
+    }
+
+    String getInstancesFile() {
+        return instancesFile;
+    }
+
+    long getInstancesCacheTtlMs() {
+        return instancesCacheTtlMs;
+    }
+
+    int getApiParallelism() {
+        return apiParallelism;
+    }
+
+    String getNetwork() {
+        return network;
+    }
+
+    String getSubnetwork() {
+        return subnetwork;
+    }
+
+    AddressFamily getAddressFamily() {
+        return addressFamily;
     }
 
     PortRange getHzPort() {
@@ -64,6 +136,54 @@ final class GcpConfig {
         return region;
     }
 
+    String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    long getLastKnownInstancesMaxAgeMs() {
+        return lastKnownInstancesMaxAgeMs;
+    }
+
+    TimeoutPolicy getMetadataApiTimeout() {
+        return metadataApiTimeout;
+    }
+
+    TimeoutPolicy getComputeApiTimeout() {
+        return computeApiTimeout;
+    }
+
+    TimeoutPolicy getOauthApiTimeout() {
+        return oauthApiTimeout;
+    }
+
+    float getComputeApiQps() {
+        return computeApiQps;
+    }
+
+    long getStartupJitterMs() {
+        return startupJitterMs;
+    }
+
+    long getZoneRefreshMaxStalenessMs() {
+        return zoneRefreshMaxStalenessMs;
+    }
+
+    long getMemberStatusCheckIntervalMs() {
+        return memberStatusCheckIntervalMs;
+    }
+
+    boolean isWatchPreemption() {
+        return watchPreemption;
+    }
+
+    boolean isWatchMaintenanceEvents() {
+        return watchMaintenanceEvents;
+    }
+
+    int getSeedCount() {
+        return seedCount;
+    }
+
     static Builder builder() {
         return new Builder();
     }
@@ -72,9 +192,29 @@ final class GcpConfig {
         private String privateKeyPath;
         private List<String> projects = new ArrayList<String>();
         private List<String> zones = new ArrayList<String>();
-        private Label label;
+        private Filter filter;
+        private String instanceGroup;
+        private InstanceSource.Type instanceSource;
+        private String instancesFile;
+        private long instancesCacheTtlMs;
+        private int apiParallelism = 1;
+        private String network;
+        private String subnetwork;
+        private AddressFamily addressFamily = AddressFamily.IPV4;
         private PortRange hzPort;
         private String region;
+        private String cacheDirectory;
+        private long lastKnownInstancesMaxAgeMs = (Long) GcpProperties.LAST_KNOWN_INSTANCES_MAX_AGE_MS.getDefaultValue();
+        private TimeoutPolicy metadataApiTimeout = TimeoutPolicy.defaultFor(GcpProperties.METADATA_API_TIMEOUT);
+        private TimeoutPolicy computeApiTimeout = TimeoutPolicy.defaultFor(GcpProperties.COMPUTE_API_TIMEOUT);
+        private TimeoutPolicy oauthApiTimeout = TimeoutPolicy.defaultFor(GcpProperties.OAUTH_API_TIMEOUT);
+        private float computeApiQps;
+        private long startupJitterMs;
+        private long zoneRefreshMaxStalenessMs;
+        private long memberStatusCheckIntervalMs;
+        private boolean watchPreemption;
+        private boolean watchMaintenanceEvents;
+        private int seedCount;
 
         Builder setPrivateKeyPath(String privateKeyPath) {
             this.privateKeyPath = privateKeyPath;
@@ -91,8 +231,48 @@ final class GcpConfig {
             return this;
         }
 
-        Builder setLabel(Label label) {
-            this.label = label;
+        Builder setFilter(Filter filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        Builder setInstanceGroup(String instanceGroup) {
+            this.instanceGroup = instanceGroup;
+            return this;
+        }
+
+        Builder setInstanceSource(InstanceSource.Type instanceSource) {
+            this.instanceSource = instanceSource;
+            return this;
+        }
+
+        Builder setInstancesFile(String instancesFile) {
+            this.instancesFile = instancesFile;
+            return this;
+        }
+
+        Builder setInstancesCacheTtlMs(long instancesCacheTtlMs) {
+            this.instancesCacheTtlMs = instancesCacheTtlMs;
+            return this;
+        }
+
+        Builder setApiParallelism(int apiParallelism) {
+            this.apiParallelism = apiParallelism;
+            return this;
+        }
+
+        Builder setNetwork(String network) {
+            this.network = network;
+            return this;
+        }
+
+        Builder setSubnetwork(String subnetwork) {
+            this.subnetwork = subnetwork;
+            return this;
+        }
+
+        Builder setAddressFamily(AddressFamily addressFamily) {
+            this.addressFamily = addressFamily;
             return this;
         }
 
@@ -106,8 +286,104 @@ final class GcpConfig {
             return this;
         }
 
+        Builder setCacheDirectory(String cacheDirectory) {
+            this.cacheDirectory = cacheDirectory;
+            return this;
+        }
+
+        Builder setLastKnownInstancesMaxAgeMs(long lastKnownInstancesMaxAgeMs) {
+            this.lastKnownInstancesMaxAgeMs = lastKnownInstancesMaxAgeMs;
+            return this;
+        }
+
+        Builder setMetadataApiTimeout(TimeoutPolicy metadataApiTimeout) {
+            this.metadataApiTimeout = metadataApiTimeout;
+            return this;
+        }
+
+        Builder setComputeApiTimeout(TimeoutPolicy computeApiTimeout) {
+            this.computeApiTimeout = computeApiTimeout;
+            return this;
+        }
+
+        Builder setOauthApiTimeout(TimeoutPolicy oauthApiTimeout) {
+            this.oauthApiTimeout = oauthApiTimeout;
+            return this;
+        }
+
+        Builder setComputeApiQps(float computeApiQps) {
+            this.computeApiQps = computeApiQps;
+            return this;
+        }
+
+        Builder setStartupJitterMs(long startupJitterMs) {
+            this.startupJitterMs = startupJitterMs;
+            return this;
+        }
+
+        Builder setZoneRefreshMaxStalenessMs(long zoneRefreshMaxStalenessMs) {
+            this.zoneRefreshMaxStalenessMs = zoneRefreshMaxStalenessMs;
+            return this;
+        }
+
+        Builder setMemberStatusCheckIntervalMs(long memberStatusCheckIntervalMs) {
+            this.memberStatusCheckIntervalMs = memberStatusCheckIntervalMs;
+            return this;
+        }
+
+        Builder setWatchPreemption(boolean watchPreemption) {
+            this.watchPreemption = watchPreemption;
+            return this;
+        }
+
+        Builder setWatchMaintenanceEvents(boolean watchMaintenanceEvents) {
+            this.watchMaintenanceEvents = watchMaintenanceEvents;
+            return this;
+        }
+
+        Builder setSeedCount(int seedCount) {
+            this.seedCount = seedCount;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the instance source is inconsistent with the other properties or a limit
+         *                                  is out of range
+         */
         GcpConfig build() {
-            return new GcpConfig(privateKeyPath, projects, zones, label, hzPort, region);
+            resolveInstanceSource();
+            validateLimits();
+            return new GcpConfig(this);
+        }
+
+        private void resolveInstanceSource() {
+            if (instanceSource == null) {
+                instanceSource = instanceGroup != null ? InstanceSource.Type.INSTANCE_GROUP : InstanceSource.Type.ZONES;
+            }
+            if (instanceSource == InstanceSource.Type.INSTANCE_GROUP && instanceGroup == null) {
+                throw new IllegalArgumentException("Instance source 'instance-group' requires property 'instance-group'");
+            }
+            if (instanceSource == InstanceSource.Type.FILE && instancesFile == null) {
+                throw new IllegalArgumentException("Instance source 'file' requires property 'instances-file'");
+            }
+        }
+
+        private void validateLimits() {
+            if (apiParallelism < 1) {
+                throw new IllegalArgumentException(String.format("API parallelism (%s) must be at least 1", apiParallelism));
+            }
+            if (computeApiQps < 0 || startupJitterMs < 0 || zoneRefreshMaxStalenessMs < 0 || memberStatusCheckIntervalMs < 0) {
+                throw new IllegalArgumentException(String.format("Compute API QPS (%s), startup jitter (%s), zone refresh "
+                                + "max staleness (%s) and member status check interval (%s) must not be negative", computeApiQps,
+                        startupJitterMs, zoneRefreshMaxStalenessMs, memberStatusCheckIntervalMs));
+            }
+            if (lastKnownInstancesMaxAgeMs < 0) {
+                throw new IllegalArgumentException(String.format("Last known instances max age (%s) must not be negative",
+                        lastKnownInstancesMaxAgeMs));
+            }
+            if (seedCount < 0) {
+                throw new IllegalArgumentException(String.format("Seed count (%s) must not be negative", seedCount));
+            }
         }
     }
 }
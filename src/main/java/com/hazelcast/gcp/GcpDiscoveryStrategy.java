@@ -25,19 +25,45 @@ import com.hazelcast.spi.discovery.DiscoveryStrategy;
 import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
 import com.hazelcast.spi.partitiongroup.PartitionGroupMetaData;
 
+import java.io.Serializable;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.hazelcast.gcp.GcpProperties.ADDRESS_FAMILY;
+import static com.hazelcast.gcp.GcpProperties.API_PARALLELISM;
+import static com.hazelcast.gcp.GcpProperties.API_TIMEOUT_LATENCY_FACTOR;
+import static com.hazelcast.gcp.GcpProperties.CACHE_DIRECTORY;
+import static com.hazelcast.gcp.GcpProperties.COMPUTE_API_QPS;
+import static com.hazelcast.gcp.GcpProperties.COMPUTE_API_TIMEOUT;
+import static com.hazelcast.gcp.GcpProperties.FILTER;
+import static com.hazelcast.gcp.GcpProperties.INSTANCES_CACHE_TTL_MS;
+import static com.hazelcast.gcp.GcpProperties.INSTANCES_FILE;
+import static com.hazelcast.gcp.GcpProperties.INSTANCE_GROUP;
+import static com.hazelcast.gcp.GcpProperties.INSTANCE_SOURCE;
 import static com.hazelcast.gcp.GcpProperties.LABEL;
+import static com.hazelcast.gcp.GcpProperties.LAST_KNOWN_INSTANCES_MAX_AGE_MS;
+import static com.hazelcast.gcp.GcpProperties.MEMBER_STATUS_CHECK_INTERVAL_MS;
+import static com.hazelcast.gcp.GcpProperties.METADATA_API_TIMEOUT;
+import static com.hazelcast.gcp.GcpProperties.NETWORK;
+import static com.hazelcast.gcp.GcpProperties.OAUTH_API_TIMEOUT;
 import static com.hazelcast.gcp.GcpProperties.PORT;
 import static com.hazelcast.gcp.GcpProperties.PRIVATE_KEY_PATH;
 import static com.hazelcast.gcp.GcpProperties.PROJECTS;
 import static com.hazelcast.gcp.GcpProperties.REGION;
+import static com.hazelcast.gcp.GcpProperties.SEED_COUNT;
+import static com.hazelcast.gcp.GcpProperties.STARTUP_JITTER_MS;
+import static com.hazelcast.gcp.GcpProperties.SUBNETWORK;
+import static com.hazelcast.gcp.GcpProperties.USE_PUBLIC_IP;
+import static com.hazelcast.gcp.GcpProperties.WATCH_MAINTENANCE_EVENTS;
+import static com.hazelcast.gcp.GcpProperties.WATCH_PREEMPTION;
 import static com.hazelcast.gcp.GcpProperties.ZONES;
+import static com.hazelcast.gcp.GcpProperties.ZONE_REFRESH_MAX_STALENESS_MS;
 import static com.hazelcast.gcp.Utils.splitByComma;
 
 /**
@@ -45,22 +71,52 @@ import static com.hazelcast.gcp.Utils.splitByComma;
  */
 public class GcpDiscoveryStrategy
         extends AbstractDiscoveryStrategy {
+    static final String INSTANCE_ID_ATTRIBUTE = "gcp-instance-id";
+    static final String MACHINE_TYPE_ATTRIBUTE = "gcp-machine-type";
+
     private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategy.class);
 
+    private static final long JITTER_HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int JITTER_HASH_SHIFT = 32;
+
     private final GcpClient gcpClient;
+    private final GcpConfig sharedClientConfig;
     private final PortRange portRange;
+    private final boolean clientMode;
+    private final Address localAddress;
+    private final AddressSelection addressSelection;
+    private final long startupJitterMs;
+    private final long memberStatusCheckIntervalMs;
+    private final boolean watchPreemption;
+    private final boolean watchMaintenanceEvents;
+    private final MaintenanceEventWatcher maintenanceEventWatcher;
+    private final SeedSelector seedSelector;
+
+    private final AtomicBoolean destroyed = new AtomicBoolean();
 
-    private final Map<String, String> memberMetadata = new HashMap<String, String>();
+    private volatile Map<String, String> memberMetadata;
+    private volatile GcpPreemptionListener preemptionListener = PreemptionWatcher.SHUTDOWN_LOCAL_MEMBERS;
+    private volatile PreemptionWatcher preemptionWatcher;
 
-    GcpDiscoveryStrategy(Map<String, Comparable> properties) {
+    /**
+     * @param localNode the discovery node of the local member or {@code null} for a Hazelcast Client
+     */
+    GcpDiscoveryStrategy(Map<String, Comparable> properties, DiscoveryNode localNode) {
         super(LOGGER, properties);
+        this.clientMode = localNode == null;
+        this.localAddress = clientMode ? null : localNode.getPrivateAddress();
+        this.addressSelection = addressSelection(clientMode);
         try {
             GcpConfig gcpConfig = createGcpConfig();
-            GcpMetadataApi gcpMetadataApi = new GcpMetadataApi();
-            GcpComputeApi gcpComputeApi = new GcpComputeApi();
-            GcpAuthenticator gcpAuthenticator = new GcpAuthenticator();
-            this.gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+            this.gcpClient = GcpClientRegistry.instance().acquire(gcpConfig);
+            this.sharedClientConfig = gcpConfig;
             this.portRange = gcpConfig.getHzPort();
+            this.startupJitterMs = gcpConfig.getStartupJitterMs();
+            this.memberStatusCheckIntervalMs = gcpConfig.getMemberStatusCheckIntervalMs();
+            this.watchPreemption = gcpConfig.isWatchPreemption();
+            this.watchMaintenanceEvents = gcpConfig.isWatchMaintenanceEvents();
+            this.maintenanceEventWatcher = new MaintenanceEventWatcher(gcpClient.getMetadataApi());
+            this.seedSelector = new SeedSelector(gcpConfig.getSeedCount());
         } catch (IllegalArgumentException e) {
             throw new InvalidConfigurationException("Invalid GCP Discovery Strategy configuration", e);
         }
@@ -69,10 +125,33 @@ public class GcpDiscoveryStrategy
     /**
      * For test purposes only.
      */
-    GcpDiscoveryStrategy(Map<String, Comparable> properties, GcpClient gcpClient) {
+    GcpDiscoveryStrategy(Map<String, Comparable> properties, GcpClient gcpClient, DiscoveryNode localNode) {
         super(LOGGER, properties);
         this.gcpClient = gcpClient;
-        this.portRange = createGcpConfig().getHzPort();
+        this.sharedClientConfig = null;
+        GcpConfig gcpConfig = createGcpConfig();
+        this.portRange = gcpConfig.getHzPort();
+        this.startupJitterMs = gcpConfig.getStartupJitterMs();
+        this.memberStatusCheckIntervalMs = gcpConfig.getMemberStatusCheckIntervalMs();
+        this.watchPreemption = gcpConfig.isWatchPreemption();
+        this.watchMaintenanceEvents = gcpConfig.isWatchMaintenanceEvents();
+        this.maintenanceEventWatcher = new MaintenanceEventWatcher(gcpClient.getMetadataApi());
+        this.seedSelector = new SeedSelector(gcpConfig.getSeedCount());
+        this.clientMode = localNode == null;
+        this.localAddress = clientMode ? null : localNode.getPrivateAddress();
+        this.addressSelection = addressSelection(clientMode);
+    }
+
+    private AddressSelection addressSelection(boolean clientMode) {
+        Boolean usePublicIp = getOrNull(USE_PUBLIC_IP.getDefinition());
+        if (usePublicIp == null) {
+            return AddressSelection.BOTH;
+        }
+        if (!clientMode) {
+            LOGGER.warning("Property 'use-public-ip' is applicable only to Hazelcast Client, ignoring it");
+            return AddressSelection.BOTH;
+        }
+        return usePublicIp ? AddressSelection.PUBLIC : AddressSelection.PRIVATE;
     }
 
     private GcpConfig createGcpConfig() {
@@ -80,36 +159,214 @@ public class GcpDiscoveryStrategy
                         .setPrivateKeyPath(getOrNull(PRIVATE_KEY_PATH))
                         .setProjects(splitByComma(getOrNull(PROJECTS)))
                         .setZones(splitByComma((getOrNull(ZONES))))
-                        .setLabel(labelOrNull(LABEL))
+                        .setFilter(filterOrNull())
+                        .setInstanceGroup(getOrNull(INSTANCE_GROUP))
+                        .setInstanceSource(instanceSourceOrNull())
+                        .setInstancesFile(getOrNull(INSTANCES_FILE))
+                        .setInstancesCacheTtlMs(((Number) getOrDefault(INSTANCES_CACHE_TTL_MS.getDefinition(),
+                                INSTANCES_CACHE_TTL_MS.getDefaultValue())).longValue())
+                        .setApiParallelism(((Number) getOrDefault(API_PARALLELISM.getDefinition(),
+                                API_PARALLELISM.getDefaultValue())).intValue())
+                        .setNetwork(getOrNull(NETWORK))
+                        .setSubnetwork(getOrNull(SUBNETWORK))
+                        .setAddressFamily(AddressFamily.parse(
+                                (String) getOrDefault(ADDRESS_FAMILY.getDefinition(), ADDRESS_FAMILY.getDefaultValue())))
                         .setHzPort(new PortRange((String) getOrDefault(PORT.getDefinition(), PORT.getDefaultValue())))
                         .setRegion(getOrNull(REGION))
+                        .setCacheDirectory(getOrNull(CACHE_DIRECTORY))
+                        .setLastKnownInstancesMaxAgeMs(((Number) getOrDefault(LAST_KNOWN_INSTANCES_MAX_AGE_MS.getDefinition(),
+                                LAST_KNOWN_INSTANCES_MAX_AGE_MS.getDefaultValue())).longValue())
+                        .setMetadataApiTimeout(timeoutPolicy(METADATA_API_TIMEOUT))
+                        .setComputeApiTimeout(timeoutPolicy(COMPUTE_API_TIMEOUT))
+                        .setOauthApiTimeout(timeoutPolicy(OAUTH_API_TIMEOUT))
+                        .setComputeApiQps(((Number) getOrDefault(COMPUTE_API_QPS.getDefinition(),
+                                COMPUTE_API_QPS.getDefaultValue())).floatValue())
+                        .setStartupJitterMs(((Number) getOrDefault(STARTUP_JITTER_MS.getDefinition(),
+                                STARTUP_JITTER_MS.getDefaultValue())).longValue())
+                        .setZoneRefreshMaxStalenessMs(((Number) getOrDefault(ZONE_REFRESH_MAX_STALENESS_MS.getDefinition(),
+                                ZONE_REFRESH_MAX_STALENESS_MS.getDefaultValue())).longValue())
+                        .setMemberStatusCheckIntervalMs(((Number) getOrDefault(MEMBER_STATUS_CHECK_INTERVAL_MS.getDefinition(),
+                                MEMBER_STATUS_CHECK_INTERVAL_MS.getDefaultValue())).longValue())
+                        .setWatchPreemption((Boolean) getOrDefault(WATCH_PREEMPTION.getDefinition(),
+                                WATCH_PREEMPTION.getDefaultValue()))
+                        .setWatchMaintenanceEvents((Boolean) getOrDefault(WATCH_MAINTENANCE_EVENTS.getDefinition(),
+                                WATCH_MAINTENANCE_EVENTS.getDefaultValue()))
+                        .setSeedCount(((Number) getOrDefault(SEED_COUNT.getDefinition(),
+                                SEED_COUNT.getDefaultValue())).intValue())
                         .build();
     }
 
-    private Label labelOrNull(GcpProperties gcpProperties) {
-        String labelString = getOrNull(gcpProperties);
+    private TimeoutPolicy timeoutPolicy(GcpProperties timeoutProperty) {
+        String timeoutRange = (String) getOrDefault(timeoutProperty.getDefinition(), timeoutProperty.getDefaultValue());
+        Number latencyFactor = (Number) getOrDefault(API_TIMEOUT_LATENCY_FACTOR.getDefinition(),
+                API_TIMEOUT_LATENCY_FACTOR.getDefaultValue());
+        return TimeoutPolicy.parse(timeoutRange, latencyFactor.floatValue());
+    }
+
+    private InstanceSource.Type instanceSourceOrNull() {
+        String instanceSource = getOrNull(INSTANCE_SOURCE);
+        return instanceSource == null ? null : InstanceSource.Type.parse(instanceSource);
+    }
+
+    private Filter filterOrNull() {
+        Filter labelFilter = null;
+        String labelString = getOrNull(LABEL);
         if (labelString != null) {
-            return new Label(labelString);
+            labelFilter = Filter.label(new Label(labelString));
         }
-        return null;
+        Filter filter = null;
+        String filterString = getOrNull(FILTER);
+        if (filterString != null) {
+            filter = FilterParser.parse(filterString);
+        }
+        return Filter.and(labelFilter, filter);
     }
 
     private String getOrNull(GcpProperties gcpProperties) {
         return getOrNull(gcpProperties.getDefinition());
     }
 
+    @Override
+    public void start() {
+        if (!clientMode) {
+            initMemberMetadata();
+            delayStartup(memberMetadata.get(INSTANCE_ID_ATTRIBUTE));
+            startMemberStatusChecks();
+            startPreemptionWatcher();
+            if (watchMaintenanceEvents) {
+                maintenanceEventWatcher.start();
+            }
+        }
+    }
+
+    /**
+     * Releases the {@link GcpClient}, which is shared with the other strategies with the same configuration in this JVM.
+     */
+    @Override
+    public void destroy() {
+        if (!destroyed.compareAndSet(false, true)) {
+            return;
+        }
+        stopMemberStatusChecks();
+        if (preemptionWatcher != null) {
+            preemptionWatcher.stop();
+        }
+        maintenanceEventWatcher.stop();
+        if (sharedClientConfig != null) {
+            GcpClientRegistry.instance().release(sharedClientConfig);
+        }
+    }
+
+    /**
+     * Registers the local member with the {@link StoppedMemberSuspector} of the shared {@link GcpClient}, which
+     * periodically discovers the instances in the background (once for all strategies sharing the client), so that the
+     * members on stopped or deleted instances are suspected in the local member soon after the instance stops running.
+     */
+    private void startMemberStatusChecks() {
+        if (memberStatusCheckIntervalMs > 0) {
+            gcpClient.getStoppedMemberSuspector().addLocalMember(localAddress);
+        }
+    }
+
+    private void startPreemptionWatcher() {
+        if (!watchPreemption) {
+            return;
+        }
+        preemptionWatcher = new PreemptionWatcher(gcpClient.getMetadataApi(), new GcpPreemptionListener() {
+            @Override
+            public void preempted() {
+                preemptionListener.preempted();
+            }
+        });
+        preemptionWatcher.start();
+    }
+
+    private void stopMemberStatusChecks() {
+        if (!clientMode && memberStatusCheckIntervalMs > 0) {
+            gcpClient.getStoppedMemberSuspector().removeLocalMember(localAddress);
+        }
+    }
+
+    /**
+     * Delays the first discovery by a jitter derived from the instance id, so that the members of a fleet started at
+     * the same time do not call the Compute API at the same time, while a restarted member keeps its delay.
+     */
+    private void delayStartup(String instanceId) {
+        if (startupJitterMs <= 0 || instanceId == null) {
+            return;
+        }
+        long delayMs = startupJitterMs(instanceId, startupJitterMs);
+        LOGGER.fine(String.format("Delaying GCP discovery start by %s ms", delayMs));
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns a value in {@code [0, maxJitterMs)} which is uniformly distributed over the instance ids.
+     */
+    static long startupJitterMs(String instanceId, long maxJitterMs) {
+        long hash = instanceId.hashCode() * JITTER_HASH_MULTIPLIER;
+        return Math.floorMod(hash ^ (hash >>> JITTER_HASH_SHIFT), maxJitterMs);
+    }
+
     @Override
     public Map<String, String> discoverLocalMetadata() {
-        if (memberMetadata.isEmpty()) {
-            memberMetadata.put(PartitionGroupMetaData.PARTITION_GROUP_ZONE, gcpClient.getAvailabilityZone());
+        Map<String, String> result = memberMetadata;
+        if (result == null) {
+            result = initMemberMetadata();
+        }
+        return result;
+    }
+
+    /**
+     * Fetches the local instance metadata once; the result is immutable, so it is safely shared by concurrent callers.
+     */
+    private synchronized Map<String, String> initMemberMetadata() {
+        if (memberMetadata == null) {
+            memberMetadata = Collections.unmodifiableMap(fetchMemberMetadata());
         }
         return memberMetadata;
     }
 
+    private Map<String, String> fetchMemberMetadata() {
+        Map<String, String> result = new HashMap<String, String>();
+        try {
+            // a client fetches it on its first discovery, which must not be delayed by retries outside GCP
+            GcpInstanceMetadata instance = clientMode
+                    ? gcpClient.getInstanceMetadataWithoutRetries()
+                    : gcpClient.getInstanceMetadata();
+            LOGGER.fine(String.format("Local GCP instance: %s", instance));
+            putIfNotNull(result, PartitionGroupMetaData.PARTITION_GROUP_ZONE, instance.getZone());
+            putIfNotNull(result, PartitionGroupMetaData.PARTITION_GROUP_NODE, instance.getPhysicalHost());
+            putIfNotNull(result, INSTANCE_ID_ATTRIBUTE, instance.getId());
+            putIfNotNull(result, MACHINE_TYPE_ATTRIBUTE, instance.getMachineType());
+        } catch (Exception e) {
+            LOGGER.warning("Cannot fetch the GCP instance metadata, local metadata is not available", e);
+        }
+        return result;
+    }
+
+    private static void putIfNotNull(Map<String, String> map, String key, String value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
     @Override
     public Iterable<DiscoveryNode> discoverNodes() {
         try {
-            List<GcpAddress> gcpAddresses = gcpClient.getAddresses();
+            List<GcpAddress> candidates = new ArrayList<GcpAddress>();
+            for (GcpAddress gcpAddress : gcpClient.getAddresses()) {
+                if (addressSelection != AddressSelection.PUBLIC || gcpAddress.getPublicAddress() != null) {
+                    candidates.add(gcpAddress);
+                }
+            }
+            String instanceId = clientMode ? null : discoverLocalMetadata().get(INSTANCE_ID_ATTRIBUTE);
+            List<GcpAddress> gcpAddresses = new ArrayList<GcpAddress>(seedSelector.select(candidates, instanceId));
+            Collections.sort(gcpAddresses, new ZoneAffinityComparator(localZoneOrNull()));
             logGcpAddresses(gcpAddresses);
 
             List<DiscoveryNode> result = new ArrayList<DiscoveryNode>();
@@ -126,11 +383,99 @@ public class GcpDiscoveryStrategy
         }
     }
 
-    private static DiscoveryNode createDiscoveryNode(GcpAddress gcpAddress, int port)
+    /**
+     * Registers a listener which is notified about the instances added, removed or changed between the discovery rounds.
+     */
+    public void addMembershipListener(GcpMembershipListener listener) {
+        gcpClient.getMembershipTracker().addListener(listener);
+    }
+
+    public void removeMembershipListener(GcpMembershipListener listener) {
+        gcpClient.getMembershipTracker().removeListener(listener);
+    }
+
+    /**
+     * Returns the moving average of the number of membership events per discovery round.
+     */
+    public double getMembershipChurnRate() {
+        return gcpClient.getMembershipTracker().churnRate();
+    }
+
+    /**
+     * Registers a listener which is notified about the upcoming host maintenance of the current instance. Applicable
+     * only if the property {@code watch-maintenance-events} is enabled.
+     */
+    public void addMaintenanceListener(GcpMaintenanceListener listener) {
+        maintenanceEventWatcher.addListener(listener);
+    }
+
+    public void removeMaintenanceListener(GcpMaintenanceListener listener) {
+        maintenanceEventWatcher.removeListener(listener);
+    }
+
+    /**
+     * Returns the upcoming host maintenance of the current instance, e.g. {@code NONE} or
+     * {@code MIGRATE_ON_HOST_MAINTENANCE}, or {@code null} if it is not known (e.g. {@code watch-maintenance-events} is
+     * not enabled).
+     */
+    public String getMaintenanceEvent() {
+        return maintenanceEventWatcher.maintenanceEvent();
+    }
+
+    /**
+     * Replaces the reaction to the preemption of the current instance, which is by default a graceful shutdown of the
+     * Hazelcast members in this JVM. Applicable only if the property {@code watch-preemption} is enabled.
+     */
+    public void setPreemptionListener(GcpPreemptionListener preemptionListener) {
+        this.preemptionListener = preemptionListener;
+    }
+
+    /**
+     * Returns the refresh metrics of each listed zone, keyed by "project/zone" (or by project, if the instances are not
+     * listed per zone).
+     */
+    public Map<String, GcpZoneRefreshMetrics> getZoneRefreshMetrics() {
+        return gcpClient.getZoneRefreshScheduler().metrics();
+    }
+
+    /**
+     * Returns the zone of the local instance or {@code null} if unknown. A client using public IPs is assumed to run
+     * outside GCP, so the Metadata Server is not queried.
+     */
+    private String localZoneOrNull() {
+        if (addressSelection == AddressSelection.PUBLIC) {
+            return null;
+        }
+        return discoverLocalMetadata().get(PartitionGroupMetaData.PARTITION_GROUP_ZONE);
+    }
+
+    private DiscoveryNode createDiscoveryNode(GcpAddress gcpAddress, int port)
             throws UnknownHostException {
-        Address privateAddress = new Address(gcpAddress.getPrivateAddress(), port);
-        Address publicAddress = new Address(gcpAddress.getPublicAddress(), port);
-        return new SimpleDiscoveryNode(privateAddress, publicAddress);
+        Map<String, String> properties = Collections.emptyMap();
+        if (gcpAddress.getZone() != null) {
+            properties = Collections.singletonMap(PartitionGroupMetaData.PARTITION_GROUP_ZONE, gcpAddress.getZone());
+        }
+        if (addressSelection == AddressSelection.PUBLIC) {
+            return new SimpleDiscoveryNode(toAddress(gcpAddress.getPublicAddress(), port), properties);
+        }
+        Address privateAddress = toAddress(gcpAddress.getPrivateAddress(), port);
+        if (addressSelection == AddressSelection.PRIVATE || gcpAddress.getPublicAddress() == null) {
+            return new SimpleDiscoveryNode(privateAddress, properties);
+        }
+        Address publicAddress = toAddress(gcpAddress.getPublicAddress(), port);
+        return new SimpleDiscoveryNode(privateAddress, publicAddress, properties);
+    }
+
+    /**
+     * Creates {@link Address} from an IPv4 or IPv6 literal; IPv6 literals may be enclosed in square brackets.
+     */
+    private static Address toAddress(String host, int port)
+            throws UnknownHostException {
+        String literal = host;
+        if (literal.startsWith("[") && literal.endsWith("]")) {
+            literal = literal.substring(1, literal.length() - 1);
+        }
+        return new Address(literal, port);
     }
 
     private static void logGcpAddresses(List<GcpAddress> gcpAddresses) {
@@ -142,4 +487,62 @@ public class GcpDiscoveryStrategy
             LOGGER.finest(stringBuilder.toString());
         }
     }
+
+    /**
+     * Address family of the discovered nodes.
+     */
+    private enum AddressSelection {
+        BOTH, PUBLIC, PRIVATE
+    }
+
+    /**
+     * Orders the instances in the same zone as the local instance first, then the instances in the same region, then
+     * the others; ties are broken by the zone and the private address, so that the order is deterministic.
+     */
+    private static final class ZoneAffinityComparator
+            implements Comparator<GcpAddress>, Serializable {
+        private static final int SAME_ZONE = 0;
+        private static final int SAME_REGION = 1;
+        private static final int OTHER = 2;
+
+        private final String localZone;
+        private final String localRegion;
+
+        private ZoneAffinityComparator(String localZone) {
+            this.localZone = localZone;
+            this.localRegion = regionOf(localZone);
+        }
+
+        @Override
+        public int compare(GcpAddress a1, GcpAddress a2) {
+            int result = Integer.compare(rank(a1.getZone()), rank(a2.getZone()));
+            if (result == 0) {
+                result = String.valueOf(a1.getZone()).compareTo(String.valueOf(a2.getZone()));
+            }
+            if (result == 0) {
+                result = a1.getPrivateAddress().compareTo(a2.getPrivateAddress());
+            }
+            return result;
+        }
+
+        private int rank(String zone) {
+            if (zone == null || localZone == null) {
+                return OTHER;
+            }
+            if (zone.equals(localZone)) {
+                return SAME_ZONE;
+            }
+            if (regionOf(zone).equals(localRegion)) {
+                return SAME_REGION;
+            }
+            return OTHER;
+        }
+
+        private static String regionOf(String zone) {
+            if (zone == null || zone.lastIndexOf('-') < 0) {
+                return zone;
+            }
+            return zone.substring(0, zone.lastIndexOf('-'));
+        }
+    }
 }
@@ -32,6 +32,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Factory class which returns {@link GcpDiscoveryStrategy} to Discovery SPI.
@@ -40,6 +46,20 @@ public class GcpDiscoveryStrategyFactory
         implements DiscoveryStrategyFactory {
     private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategyFactory.class);
 
+    private static final String DMI_PRODUCT_NAME_FILE = "/sys/class/dmi/id/product_name";
+    private static final String RESOLV_CONF_FILE = "/etc/resolv.conf";
+    private static final String HOSTS_FILE = "/etc/hosts";
+    private static final String METADATA_ENDPOINT = "http://metadata.google.internal";
+
+    private static final int CONNECT_TIMEOUT_MS = 500;
+    private static final int READ_TIMEOUT_MS = 1000;
+    private static final int DETECTION_TIMEOUT_MS = 2000;
+
+    /**
+     * Auto-detection verdict cached for the JVM; {@code null} if not detected yet.
+     */
+    private static volatile Boolean autoDetectionApplicable;
+
     @Override
     public Class<? extends DiscoveryStrategy> getDiscoveryStrategyType() {
         return GcpDiscoveryStrategy.class;
@@ -48,7 +68,8 @@ public class GcpDiscoveryStrategyFactory
     @Override
     public DiscoveryStrategy newDiscoveryStrategy(DiscoveryNode discoveryNode, ILogger logger,
                                                   Map<String, Comparable> properties) {
-        return new GcpDiscoveryStrategy(properties);
+        // Hazelcast Client has no local discovery node
+        return new GcpDiscoveryStrategy(properties, discoveryNode);
     }
 
     @Override
@@ -63,24 +84,110 @@ public class GcpDiscoveryStrategyFactory
     /**
      * Checks if Hazelcast is running on GCP.
      * <p>
-     * To check if Hazelcast is running on GCP, we first check whether the internal DNS is configured for "google.internal" in
-     * either "/etc/resolv.conf" or "/etc/hosts". Such an approach is not officially documented but seems like a good
-     * enough heuristic to detect a GCP Compute VM Instance. Since it's not the official method, we still need to make
-     * an API call to "metadata.google.internal" which will resolve to a local, non-routable address http://169.254.169.254/.
-     * Finally, we check if there is a service account attached for this instance because without a service account Hazelcast
-     * GCP discovery will not work.
+     * To check if Hazelcast is running on GCP, we first read the DMI product name, which is "Google Compute Engine" on
+     * every GCP Compute VM Instance. If the DMI product name is available, it decides without any further heuristics.
+     * Otherwise, we check whether the internal DNS is configured for "google.internal" in either "/etc/resolv.conf" or
+     * "/etc/hosts" and, only if it is, make an API call to "metadata.google.internal" which will resolve to a local,
+     * non-routable address http://169.254.169.254/. Finally, we check if there is a service account attached for this
+     * instance because without a service account Hazelcast GCP discovery will not work.
+     * <p>
+     * The local files are read before any network call, so outside GCP the detection does not wait for DNS or HTTP.
+     * All the HTTP calls use tight timeouts and the whole detection is bounded, so that it does not stall the startup
+     * outside GCP. The result is cached for the JVM.
      *
      * @return true if running on GCP Instance which has a service account attached
      * @see <a href=https://cloud.google.com/compute/docs/instances/managing-instances#dmi>GCP Managing Instances</a>
      */
     @Override
     public boolean isAutoDetectionApplicable() {
-        return googleInternalDnsConfigured() && metadataFlavorGoogle() && serviceAccountAttached();
+        return isRunningOnGcp();
+    }
+
+    private static boolean isRunningOnGcp() {
+        Boolean result = autoDetectionApplicable;
+        if (result == null) {
+            result = isRunningOnGcp(DMI_PRODUCT_NAME_FILE, RESOLV_CONF_FILE, HOSTS_FILE, METADATA_ENDPOINT);
+            autoDetectionApplicable = result;
+        }
+        return result;
+    }
+
+    static boolean isRunningOnGcp(String dmiProductNameFile, String resolvConfFile, String hostsFile,
+                                  final String metadataEndpoint) {
+        // the local files decide first, so that no metadata.google.internal lookup is made outside GCP
+        String dmiProductName = readFileContentsOrNull(dmiProductNameFile);
+        if (dmiProductName != null && !dmiProductName.contains("Google")) {
+            return false;
+        }
+        if (dmiProductName == null && !googleInternalDnsConfigured(resolvConfFile, hostsFile)) {
+            return false;
+        }
+
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DETECTION_TIMEOUT_MS);
+        ExecutorService executor = Executors.newCachedThreadPool(new DaemonThreadFactory());
+        try {
+            Future<Boolean> serviceAccountAttached = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return serviceAccountAttached(metadataEndpoint);
+                }
+            });
+            if (dmiProductName != null) {
+                return awaitServiceAccount(serviceAccountAttached, deadlineNanos);
+            }
+
+            Future<Boolean> metadataFlavorGoogle = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return isEndpointAvailable(metadataEndpoint);
+                }
+            });
+            return awaitTrue(metadataFlavorGoogle, deadlineNanos) && awaitServiceAccount(serviceAccountAttached, deadlineNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean awaitServiceAccount(Future<Boolean> serviceAccountAttached, long deadlineNanos) {
+        if (!awaitTrue(serviceAccountAttached, deadlineNanos)) {
+            LOGGER.warning("Hazelcast running on GCP instance, but no service account attached. Cannot use Hazelcast "
+                    + "GCP discovery.");
+            return false;
+        }
+        return true;
     }
 
-    private static boolean googleInternalDnsConfigured() {
-        return readFileContents("/etc/resolv.conf").contains("google.internal")
-                || readFileContents("/etc/hosts").contains("google.internal");
+    private static boolean awaitTrue(Future<Boolean> future, long deadlineNanos) {
+        try {
+            return future.get(Math.max(deadlineNanos - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            LOGGER.finest(e);
+            return false;
+        }
+    }
+
+    private static boolean googleInternalDnsConfigured(String resolvConfFile, String hostsFile) {
+        return contains(readFileContentsOrNull(resolvConfFile), "google.internal")
+                || contains(readFileContentsOrNull(hostsFile), "google.internal");
+    }
+
+    private static boolean contains(String contents, String text) {
+        return contents != null && contents.contains(text);
+    }
+
+    private static String readFileContentsOrNull(String fileName) {
+        if (!new File(fileName).canRead()) {
+            return null;
+        }
+        try {
+            return readFileContents(fileName);
+        } catch (RuntimeException e) {
+            LOGGER.finest(e);
+            return null;
+        }
     }
 
     static String readFileContents(String fileName) {
@@ -98,16 +205,11 @@ public class GcpDiscoveryStrategyFactory
         }
     }
 
-    private static boolean metadataFlavorGoogle() {
-        return isEndpointAvailable("http://metadata.google.internal");
-    }
-
-    private static boolean serviceAccountAttached() {
+    private static boolean serviceAccountAttached(String metadataEndpoint) {
         try {
-            return isEndpointAvailable("http://metadata.google.internal/computeMetadata/v1/instance/service-accounts/default/");
+            return isEndpointAvailable(String.format("%s/computeMetadata/v1/instance/service-accounts/default/",
+                    metadataEndpoint));
         } catch (Exception e) {
-            LOGGER.warning("Hazelcast running on GCP instance, but no service account attached. Cannot use Hazelcast "
-                    + "GCP discovery.");
             LOGGER.finest(e);
             return false;
         }
@@ -116,6 +218,8 @@ public class GcpDiscoveryStrategyFactory
     static boolean isEndpointAvailable(String url) {
         return !RestClient.create(url)
                 .withHeader("Metadata-Flavor", "Google")
+                .withConnectTimeoutMs(CONNECT_TIMEOUT_MS)
+                .withReadTimeoutMs(READ_TIMEOUT_MS)
                 .get()
                 .isEmpty();
     }
@@ -124,4 +228,14 @@ public class GcpDiscoveryStrategyFactory
     public DiscoveryStrategyLevel discoveryStrategyLevel() {
         return DiscoveryStrategyLevel.CLOUD_VM;
     }
+
+    private static final class DaemonThreadFactory
+            implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "hz.gcp.auto-detection");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.internal.json.JsonValue;
+
+import static com.hazelcast.gcp.Utils.lastPartOf;
+
+/**
+ * Facts about the local GCP VM Instance, fetched from the Metadata Server.
+ */
+final class GcpInstanceMetadata {
+    private final String id;
+    private final String name;
+    private final String zone;
+    private final String machineType;
+    private final String physicalHost;
+
+    GcpInstanceMetadata(String id, String name, String zone, String machineType, String physicalHost) {
+        this.id = id;
+        this.name = name;
+        this.zone = zone;
+        this.machineType = machineType;
+        this.physicalHost = physicalHost;
+    }
+
+    /**
+     * Parses the response of the recursive {@code instance/} Metadata Server query.
+     */
+    static GcpInstanceMetadata parse(String recursiveInstanceResponse) {
+        JsonObject instance = Json.parse(recursiveInstanceResponse).asObject();
+        JsonValue id = instance.get("id");
+        JsonValue attributes = instance.get("attributes");
+        String physicalHost = null;
+        if (attributes != null && attributes.isObject()) {
+            physicalHost = attributes.asObject().getString("physical_host", null);
+        }
+        return new GcpInstanceMetadata(id == null ? null : id.toString(),
+                instance.getString("name", null),
+                lastPartOrNull(instance.getString("zone", null)),
+                lastPartOrNull(instance.getString("machineType", null)),
+                physicalHost);
+    }
+
+    private static String lastPartOrNull(String resource) {
+        return resource == null ? null : lastPartOf(resource, "/");
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getZone() {
+        return zone;
+    }
+
+    String getMachineType() {
+        return machineType;
+    }
+
+    /**
+     * Returns the opaque identifier of the physical host of the VM Instance or {@code null} if the Metadata Server does not
+     * expose it (it is available e.g. for the instances with a compact placement policy).
+     */
+    String getPhysicalHost() {
+        return physicalHost;
+    }
+
+    @Override
+    public String toString() {
+        return "GcpInstanceMetadata{"
+                + "id='" + id + '\''
+                + ", name='" + name + '\''
+                + ", zone='" + zone + '\''
+                + ", machineType='" + machineType + '\''
+                + ", physicalHost='" + physicalHost + '\''
+                + '}';
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+/**
+ * Receives the changes of the upcoming host maintenance of the current GCP instance, e.g. to shed load before a live
+ * migration pauses the instance.
+ *
+ * @see GcpDiscoveryStrategy#addMaintenanceListener(GcpMaintenanceListener)
+ * @see <a href="https://cloud.google.com/compute/docs/instances/live-migration">Live migration</a>
+ */
+public interface GcpMaintenanceListener {
+
+    /**
+     * Called when the maintenance event of the current instance changes, e.g. from {@code NONE} to
+     * {@code MIGRATE_ON_HOST_MAINTENANCE} before a live migration and back to {@code NONE} after it; invoked on the
+     * maintenance watcher thread.
+     *
+     * @param previousEvent the previous maintenance event or {@code null} if it was not known yet
+     * @param event         the current maintenance event, e.g. {@code NONE}, {@code MIGRATE_ON_HOST_MAINTENANCE} or
+     *                      {@code TERMINATE_ON_HOST_MAINTENANCE}
+     */
+    void maintenanceEventChanged(String previousEvent, String event);
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.util.Objects;
+
+/**
+ * Change of a single discovered GCP instance between two consecutive discovery rounds.
+ * <p>
+ * Instances are identified by their private address, so a change of the public address, zone, network or subnetwork is
+ * reported as {@link Type#ADDRESS_CHANGED}, while a new private address is reported as a removal and an addition.
+ *
+ * @see GcpMembershipListener
+ */
+public final class GcpMembershipEvent {
+
+    /**
+     * Type of the change.
+     */
+    public enum Type {
+        /**
+         * The instance was not discovered in the previous round.
+         */
+        ADDED,
+        /**
+         * The instance was discovered in the previous round, but not in the current one.
+         */
+        REMOVED,
+        /**
+         * The public address, zone, network or subnetwork of the instance changed.
+         */
+        ADDRESS_CHANGED
+    }
+
+    private final Type type;
+    private final GcpAddress previous;
+    private final GcpAddress current;
+
+    GcpMembershipEvent(Type type, GcpAddress previous, GcpAddress current) {
+        this.type = type;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPrivateAddress() {
+        return latest().getPrivateAddress();
+    }
+
+    /**
+     * Returns the current public address or the last known one for {@link Type#REMOVED}; may be {@code null}.
+     */
+    public String getPublicAddress() {
+        return latest().getPublicAddress();
+    }
+
+    /**
+     * Returns the public address from the previous round or {@code null} for {@link Type#ADDED}.
+     */
+    public String getPreviousPublicAddress() {
+        return previous == null ? null : previous.getPublicAddress();
+    }
+
+    public String getZone() {
+        return latest().getZone();
+    }
+
+    GcpAddress getPrevious() {
+        return previous;
+    }
+
+    GcpAddress getCurrent() {
+        return current;
+    }
+
+    private GcpAddress latest() {
+        return current != null ? current : previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GcpMembershipEvent that = (GcpMembershipEvent) o;
+        return type == that.type && Objects.equals(previous, that.previous) && Objects.equals(current, that.current);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, previous, current);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GcpMembershipEvent{type=%s, previous=%s, current=%s}", type, previous, current);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.util.List;
+
+/**
+ * Receives the changes of the discovered GCP instances, so that the subscribers can react only to the deltas instead of
+ * comparing the full lists returned by each discovery round.
+ *
+ * @see GcpDiscoveryStrategy#addMembershipListener(GcpMembershipListener)
+ */
+public interface GcpMembershipListener {
+
+    /**
+     * Called after a discovery round which changed the discovered instances; never called with an empty list.
+     * <p>
+     * Invoked on the discovery thread, so implementations should return quickly.
+     */
+    void membershipChanged(List<GcpMembershipEvent> events);
+}
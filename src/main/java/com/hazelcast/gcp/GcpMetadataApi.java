@@ -16,9 +16,10 @@
 package com.hazelcast.gcp;
 
 import com.hazelcast.core.HazelcastException;
-import com.hazelcast.internal.json.Json;
 import com.hazelcast.internal.json.ParseException;
 
+import java.util.concurrent.TimeUnit;
+
 import static com.hazelcast.gcp.Utils.lastPartOf;
 
 /**
@@ -30,16 +31,25 @@ class GcpMetadataApi {
     private static final String METADATA_ENDPOINT = "http://metadata.google.internal";
 
     private final String endpoint;
+    private final AdaptiveTimeout timeout;
 
-    GcpMetadataApi() {
-        this.endpoint = METADATA_ENDPOINT;
+    GcpMetadataApi(TimeoutPolicy timeoutPolicy) {
+        this(METADATA_ENDPOINT, timeoutPolicy);
     }
 
     /**
      * For test purposes only.
      */
     GcpMetadataApi(String endpoint) {
+        this(endpoint, TimeoutPolicy.defaultFor(GcpProperties.METADATA_API_TIMEOUT));
+    }
+
+    /**
+     * For test purposes only.
+     */
+    GcpMetadataApi(String endpoint, TimeoutPolicy timeoutPolicy) {
         this.endpoint = endpoint;
+        this.timeout = new AdaptiveTimeout(timeoutPolicy);
     }
 
     String currentProject() {
@@ -58,15 +68,58 @@ class GcpMetadataApi {
         return currentZone().substring(0, index);
     }
 
-    String accessToken() {
+    /**
+     * Fetches all the metadata of the current instance in a single call.
+     */
+    GcpInstanceMetadata currentInstance() {
+        String urlString = String.format("%s/computeMetadata/v1/instance/?recursive=true", endpoint);
+        return GcpInstanceMetadata.parse(callGet(urlString));
+    }
+
+    AccessToken accessToken() {
         String urlString = String.format("%s/computeMetadata/v1/instance/service-accounts/default/token", endpoint);
         String accessTokenResponse = callGet(urlString);
         return extractAccessToken(accessTokenResponse);
     }
 
-    private static String extractAccessToken(String accessTokenResponse) {
+    /**
+     * Waits up to {@code timeoutSec} seconds until the preemption status of the current instance ({@code TRUE} or
+     * {@code FALSE}) changes from the value identified by {@code lastEtag}; {@code null} returns the current value
+     * immediately. The wait can be cut short from another thread by {@code abortSignal}.
+     */
+    WatchedValue waitForPreempted(String lastEtag, int timeoutSec, AbortSignal abortSignal) {
+        return waitForChange("instance/preempted", lastEtag, timeoutSec, abortSignal);
+    }
+
+    /**
+     * Like {@link #waitForPreempted(String, int, AbortSignal)}, but for the upcoming host maintenance of the current instance
+     * ({@code NONE}, {@code MIGRATE_ON_HOST_MAINTENANCE} or {@code TERMINATE_ON_HOST_MAINTENANCE}).
+     */
+    WatchedValue waitForMaintenanceEvent(String lastEtag, int timeoutSec, AbortSignal abortSignal) {
+        return waitForChange("instance/maintenance-event", lastEtag, timeoutSec, abortSignal);
+    }
+
+    /**
+     * @see <a href="https://cloud.google.com/compute/docs/metadata/querying-metadata#waitforchange">Waiting for updates</a>
+     */
+    private WatchedValue waitForChange(String path, String lastEtag, int timeoutSec, AbortSignal abortSignal) {
+        String urlString = String.format("%s/computeMetadata/v1/%s", endpoint, path);
+        if (lastEtag != null) {
+            urlString = String.format("%s?wait_for_change=true&timeout_sec=%s&last_etag=%s", urlString, timeoutSec, lastEtag);
+        }
+        RestClient restClient = RestClient.create(urlString)
+                .withHeader("Metadata-Flavor", "Google")
+                .withConnectTimeoutMs(timeout.timeoutMs())
+                .withReadTimeoutMs((int) TimeUnit.SECONDS.toMillis(timeoutSec) + timeout.timeoutMs())
+                .withResponseHeader("ETag")
+                .withAbortSignal(abortSignal);
+        String value = restClient.get().trim();
+        return new WatchedValue(value, restClient.responseHeader("ETag"));
+    }
+
+    private static AccessToken extractAccessToken(String accessTokenResponse) {
         try {
-            return Json.parse(accessTokenResponse).asObject().get("access_token").asString();
+            return AccessToken.parse(accessTokenResponse);
         } catch (ParseException e) {
             throw new HazelcastException("Unable to retrieve access token. Please grant permissions to this "
                     + "service account if running from within the GCP network or specify the correct private key "
@@ -74,7 +127,28 @@ class GcpMetadataApi {
         }
     }
 
-    private static String callGet(String urlString) {
-        return RestClient.create(urlString).withHeader("Metadata-Flavor", "Google").get();
+    private String callGet(String urlString) {
+        return RestClient.create(urlString).withHeader("Metadata-Flavor", "Google").withTimeout(timeout).get();
+    }
+
+    /**
+     * Value of a metadata entry with its ETag, which identifies the value in the subsequent wait for a change.
+     */
+    static final class WatchedValue {
+        private final String value;
+        private final String etag;
+
+        WatchedValue(String value, String etag) {
+            this.value = value;
+            this.etag = etag;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        String getEtag() {
+            return etag;
+        }
     }
 }
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+/**
+ * Reacts to the preemption of the current Spot or preemptible VM, which GCP announces about 30 seconds before it stops
+ * the instance. The default reaction is a graceful shutdown of the Hazelcast members in the JVM, so that their
+ * partitions are migrated while they are still alive.
+ *
+ * @see GcpDiscoveryStrategy#setPreemptionListener(GcpPreemptionListener)
+ */
+public interface GcpPreemptionListener {
+
+    /**
+     * Called once, when the current instance is preempted; invoked on the preemption watcher thread.
+     */
+    void preempted();
+}
@@ -19,6 +19,12 @@ import com.hazelcast.config.properties.PropertyDefinition;
 import com.hazelcast.config.properties.PropertyTypeConverter;
 import com.hazelcast.config.properties.SimplePropertyDefinition;
 
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.config.properties.PropertyTypeConverter.BOOLEAN;
+import static com.hazelcast.config.properties.PropertyTypeConverter.FLOAT;
+import static com.hazelcast.config.properties.PropertyTypeConverter.INTEGER;
+import static com.hazelcast.config.properties.PropertyTypeConverter.LONG;
 import static com.hazelcast.config.properties.PropertyTypeConverter.STRING;
 
 /**
@@ -54,6 +60,79 @@ enum GcpProperties {
      */
     LABEL("label", STRING, true),
 
+    /**
+     * A filter expression to limit the instance discovery, evaluated server-side by the Compute API. Format:
+     * comparisons "field=value" or "field!=value" on "labels.&lt;key&gt;", "name", "tags" or "machineType", combined with
+     * "AND", "OR", "NOT" and parentheses, e.g. "labels.application=hazelcast AND (name=hz-* OR tags=hazelcast)".
+     * <p>
+     * If specified together with "label", then both must match. If not specified, then "filter" is not used to filter
+     * instances.
+     */
+    FILTER("filter", STRING, true),
+
+    /**
+     * Name of the managed instance group whose instances are discovered.
+     * <p>
+     * If specified, then only the instances of the group are fetched instead of all instances in all zones. The group is
+     * regional in "region" (or in the current region, if neither "region" nor "zones" is specified), or zonal in each of
+     * "zones". The "label" and "filter" properties are still applied. If not specified, then all zones are scanned.
+     */
+    INSTANCE_GROUP("instance-group", STRING, true),
+
+    /**
+     * The way the instances are fetched: "zones" (instances.list in each zone), "aggregated" (one instances.aggregatedList
+     * call per project, ignoring "zones"), "instance-group" (see "instance-group") or "file" (see "instances-file").
+     * <p>
+     * If not specified, then "instance-group" is used if "instance-group" is specified, otherwise "zones".
+     */
+    INSTANCE_SOURCE("instance-source", STRING, true),
+
+    /**
+     * Filesystem path to the file with the instances for the "file" instance source. Each line has the format
+     * "private-address [public-address [zone]]"; empty lines and lines starting with "#" are ignored.
+     */
+    INSTANCES_FILE("instances-file", STRING, true),
+
+    /**
+     * Time in milliseconds during which the fetched instances are reused by the subsequent discovery calls.
+     * <p>
+     * The default value is 0 (the instances are fetched on every discovery call).
+     */
+    INSTANCES_CACHE_TTL_MS("instances-cache-ttl-ms", LONG, true, 0L),
+
+    /**
+     * Maximum number of concurrent GCP API calls when fetching the instances in multiple projects or zones.
+     * <p>
+     * The default value is 1 (the projects and zones are queried sequentially).
+     */
+    API_PARALLELISM("api-parallelism", INTEGER, true, 1),
+
+    /**
+     * Name of the VPC network whose network interface is used to connect to the instances with multiple network
+     * interfaces.
+     * <p>
+     * If not specified, then the primary network interface ("nic0") is used. If specified, then the primary network
+     * interface is used only by the instances without a network interface in this network.
+     */
+    NETWORK("network", STRING, true),
+
+    /**
+     * Name of the VPC subnetwork whose network interface is used to connect to the instances with multiple network
+     * interfaces.
+     * <p>
+     * If not specified, then the interface is selected by "network" (or the primary one). If specified, then the primary
+     * network interface is used only by the instances without a network interface in this subnetwork (and "network").
+     */
+    SUBNETWORK("subnetwork", STRING, true),
+
+    /**
+     * Preferred IP address family of the instances: "ipv4" or "ipv6". The instances without an address of the preferred
+     * family are discovered by the address of the other family, so dual-stack and single-stack instances can be mixed.
+     * <p>
+     * The default value is "ipv4".
+     */
+    ADDRESS_FAMILY("address-family", STRING, true, "ipv4"),
+
     /**
      * Port range where Hazelcast is expected to be running. Format: "5701" or "5701-5710".
      * <p>
@@ -66,7 +145,124 @@ enum GcpProperties {
      * <p>
      * If not specified, then the discovery uses "zones" property.
      */
-    REGION("region", STRING, true);
+    REGION("region", STRING, true),
+
+    /**
+     * Hazelcast Client only. If "true", then the discovered nodes contain only the public IP addresses (the instances
+     * without a public IP are skipped); if "false", then only the private IP addresses.
+     * <p>
+     * If not specified, then both addresses are returned and the client tries both. Members always get both addresses.
+     */
+    USE_PUBLIC_IP("use-public-ip", BOOLEAN, true),
+
+    /**
+     * Filesystem directory where the plugin persists the resolved projects and zones, and the last successfully
+     * discovered instances.
+     * <p>
+     * If specified, then a restarted member uses the persisted projects and zones immediately and refreshes them
+     * asynchronously, and falls back to the last discovered instances when the GCP APIs are unavailable. If not specified,
+     * then nothing is persisted.
+     */
+    CACHE_DIRECTORY("cache-directory", STRING, true),
+
+    /**
+     * Maximum age in milliseconds of the last discovered instances persisted in "cache-directory" which are used when the
+     * GCP APIs are unavailable; older instances are ignored and the discovery fails as if nothing was persisted.
+     * <p>
+     * The default value is 86400000 (1 day); 0 means no limit.
+     */
+    LAST_KNOWN_INSTANCES_MAX_AGE_MS("last-known-instances-max-age-ms", LONG, true, TimeUnit.DAYS.toMillis(1)),
+
+    /**
+     * Timeout range in milliseconds for the calls to the GCP Metadata Server. Format: "min-max", e.g. "500-5000".
+     * <p>
+     * The timeout adapts to the observed latency (see "api-timeout-latency-factor") within the range. The default value is
+     * "500-5000".
+     */
+    METADATA_API_TIMEOUT("metadata-api-timeout-ms", STRING, true, "500-5000"),
+
+    /**
+     * Timeout range in milliseconds for the calls to the GCP Compute API. Format: "min-max", e.g. "2000-30000".
+     * <p>
+     * The timeout adapts to the observed latency (see "api-timeout-latency-factor") within the range. The default value is
+     * "2000-30000".
+     */
+    COMPUTE_API_TIMEOUT("compute-api-timeout-ms", STRING, true, "2000-30000"),
+
+    /**
+     * Timeout range in milliseconds for the calls to the Google OAuth API. Format: "min-max", e.g. "2000-10000".
+     * <p>
+     * The timeout adapts to the observed latency (see "api-timeout-latency-factor") within the range. The default value is
+     * "2000-10000".
+     */
+    OAUTH_API_TIMEOUT("oauth-api-timeout-ms", STRING, true, "2000-10000"),
+
+    /**
+     * Multiplier applied to the p99 latency of the recent calls to compute the adaptive timeout of the GCP APIs.
+     * <p>
+     * The default value is 3.
+     */
+    API_TIMEOUT_LATENCY_FACTOR("api-timeout-latency-factor", FLOAT, true, TimeoutPolicy.DEFAULT_LATENCY_FACTOR),
+
+    /**
+     * Maximum average number of Compute API calls per second and GCP project made by this member, so that the whole
+     * fleet stays under the per-project read quota, e.g. during a rolling restart.
+     * <p>
+     * The default value is 0 (unlimited).
+     */
+    COMPUTE_API_QPS("compute-api-qps", FLOAT, true, 0f),
+
+    /**
+     * Upper bound in milliseconds of the delay before the first discovery, derived from the GCP instance id, so that
+     * members started at the same time spread their first Compute API calls.
+     * <p>
+     * The default value is 0 (no delay).
+     */
+    STARTUP_JITTER_MS("startup-jitter-ms", LONG, true, 0L),
+
+    /**
+     * Maximum time in milliseconds during which the instances of a zone (or project) are reused without listing it again.
+     * Zones whose instances change are listed in every discovery round, while the listing of unchanged zones is backed
+     * off up to this bound.
+     * <p>
+     * The default value is 0 (every zone is listed in every discovery round).
+     */
+    ZONE_REFRESH_MAX_STALENESS_MS("zone-refresh-max-staleness-ms", LONG, true, 0L),
+
+    /**
+     * Interval in milliseconds of the background discovery which detects stopped or deleted GCP instances and suspects
+     * the Hazelcast members running on them, so that they are removed without waiting for the heartbeat timeout.
+     * Applicable only to Hazelcast members.
+     * <p>
+     * The default value is 0 (disabled).
+     */
+    MEMBER_STATUS_CHECK_INTERVAL_MS("member-status-check-interval-ms", LONG, true, 0L),
+
+    /**
+     * If {@code true}, then the preemption of the current Spot or preemptible VM is watched and the Hazelcast member is
+     * gracefully shut down as soon as GCP announces it, see {@link GcpPreemptionListener}. Applicable only to Hazelcast
+     * members.
+     * <p>
+     * The default value is {@code false}.
+     */
+    WATCH_PREEMPTION("watch-preemption", BOOLEAN, true, false),
+
+    /**
+     * If {@code true}, then the upcoming host maintenance (e.g. a live migration) of the current instance is watched and
+     * reported to {@link GcpMaintenanceListener}s. Applicable only to Hazelcast members.
+     * <p>
+     * The default value is {@code false}.
+     */
+    WATCH_MAINTENANCE_EVENTS("watch-maintenance-events", BOOLEAN, true, false),
+
+    /**
+     * Maximum number of the discovered instances returned as seeds to join, balanced across the zones and always
+     * including the oldest instances. Each member selects its own subset, so that the join attempts on large fleets are
+     * spread over the instances instead of every member contacting every instance.
+     * <p>
+     * The default value is 0 (all discovered instances are returned).
+     */
+    SEED_COUNT("seed-count", INTEGER, true, 0);
 
     private final PropertyDefinition propertyDefinition;
     private final Comparable defaultValue;
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+/**
+ * Refresh metrics of a single GCP zone (or project, if the instances are not listed per zone), see
+ * {@link GcpDiscoveryStrategy#getZoneRefreshMetrics()}.
+ */
+public final class GcpZoneRefreshMetrics {
+    private final long refreshCount;
+    private final long skippedCount;
+    private final long changeCount;
+    private final long failureCount;
+    private final long refreshIntervalMs;
+    private final long stalenessMs;
+
+    GcpZoneRefreshMetrics(long refreshCount, long skippedCount, long changeCount, long failureCount, long refreshIntervalMs,
+                          long stalenessMs) {
+        this.refreshCount = refreshCount;
+        this.skippedCount = skippedCount;
+        this.changeCount = changeCount;
+        this.failureCount = failureCount;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.stalenessMs = stalenessMs;
+    }
+
+    /**
+     * Returns the number of successful listings of the zone.
+     */
+    public long getRefreshCount() {
+        return refreshCount;
+    }
+
+    /**
+     * Returns the number of discovery rounds which reused the last known instances of the zone instead of listing it.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Returns the number of listings which found different instances than the previous listing.
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Returns the number of failed listings.
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns the current interval in milliseconds after which the zone is listed again.
+     */
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    /**
+     * Returns the time in milliseconds since the last successful listing, or -1 if the zone was never listed.
+     */
+    public long getStalenessMs() {
+        return stalenessMs;
+    }
+
+    @Override
+    public String toString() {
+        return "GcpZoneRefreshMetrics{"
+                + "refreshCount=" + refreshCount
+                + ", skippedCount=" + skippedCount
+                + ", changeCount=" + changeCount
+                + ", failureCount=" + failureCount
+                + ", refreshIntervalMs=" + refreshIntervalMs
+                + ", stalenessMs=" + stalenessMs
+                + '}';
+    }
+}
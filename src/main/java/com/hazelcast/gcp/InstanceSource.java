@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Source of the discovered GCP instances.
+ * <p>
+ * Implementations fetch the instances in a specific way (e.g. {@link ZoneScanInstanceSource}) and can be composed with
+ * decorators such as {@link CachingInstanceSource} and {@link PerZoneInstanceSource}.
+ */
+interface InstanceSource {
+
+    /**
+     * Returns the addresses of the matching instances.
+     *
+     * @param projects    GCP projects to search in
+     * @param zones       GCP zones to search in; sources which are not zonal ignore them
+     * @param accessToken supplier of the OAuth access token, called only by the sources which use GCP APIs
+     */
+    List<GcpAddress> instances(List<String> projects, List<String> zones, AccessTokenSupplier accessToken);
+
+    /**
+     * Supplies the OAuth access token.
+     */
+    interface AccessTokenSupplier {
+        String get();
+    }
+
+    /**
+     * Type of {@link InstanceSource}, as configured with the "instance-source" property.
+     */
+    enum Type {
+        /**
+         * {@link ZoneScanInstanceSource}.
+         */
+        ZONES,
+        /**
+         * {@link AggregatedListInstanceSource}.
+         */
+        AGGREGATED,
+        /**
+         * {@link ManagedInstanceGroupInstanceSource}.
+         */
+        INSTANCE_GROUP,
+        /**
+         * {@link FileInstanceSource}.
+         */
+        FILE;
+
+        /**
+         * Creates {@link Type} from the {@code spec} String, e.g. "instance-group".
+         *
+         * @throws IllegalArgumentException if the specified spec is not a valid instance source type
+         */
+        static Type parse(String spec) {
+            for (Type type : values()) {
+                if (type.name().equals(spec.trim().toUpperCase(Locale.ENGLISH).replace('-', '_'))) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException(String.format("Invalid instance source: '%s', expected 'zones', "
+                    + "'aggregated', 'instance-group' or 'file'", spec));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Watches the upcoming host maintenance of the current instance and notifies the {@link GcpMaintenanceListener}s about
+ * its changes. The initial {@code NONE} is not reported.
+ */
+final class MaintenanceEventWatcher
+        extends MetadataWatcher {
+    static final String NO_MAINTENANCE = "NONE";
+
+    private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategy.class);
+
+    private final GcpMetadataApi gcpMetadataApi;
+    private final List<GcpMaintenanceListener> listeners = new CopyOnWriteArrayList<GcpMaintenanceListener>();
+
+    private volatile String maintenanceEvent;
+
+    MaintenanceEventWatcher(GcpMetadataApi gcpMetadataApi) {
+        super("maintenance");
+        this.gcpMetadataApi = gcpMetadataApi;
+    }
+
+    /**
+     * For test purposes only.
+     */
+    MaintenanceEventWatcher(GcpMetadataApi gcpMetadataApi, long errorBackoffMs) {
+        super("maintenance", errorBackoffMs);
+        this.gcpMetadataApi = gcpMetadataApi;
+    }
+
+    void addListener(GcpMaintenanceListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(GcpMaintenanceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the last observed maintenance event or {@code null} if it is not known.
+     */
+    String maintenanceEvent() {
+        return maintenanceEvent;
+    }
+
+    @Override
+    GcpMetadataApi.WatchedValue waitForChange(String lastEtag, int timeoutSec, AbortSignal abortSignal) {
+        return gcpMetadataApi.waitForMaintenanceEvent(lastEtag, timeoutSec, abortSignal);
+    }
+
+    @Override
+    boolean onValue(String value) {
+        String previous = maintenanceEvent;
+        if (value.equals(previous)) {
+            return true;
+        }
+        maintenanceEvent = value;
+        if (previous == null && NO_MAINTENANCE.equals(value)) {
+            return true;
+        }
+        if (NO_MAINTENANCE.equals(value)) {
+            LOGGER.info(String.format("GCP host maintenance %s of this instance finished", previous));
+        } else {
+            LOGGER.warning(String.format("GCP host maintenance of this instance is upcoming: %s", value));
+        }
+        for (GcpMaintenanceListener listener : listeners) {
+            try {
+                listener.maintenanceEventChanged(previous, value);
+            } catch (RuntimeException e) {
+                LOGGER.warning("Maintenance listener failed", e);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * {@link InstanceSource} which fetches only the instances of a managed instance group: it lists the group members and
+ * then fetches their addresses with a name filter in each zone the group spans.
+ * <p>
+ * The group is regional in the configured region (or in the current region), or zonal in each of the configured zones.
+ */
+final class ManagedInstanceGroupInstanceSource
+        implements InstanceSource {
+    private static final ILogger LOGGER = Logger.getLogger(ManagedInstanceGroupInstanceSource.class);
+
+    private static final int INSTANCE_NAMES_PER_REQUEST = 50;
+
+    private final GcpComputeApi gcpComputeApi;
+    private final GcpMetadataApi gcpMetadataApi;
+    private final Filter filter;
+    private final String instanceGroup;
+    private final String region;
+    private final List<String> configuredZones;
+
+    private volatile List<String> locations;
+
+    ManagedInstanceGroupInstanceSource(GcpComputeApi gcpComputeApi, GcpMetadataApi gcpMetadataApi, GcpConfig gcpConfig) {
+        this.gcpComputeApi = gcpComputeApi;
+        this.gcpMetadataApi = gcpMetadataApi;
+        this.filter = gcpConfig.getFilter();
+        this.instanceGroup = gcpConfig.getInstanceGroup();
+        this.region = gcpConfig.getRegion();
+        this.configuredZones = gcpConfig.getZones();
+    }
+
+    @Override
+    public List<GcpAddress> instances(List<String> projects, List<String> zones, AccessTokenSupplier accessToken) {
+        List<GcpAddress> result = new ArrayList<GcpAddress>();
+        for (String project : projects) {
+            for (String location : locations()) {
+                LOGGER.finest(String.format("Fetching instances of group '%s' for project '%s' and '%s'", instanceGroup,
+                        project, location));
+                Map<String, List<String>> instances = gcpComputeApi.managedInstances(project, location, instanceGroup,
+                        accessToken.get());
+                for (Map.Entry<String, List<String>> zoneInstances : instances.entrySet()) {
+                    List<String> names = zoneInstances.getValue();
+                    for (int i = 0; i < names.size(); i += INSTANCE_NAMES_PER_REQUEST) {
+                        List<String> batch = names.subList(i, Math.min(i + INSTANCE_NAMES_PER_REQUEST, names.size()));
+                        result.addAll(gcpComputeApi.instances(project, zoneInstances.getKey(), nameFilter(batch),
+                                accessToken.get()));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private Filter nameFilter(List<String> names) {
+        List<Filter> nameFilters = new ArrayList<Filter>();
+        for (String name : names) {
+            nameFilters.add(Filter.comparison("name", name));
+        }
+        return Filter.and(filter, Filter.or(nameFilters));
+    }
+
+    private List<String> locations() {
+        List<String> result = locations;
+        if (result == null) {
+            if (region != null) {
+                result = singletonList(String.format("regions/%s", region));
+            } else if (!configuredZones.isEmpty()) {
+                result = new ArrayList<String>();
+                for (String zone : configuredZones) {
+                    result.add(String.format("zones/%s", zone));
+                }
+            } else {
+                result = singletonList(String.format("regions/%s", gcpMetadataApi.currentRegion()));
+            }
+            locations = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Computes the {@link GcpMembershipEvent}s between successive discovery results, notifies the registered
+ * {@link GcpMembershipListener}s and keeps the churn metrics.
+ * <p>
+ * The churn rate is the exponentially weighted moving average of the number of events per discovery round, so that it
+ * reflects the recent rounds rather than the whole lifetime of the member.
+ * <p>
+ * Results may be reported by several threads (the discovery and the member status checks), so the listeners are
+ * notified under the same lock as the results are compared, in the order of the results.
+ */
+final class MembershipTracker {
+    private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategy.class);
+
+    private static final double CHURN_RATE_WEIGHT = 0.2;
+
+    private final List<GcpMembershipListener> listeners = new CopyOnWriteArrayList<GcpMembershipListener>();
+    /**
+     * Serializes the comparison and the notification of the successive results; the metrics are guarded by
+     * {@code this}, so that reading them does not wait for the listeners.
+     */
+    private final Object updateLock = new Object();
+
+    private AddressSnapshot previous = AddressSnapshot.EMPTY;
+    private long rounds;
+    private long addedCount;
+    private long removedCount;
+    private long changedCount;
+    private double churnRate;
+
+    void addListener(GcpMembershipListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(GcpMembershipListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Compares the addresses with the previous result and notifies the listeners about the changes. The first result
+     * is reported as additions of all instances.
+     */
+    List<GcpMembershipEvent> update(List<GcpAddress> addresses) {
+        synchronized (updateLock) {
+            List<GcpMembershipEvent> events;
+            synchronized (this) {
+                AddressSnapshot current = AddressSnapshot.of(addresses);
+                events = diff(previous, current);
+                previous = current;
+                record(events);
+            }
+            if (!events.isEmpty()) {
+                LOGGER.fine(String.format("Discovered GCP instances changed: %s added, %s removed, %s changed "
+                        + "(churn rate %.2f events per round)", count(events, GcpMembershipEvent.Type.ADDED),
+                        count(events, GcpMembershipEvent.Type.REMOVED),
+                        count(events, GcpMembershipEvent.Type.ADDRESS_CHANGED), churnRate()));
+                notifyListeners(events);
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Diffs the snapshots by the private address; only the changed instances are materialized. If the same private
+     * address occurs more than once, then only the first occurrence is considered.
+     */
+    private static List<GcpMembershipEvent> diff(AddressSnapshot previous, AddressSnapshot current) {
+        List<GcpMembershipEvent> result = new ArrayList<GcpMembershipEvent>();
+        for (int i = 0; i < current.size(); i++) {
+            if (current.indexOfSamePrivateAddress(current, i) != i) {
+                continue;
+            }
+            int previousIndex = previous.indexOfSamePrivateAddress(current, i);
+            if (previousIndex < 0) {
+                result.add(new GcpMembershipEvent(GcpMembershipEvent.Type.ADDED, null, current.get(i)));
+            } else if (!previous.sameInstance(previousIndex, current, i)) {
+                result.add(new GcpMembershipEvent(GcpMembershipEvent.Type.ADDRESS_CHANGED, previous.get(previousIndex),
+                        current.get(i)));
+            }
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            if (previous.indexOfSamePrivateAddress(previous, i) == i && current.indexOfSamePrivateAddress(previous, i) < 0) {
+                result.add(new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, previous.get(i), null));
+            }
+        }
+        return result;
+    }
+
+    private void record(List<GcpMembershipEvent> events) {
+        addedCount += count(events, GcpMembershipEvent.Type.ADDED);
+        removedCount += count(events, GcpMembershipEvent.Type.REMOVED);
+        changedCount += count(events, GcpMembershipEvent.Type.ADDRESS_CHANGED);
+        churnRate = rounds == 0 ? events.size() : churnRate + CHURN_RATE_WEIGHT * (events.size() - churnRate);
+        rounds++;
+    }
+
+    private void notifyListeners(List<GcpMembershipEvent> events) {
+        for (GcpMembershipListener listener : listeners) {
+            try {
+                listener.membershipChanged(events);
+            } catch (RuntimeException e) {
+                LOGGER.warning(String.format("GCP membership listener %s failed", listener), e);
+            }
+        }
+    }
+
+    private static int count(List<GcpMembershipEvent> events, GcpMembershipEvent.Type type) {
+        int result = 0;
+        for (GcpMembershipEvent event : events) {
+            if (event.getType() == type) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    synchronized long rounds() {
+        return rounds;
+    }
+
+    synchronized long addedCount() {
+        return addedCount;
+    }
+
+    synchronized long removedCount() {
+        return removedCount;
+    }
+
+    synchronized long changedCount() {
+        return changedCount;
+    }
+
+    /**
+     * Returns the moving average of the number of events per discovery round.
+     */
+    synchronized double churnRate() {
+        return churnRate;
+    }
+}
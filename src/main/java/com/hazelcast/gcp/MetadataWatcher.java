@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+/**
+ * Watches a value of the Metadata Server with long-polling requests on a daemon thread.
+ * <p>
+ * Each request waits up to {@link #WAIT_TIMEOUT_SEC} for a change of the value identified by the ETag of the previous
+ * response, so a change between two requests is not missed. Failed requests are repeated after
+ * {@link #ERROR_BACKOFF_MS}. Stopping the watcher aborts the request in flight.
+ */
+abstract class MetadataWatcher
+        implements Runnable {
+    static final int WAIT_TIMEOUT_SEC = 300;
+
+    private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategy.class);
+
+    private static final long ERROR_BACKOFF_MS = 10000L;
+
+    private final String name;
+    private final long errorBackoffMs;
+
+    private final AbortSignal abortSignal = new AbortSignal();
+
+    private volatile boolean running = true;
+    private volatile Thread thread;
+
+    MetadataWatcher(String name, long errorBackoffMs) {
+        this.name = name;
+        this.errorBackoffMs = errorBackoffMs;
+    }
+
+    MetadataWatcher(String name) {
+        this(name, ERROR_BACKOFF_MS);
+    }
+
+    /**
+     * Returns the current value if {@code lastEtag} is {@code null}, otherwise waits up to {@code timeoutSec} for a change.
+     * The request must be made with {@code abortSignal}, so that {@link #stop()} does not wait for its timeout.
+     */
+    abstract GcpMetadataApi.WatchedValue waitForChange(String lastEtag, int timeoutSec, AbortSignal abortSignal);
+
+    /**
+     * Called with the current value after each request; returns {@code false} to stop watching.
+     */
+    abstract boolean onValue(String value);
+
+    void start() {
+        Thread watcherThread = new Thread(this, String.format("hz.gcp.%s", name));
+        watcherThread.setDaemon(true);
+        thread = watcherThread;
+        watcherThread.start();
+    }
+
+    void stop() {
+        running = false;
+        // the interrupt does not unblock the read of the long-polling request
+        abortSignal.abort();
+        Thread watcherThread = thread;
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+    }
+
+    /**
+     * Watches the value until {@link #onValue(String)} returns {@code false} or the watcher is stopped.
+     */
+    @Override
+    public void run() {
+        String etag = null;
+        while (running) {
+            try {
+                GcpMetadataApi.WatchedValue watchedValue = waitForChange(etag, WAIT_TIMEOUT_SEC, abortSignal);
+                if (!running || !onValue(watchedValue.getValue())) {
+                    return;
+                }
+                etag = watchedValue.getEtag();
+                if (etag == null) {
+                    // cannot wait for a change without the ETag, so poll instead
+                    sleep(errorBackoffMs);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                LOGGER.fine(String.format("Cannot watch the GCP instance %s", name), e);
+                sleep(errorBackoffMs);
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
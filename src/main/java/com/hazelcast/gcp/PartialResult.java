@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Result of {@link InstanceSource} for which some projects or zones could not be fetched; it contains the instances of
+ * the successful ones and the last known instances of the failed ones.
+ */
+final class PartialResult
+        extends AbstractList<GcpAddress> {
+    private final List<GcpAddress> addresses;
+    private final List<String> failedUnits;
+
+    PartialResult(List<GcpAddress> addresses, List<String> failedUnits) {
+        this.addresses = unmodifiableList(addresses);
+        this.failedUnits = unmodifiableList(failedUnits);
+    }
+
+    static boolean isPartial(List<GcpAddress> addresses) {
+        return addresses instanceof PartialResult;
+    }
+
+    /**
+     * Returns the failed projects or zones, e.g. "project-1/us-east1-b".
+     */
+    List<String> getFailedUnits() {
+        return failedUnits;
+    }
+
+    @Override
+    public GcpAddress get(int index) {
+        return addresses.get(index);
+    }
+
+    @Override
+    public int size() {
+        return addresses.size();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * {@link InstanceSource} decorator which splits the call into independent units, one per project (and per zone, if the
+ * delegate is zonal), so that a failing zone neither fails the whole discovery nor repeats the calls to the other zones.
+ * <p>
+ * Each unit is retried on its own. If it still fails, then its last known instances are used and the result is returned
+ * as {@link PartialResult}; only if all units fail without any last known instances, the failure is rethrown. The units
+ * run on the given executor, so they can be fetched concurrently, and the results are concatenated in the order of the
+ * projects and zones.
+ * <p>
+ * A unit whose instances rarely change is not listed in every call; {@link ZoneRefreshScheduler} decides when its
+ * last known instances are reused instead.
+ */
+final class PerZoneInstanceSource
+        implements InstanceSource {
+    private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategy.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private final InstanceSource delegate;
+    private final boolean zonal;
+    private final Executor executor;
+    private final int retries;
+    private final List<String> nonRetryableKeywords;
+    private final ZoneRefreshScheduler scheduler;
+    private final ConcurrentMap<String, AddressSnapshot> lastKnown = new ConcurrentHashMap<String, AddressSnapshot>();
+
+    PerZoneInstanceSource(InstanceSource delegate, boolean zonal, Executor executor, int retries,
+                          List<String> nonRetryableKeywords, ZoneRefreshScheduler scheduler) {
+        this.delegate = delegate;
+        this.zonal = zonal;
+        this.executor = executor;
+        this.retries = retries;
+        this.nonRetryableKeywords = nonRetryableKeywords;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Creates an executor which runs the units sequentially in the calling thread if {@code parallelism} is 1, or
+     * on up to {@code parallelism} daemon threads, which terminate when idle.
+     */
+    static Executor newExecutor(int parallelism) {
+        if (parallelism <= 1) {
+            return new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            };
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "hz.gcp.discovery");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public List<GcpAddress> instances(List<String> projects, List<String> zones, AccessTokenSupplier accessToken) {
+        long nowMs = scheduler.nowMs();
+        List<String> units = new ArrayList<String>();
+        List<FutureTask<List<GcpAddress>>> tasks = new ArrayList<FutureTask<List<GcpAddress>>>();
+        for (String project : projects) {
+            if (zonal) {
+                for (String zone : zones) {
+                    String unit = String.format("%s/%s", project, zone);
+                    units.add(unit);
+                    tasks.add(isDue(unit, nowMs) ? task(singletonList(project), singletonList(zone), accessToken) : null);
+                }
+            } else {
+                units.add(project);
+                tasks.add(isDue(project, nowMs) ? task(singletonList(project), zones, accessToken) : null);
+            }
+        }
+        for (FutureTask<List<GcpAddress>> task : tasks) {
+            if (task != null) {
+                executor.execute(task);
+            }
+        }
+        return collect(units, tasks, nowMs);
+    }
+
+    private boolean isDue(String unit, long nowMs) {
+        return !lastKnown.containsKey(unit) || scheduler.isDue(unit, nowMs);
+    }
+
+    private List<GcpAddress> collect(List<String> units, List<FutureTask<List<GcpAddress>>> tasks, long nowMs) {
+        List<GcpAddress> result = new ArrayList<GcpAddress>();
+        List<String> failedUnits = new ArrayList<String>();
+        RuntimeException failure = null;
+        boolean anyAvailable = false;
+        for (int i = 0; i < tasks.size(); i++) {
+            String unit = units.get(i);
+            if (tasks.get(i) == null) {
+                result.addAll(lastKnown.get(unit).asList());
+                anyAvailable = true;
+                continue;
+            }
+            try {
+                List<GcpAddress> addresses = await(tasks.get(i));
+                AddressSnapshot snapshot = AddressSnapshot.of(addresses);
+                AddressSnapshot previous = lastKnown.put(unit, snapshot);
+                scheduler.refreshed(unit, previous != null && !previous.equals(snapshot), nowMs);
+                result.addAll(addresses);
+                anyAvailable = true;
+            } catch (RuntimeException e) {
+                scheduler.failed(unit);
+                failedUnits.add(unit);
+                failure = failure == null ? e : failure;
+                AddressSnapshot lastKnownAddresses = lastKnown.get(unit);
+                if (lastKnownAddresses != null) {
+                    LOGGER.warning(String.format("Cannot fetch GCP instances in %s, using %s last known addresses", unit,
+                            lastKnownAddresses.size()), e);
+                    result.addAll(lastKnownAddresses.asList());
+                    anyAvailable = true;
+                } else {
+                    LOGGER.warning(String.format("Cannot fetch GCP instances in %s", unit), e);
+                }
+            }
+        }
+        if (failedUnits.isEmpty()) {
+            return result;
+        }
+        if (!anyAvailable) {
+            throw failure;
+        }
+        return new PartialResult(result, failedUnits);
+    }
+
+    private FutureTask<List<GcpAddress>> task(final List<String> projects, final List<String> zones,
+                                              final AccessTokenSupplier accessToken) {
+        return new FutureTask<List<GcpAddress>>(new Callable<List<GcpAddress>>() {
+            @Override
+            public List<GcpAddress> call() {
+                return RetryUtils.retry(new Callable<List<GcpAddress>>() {
+                    @Override
+                    public List<GcpAddress> call() {
+                        return delegate.instances(projects, zones, accessToken);
+                    }
+                }, retries, nonRetryableKeywords);
+            }
+        });
+    }
+
+    private static List<GcpAddress> await(FutureTask<List<GcpAddress>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HazelcastException("Interrupted while fetching GCP instances", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new HazelcastException(e.getCause());
+        }
+    }
+}
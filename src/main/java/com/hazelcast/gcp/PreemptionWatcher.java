@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+/**
+ * Watches the preemption status of the current instance and notifies {@link GcpPreemptionListener} as soon as the
+ * instance is preempted.
+ * <p>
+ * Note that the graceful shutdown must complete within the preemption notice, so it suits clusters whose members can
+ * migrate their partitions in less than 30 seconds; otherwise the backups still cover the data of the stopped member.
+ */
+final class PreemptionWatcher
+        extends MetadataWatcher {
+
+    /**
+     * Default {@link GcpPreemptionListener}, which gracefully shuts down all Hazelcast members in this JVM, since all
+     * of them run on the preempted instance.
+     */
+    static final GcpPreemptionListener SHUTDOWN_LOCAL_MEMBERS = new GcpPreemptionListener() {
+        @Override
+        public void preempted() {
+            for (HazelcastInstance instance : Hazelcast.getAllHazelcastInstances()) {
+                LOGGER.warning(String.format("Shutting down Hazelcast member %s gracefully", instance.getName()));
+                instance.shutdown();
+            }
+        }
+    };
+
+    private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategy.class);
+
+    private final GcpMetadataApi gcpMetadataApi;
+    private final GcpPreemptionListener listener;
+
+    PreemptionWatcher(GcpMetadataApi gcpMetadataApi, GcpPreemptionListener listener) {
+        super("preemption");
+        this.gcpMetadataApi = gcpMetadataApi;
+        this.listener = listener;
+    }
+
+    /**
+     * For test purposes only.
+     */
+    PreemptionWatcher(GcpMetadataApi gcpMetadataApi, GcpPreemptionListener listener, long errorBackoffMs) {
+        super("preemption", errorBackoffMs);
+        this.gcpMetadataApi = gcpMetadataApi;
+        this.listener = listener;
+    }
+
+    @Override
+    GcpMetadataApi.WatchedValue waitForChange(String lastEtag, int timeoutSec, AbortSignal abortSignal) {
+        return gcpMetadataApi.waitForPreempted(lastEtag, timeoutSec, abortSignal);
+    }
+
+    @Override
+    boolean onValue(String value) {
+        if (!"TRUE".equalsIgnoreCase(value)) {
+            return true;
+        }
+        LOGGER.warning("GCP instance is preempted and will be stopped in about 30 seconds");
+        try {
+            listener.preempted();
+        } catch (RuntimeException e) {
+            LOGGER.warning("Preemption listener failed", e);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the rate of the API calls per GCP project, since the Compute API read quotas are enforced per project.
+ * <p>
+ * The burst is one second worth of calls, so that a discovery round over a few zones is not delayed.
+ */
+final class ProjectRateLimiter {
+    static final ProjectRateLimiter UNLIMITED = new ProjectRateLimiter(0);
+
+    private final double permitsPerSecond;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<String, TokenBucket>();
+
+    /**
+     * @param permitsPerSecond maximum average number of calls per second and project; {@code 0} means unlimited
+     */
+    ProjectRateLimiter(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    /**
+     * Blocks until a call to {@code project} is allowed.
+     */
+    void acquire(String project) {
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+        TokenBucket bucket = buckets.get(project);
+        if (bucket == null) {
+            TokenBucket newBucket = new TokenBucket(permitsPerSecond, Math.max(1, permitsPerSecond), System.nanoTime());
+            bucket = buckets.putIfAbsent(project, newBucket);
+            if (bucket == null) {
+                bucket = newBucket;
+            }
+        }
+        bucket.acquire();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+
+import static com.hazelcast.gcp.Utils.splitByComma;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Persists the resolved GCP projects and zones in the local filesystem.
+ * <p>
+ * The cache file is bound to the discovery configuration (projects, zones, region), so a configuration change
+ * invalidates the previously cached values.
+ */
+final class ProjectZonesCache {
+    private static final ILogger LOGGER = Logger.getLogger(ProjectZonesCache.class);
+
+    private static final String KEY = "key";
+    private static final String PROJECTS = "projects";
+    private static final String ZONES = "zones";
+    private static final String REFRESH_TIME_MS = "refresh-time-ms";
+
+    private final File file;
+    private final String key;
+
+    ProjectZonesCache(File directory, String key) {
+        this.file = new File(directory, String.format("hazelcast-gcp-%08x.zones", key.hashCode()));
+        this.key = key;
+    }
+
+    /**
+     * Returns {@link ProjectZonesCache} for the given configuration or {@code null} if the cache directory is not configured.
+     */
+    static ProjectZonesCache create(GcpConfig gcpConfig) {
+        if (gcpConfig.getCacheDirectory() == null) {
+            return null;
+        }
+        String key = String.format("projects=%s;zones=%s;region=%s", gcpConfig.getProjects(), gcpConfig.getZones(),
+                gcpConfig.getRegion());
+        return new ProjectZonesCache(new File(gcpConfig.getCacheDirectory()), key);
+    }
+
+    /**
+     * Returns the cached entry or {@code null} if there is no valid entry for the current configuration.
+     */
+    Entry load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        InputStream is = null;
+        try {
+            is = new FileInputStream(file);
+            Properties properties = new Properties();
+            properties.load(is);
+            List<String> projects = splitByComma(properties.getProperty(PROJECTS));
+            List<String> zones = splitByComma(properties.getProperty(ZONES));
+            if (!key.equals(properties.getProperty(KEY)) || projects.isEmpty() || zones.isEmpty()) {
+                return null;
+            }
+            return new Entry(projects, zones, Long.parseLong(properties.getProperty(REFRESH_TIME_MS)));
+        } catch (Exception e) {
+            LOGGER.warning(String.format("Cannot read GCP projects and zones cache file '%s', ignoring it", file), e);
+            return null;
+        } finally {
+            IOUtil.closeResource(is);
+        }
+    }
+
+    void store(List<String> projects, List<String> zones, long refreshTimeMs) {
+        Properties properties = new Properties();
+        properties.setProperty(KEY, key);
+        properties.setProperty(PROJECTS, Utils.joinByComma(projects));
+        properties.setProperty(ZONES, Utils.joinByComma(zones));
+        properties.setProperty(REFRESH_TIME_MS, Long.toString(refreshTimeMs));
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            properties.store(bytes, "Hazelcast GCP Discovery projects and zones");
+            Utils.writeAtomically(file, bytes.toByteArray());
+        } catch (IOException e) {
+            LOGGER.warning(String.format("Cannot write GCP projects and zones cache file '%s'", file), e);
+        }
+    }
+
+    /**
+     * Projects and zones read from the cache.
+     */
+    static final class Entry {
+        private final List<String> projects;
+        private final List<String> zones;
+        private final long refreshTimeMs;
+
+        Entry(List<String> projects, List<String> zones, long refreshTimeMs) {
+            this.projects = unmodifiableList(projects);
+            this.zones = unmodifiableList(zones);
+            this.refreshTimeMs = refreshTimeMs;
+        }
+
+        List<String> getProjects() {
+            return projects;
+        }
+
+        List<String> getZones() {
+            return zones;
+        }
+
+        long getRefreshTimeMs() {
+            return refreshTimeMs;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads HTTP response bodies into a per-thread reusable byte buffer and decodes them as UTF-8 in one step.
+ * <p>
+ * The buffer is pre-sized from the {@code Content-Length} header when it is known and grows by doubling otherwise.
+ * Buffers larger than {@link #MAX_POOLED_BUFFER_BYTES} are not kept, so that a single large response does not pin
+ * memory for the lifetime of the thread. Responses larger than the configured maximum are rejected before they are
+ * fully buffered.
+ */
+final class ResponseReader {
+    static final int DEFAULT_MAX_RESPONSE_BYTES = 64 * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_BYTES = 8 * 1024;
+    private static final int MAX_POOLED_BUFFER_BYTES = 1024 * 1024;
+
+    private static final ThreadLocal<Buffer> BUFFER = new ThreadLocal<Buffer>() {
+        @Override
+        protected Buffer initialValue() {
+            return new Buffer();
+        }
+    };
+
+    private ResponseReader() {
+    }
+
+    /**
+     * Reads the whole stream and decodes it as UTF-8.
+     *
+     * @param contentLength value of the {@code Content-Length} header or {@code -1} if unknown
+     * @throws RestClientException if the response is larger than {@code maxResponseBytes}
+     */
+    static String readString(InputStream stream, long contentLength, int maxResponseBytes)
+            throws IOException {
+        if (stream == null) {
+            return "";
+        }
+        Buffer buffer = BUFFER.get();
+        byte[] bytes = buffer.read(stream, contentLength, maxResponseBytes);
+        return new String(bytes, 0, buffer.length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the whole stream into a new array of the exact response length, e.g. for the parsers working on raw bytes.
+     *
+     * @param contentLength value of the {@code Content-Length} header or {@code -1} if unknown
+     * @throws RestClientException if the response is larger than {@code maxResponseBytes}
+     */
+    static byte[] readBytes(InputStream stream, long contentLength, int maxResponseBytes)
+            throws IOException {
+        if (stream == null) {
+            return new byte[0];
+        }
+        Buffer buffer = BUFFER.get();
+        byte[] bytes = buffer.read(stream, contentLength, maxResponseBytes);
+        return Arrays.copyOf(bytes, buffer.length);
+    }
+
+    private static RestClientException tooLarge(int maxResponseBytes) {
+        return RestClientException.permanent(String.format("Response exceeds the maximum size of %s bytes", maxResponseBytes));
+    }
+
+    private static final class Buffer {
+        private byte[] pooled = new byte[INITIAL_BUFFER_BYTES];
+        private int length;
+
+        /**
+         * Returns the filled array, which is the pooled one unless the response did not fit into it; the number of
+         * bytes read is stored in {@link #length}.
+         */
+        private byte[] read(InputStream stream, long contentLength, int maxResponseBytes)
+                throws IOException {
+            if (contentLength > maxResponseBytes) {
+                throw tooLarge(maxResponseBytes);
+            }
+            byte[] target = contentLength > pooled.length ? new byte[(int) contentLength] : pooled;
+            int count = 0;
+            while (true) {
+                if (count == target.length) {
+                    // probe before growing, so that a buffer pre-sized by Content-Length is not copied
+                    int next = stream.read();
+                    if (next == -1) {
+                        break;
+                    }
+                    if (count >= maxResponseBytes) {
+                        throw tooLarge(maxResponseBytes);
+                    }
+                    target = Arrays.copyOf(target, (int) Math.min(2L * target.length, maxResponseBytes));
+                    target[count++] = (byte) next;
+                }
+                int read = stream.read(target, count, target.length - count);
+                if (read == -1) {
+                    break;
+                }
+                count += read;
+                if (count > maxResponseBytes) {
+                    throw tooLarge(maxResponseBytes);
+                }
+            }
+            if (target.length <= MAX_POOLED_BUFFER_BYTES) {
+                pooled = target;
+            }
+            length = count;
+            return target;
+        }
+    }
+}
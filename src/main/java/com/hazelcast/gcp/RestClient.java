@@ -15,14 +15,20 @@
 
 package com.hazelcast.gcp;
 
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonValue;
+
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,9 +40,31 @@ final class RestClient {
 
     private static final int HTTP_OK = 200;
 
+    private static final BodyReader<String> STRING_BODY = new BodyReader<String>() {
+        @Override
+        public String read(InputStream stream, long contentLength, int maxResponseBytes)
+                throws IOException {
+            return ResponseReader.readString(stream, contentLength, maxResponseBytes);
+        }
+    };
+
+    private static final BodyReader<byte[]> BYTES_BODY = new BodyReader<byte[]>() {
+        @Override
+        public byte[] read(InputStream stream, long contentLength, int maxResponseBytes)
+                throws IOException {
+            return ResponseReader.readBytes(stream, contentLength, maxResponseBytes);
+        }
+    };
+
     private final String url;
     private final Map<String, String> headers = new LinkedHashMap<String, String>();
+    private final Map<String, String> responseHeaders = new LinkedHashMap<String, String>();
     private String body;
+    private int connectTimeoutMs;
+    private int readTimeoutMs;
+    private AdaptiveTimeout adaptiveTimeout;
+    private int maxResponseBytes = ResponseReader.DEFAULT_MAX_RESPONSE_BYTES;
+    private AbortSignal abortSignal;
 
     private RestClient(String url) {
         this.url = url;
@@ -56,21 +84,90 @@ final class RestClient {
         return this;
     }
 
+    /**
+     * Sets the connect timeout; {@code 0} (default) means no timeout.
+     */
+    RestClient withConnectTimeoutMs(int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        return this;
+    }
+
+    /**
+     * Sets the read timeout; {@code 0} (default) means no timeout.
+     */
+    RestClient withReadTimeoutMs(int readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+        return this;
+    }
+
+    /**
+     * Sets both the connect and read timeout to the current value of {@code adaptiveTimeout} and reports the latency
+     * of the successful call back to it.
+     */
+    RestClient withTimeout(AdaptiveTimeout adaptiveTimeout) {
+        this.adaptiveTimeout = adaptiveTimeout;
+        int timeoutMs = adaptiveTimeout.timeoutMs();
+        this.connectTimeoutMs = timeoutMs;
+        this.readTimeoutMs = timeoutMs;
+        return this;
+    }
+
+    /**
+     * Sets the maximum accepted size of the response body; larger responses fail with {@link RestClientException}.
+     */
+    RestClient withMaxResponseBytes(int maxResponseBytes) {
+        this.maxResponseBytes = maxResponseBytes;
+        return this;
+    }
+
+    /**
+     * Makes the call abortable by {@code abortSignal} from another thread.
+     */
+    RestClient withAbortSignal(AbortSignal abortSignal) {
+        this.abortSignal = abortSignal;
+        return this;
+    }
+
+    /**
+     * Captures the value of the response header {@code name}, which is then available by {@link #responseHeader(String)}.
+     */
+    RestClient withResponseHeader(String name) {
+        responseHeaders.put(name, null);
+        return this;
+    }
+
+    /**
+     * Returns the value of the response header captured by the last call, or {@code null} if it was absent.
+     */
+    String responseHeader(String name) {
+        return responseHeaders.get(name);
+    }
+
     String get() {
-        return call("GET");
+        return call("GET", STRING_BODY);
+    }
+
+    /**
+     * Like {@link #get()}, but returns the undecoded response body, e.g. for the parsers working on raw bytes.
+     */
+    byte[] getBytes() {
+        return call("GET", BYTES_BODY);
     }
 
     String post() {
-        return call("POST");
+        return call("POST", STRING_BODY);
     }
 
-    private String call(String method) {
+    private <T> T call(String method, BodyReader<T> bodyReader) {
         HttpURLConnection connection = null;
         DataOutputStream outputStream = null;
+        long startTimeMs = System.currentTimeMillis();
         try {
             URL urlToConnect = new URL(url);
             connection = (HttpURLConnection) urlToConnect.openConnection();
             connection.setRequestMethod(method);
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
             for (Map.Entry<String, String> header : headers.entrySet()) {
                 connection.setRequestProperty(header.getKey(), header.getValue());
             }
@@ -86,8 +183,19 @@ final class RestClient {
                 outputStream.flush();
             }
 
+            if (abortSignal != null) {
+                connection.connect();
+                abortSignal.register(connection);
+            }
             checkHttpOk(method, connection);
-            return read(connection.getInputStream());
+            for (Map.Entry<String, String> header : responseHeaders.entrySet()) {
+                header.setValue(connection.getHeaderField(header.getKey()));
+            }
+            T response = read(connection.getInputStream(), connection.getContentLengthLong(), bodyReader);
+            if (adaptiveTimeout != null) {
+                adaptiveTimeout.recordLatencyMs(System.currentTimeMillis() - startTimeMs);
+            }
+            return response;
         } catch (RestClientException e) {
             throw e;
         } catch (Exception e) {
@@ -106,31 +214,89 @@ final class RestClient {
         }
     }
 
-    private static String read(InputStream stream) {
-        if (stream == null) {
-            return "";
+    private <T> T read(InputStream stream, long contentLength, BodyReader<T> bodyReader)
+            throws IOException {
+        try {
+            return bodyReader.read(stream, contentLength, maxResponseBytes);
+        } finally {
+            if (stream != null) {
+                stream.close();
+            }
         }
-        Scanner scanner = new Scanner(stream, "UTF-8");
-        scanner.useDelimiter("\\Z");
-        return scanner.next();
     }
 
     private void checkHttpOk(String method, HttpURLConnection connection)
             throws IOException {
-        if (connection.getResponseCode() != HTTP_OK) {
+        int responseCode = connection.getResponseCode();
+        if (responseCode != HTTP_OK) {
+            long retryAfterMs = parseRetryAfterMs(connection.getHeaderField("Retry-After"), System.currentTimeMillis());
             String errorMessage;
             try {
-                errorMessage = read(connection.getErrorStream());
+                errorMessage = read(connection.getErrorStream(), connection.getContentLengthLong(), STRING_BODY);
             } catch (Exception e) {
-                throw new RestClientException(
-                        String.format("Failure executing: %s at: %s", method, url), connection.getResponseCode());
+                throw new RestClientException(String.format("Failure executing: %s at: %s", method, url), responseCode,
+                        null, retryAfterMs);
             }
             throw new RestClientException(String.format("Failure executing: %s at: %s. Message: %s", method, url, errorMessage),
-                    connection.getResponseCode());
+                    responseCode, errorReason(errorMessage), retryAfterMs);
+        }
+    }
+
+    /**
+     * Parses the {@code Retry-After} header, which is either a number of seconds or an HTTP date.
+     *
+     * @return the delay in milliseconds or {@code -1} if the header is absent or invalid
+     */
+    static long parseRetryAfterMs(String retryAfter, long nowMs) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            try {
+                long retryAtMs = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return Math.max(0, retryAtMs - nowMs);
+            } catch (DateTimeParseException e2) {
+                LOGGER.log(Level.FINEST, String.format("Invalid Retry-After header '%s'", value), e2);
+                return -1;
+            }
+        }
+    }
 
+    /**
+     * Extracts the reason of a Google API error response, e.g.
+     * <code>{"error": {"errors": [{"reason": "rateLimitExceeded"}], "status": "PERMISSION_DENIED"}}</code>, falling
+     * back to the status if there is no reason.
+     *
+     * @return the reason or {@code null} if the response is not a Google API error
+     */
+    static String errorReason(String errorMessage) {
+        try {
+            JsonValue error = Json.parse(errorMessage).asObject().get("error");
+            if (error == null || !error.isObject()) {
+                return null;
+            }
+            JsonValue errors = error.asObject().get("errors");
+            if (errors != null && errors.isArray() && !errors.asArray().isEmpty()
+                    && errors.asArray().get(0).isObject()) {
+                String reason = errors.asArray().get(0).asObject().getString("reason", null);
+                if (reason != null) {
+                    return reason;
+                }
+            }
+            return error.asObject().getString("status", null);
+        } catch (RuntimeException e) {
+            return null;
         }
     }
 
+    private interface BodyReader<T> {
+        T read(InputStream stream, long contentLength, int maxResponseBytes)
+                throws IOException;
+    }
+
     private static final class Header {
         private final String key;
         private final String value;
@@ -15,23 +15,97 @@
 
 package com.hazelcast.gcp;
 
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
 /**
  * Exception to indicate any issues while executing a REST call.
+ * <p>
+ * Carries the HTTP status, the error reason reported by the Google API (if any) and the server-supplied
+ * {@code Retry-After} delay, so that {@link RetryUtils} can classify the failure without parsing the message.
  */
 class RestClientException
         extends RuntimeException {
-    private int httpErrorCode;
+    private static final int HTTP_REQUEST_TIMEOUT = 408;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+    private static final List<String> RATE_LIMIT_REASONS = asList("rateLimitExceeded", "userRateLimitExceeded",
+            "RESOURCE_EXHAUSTED");
+
+    private final int httpErrorCode;
+    private final String reason;
+    private final long retryAfterMs;
+    private final boolean permanent;
 
     RestClientException(String message, int httpErrorCode) {
+        this(message, httpErrorCode, null, -1);
+    }
+
+    /**
+     * @param reason       error reason from the response body, e.g. "rateLimitExceeded", or {@code null}
+     * @param retryAfterMs delay requested by the {@code Retry-After} header or {@code -1} if not present
+     */
+    RestClientException(String message, int httpErrorCode, String reason, long retryAfterMs) {
         super(String.format("%s. HTTP Error Code: %s", message, httpErrorCode));
         this.httpErrorCode = httpErrorCode;
+        this.reason = reason;
+        this.retryAfterMs = retryAfterMs;
+        this.permanent = false;
     }
 
+    /**
+     * Creates an exception for a failure without an HTTP response, e.g. a connection failure or timeout.
+     */
     RestClientException(String message, Throwable cause) {
+        this(message, cause, false);
+    }
+
+    private RestClientException(String message, Throwable cause, boolean permanent) {
         super(message, cause);
+        this.httpErrorCode = 0;
+        this.reason = null;
+        this.retryAfterMs = -1;
+        this.permanent = permanent;
+    }
+
+    /**
+     * Creates an exception for a failure which does not go away by retrying, e.g. a response exceeding the size limit.
+     */
+    static RestClientException permanent(String message) {
+        return new RestClientException(message, null, true);
     }
 
     int getHttpErrorCode() {
         return httpErrorCode;
     }
+
+    String getReason() {
+        return reason;
+    }
+
+    /**
+     * Returns the delay requested by the server or {@code -1} if not present.
+     */
+    long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    /**
+     * Returns {@code true} if the API is throttling the calls (HTTP 429 or a rate limit reason of HTTP 403).
+     */
+    boolean isThrottled() {
+        return httpErrorCode == HTTP_TOO_MANY_REQUESTS || RATE_LIMIT_REASONS.contains(reason);
+    }
+
+    /**
+     * Returns {@code true} if the call may succeed when repeated: failures without a response, request timeouts,
+     * throttling and server errors. Other client errors (e.g. 401, 403, 404) are permanent.
+     */
+    boolean isRetryable() {
+        if (httpErrorCode == 0) {
+            return !permanent;
+        }
+        return httpErrorCode == HTTP_REQUEST_TIMEOUT || httpErrorCode >= HTTP_SERVER_ERROR || isThrottled();
+    }
 }
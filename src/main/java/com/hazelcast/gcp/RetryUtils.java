@@ -40,6 +40,11 @@ final class RetryUtils {
     /**
      * Calls {@code callable.call()} until it does not throw an exception (but no more than {@code retries} times).
      * <p>
+     * Failures of REST calls are classified by {@link RestClientException#isRetryable()}: permanent client errors
+     * (e.g. HTTP 401, 403, 404) are not retried, while throttling and server errors are retried, waiting at least as
+     * long as requested by the {@code Retry-After} header. Other failures are retried unless their message contains
+     * one of {@code nonRetryableKeywords}.
+     * <p>
      * Note that {@code callable} should be an idempotent operation.
      * <p>
      * If {@code callable} throws an unchecked exception, it is wrapped into {@link HazelcastException}.
@@ -51,10 +56,12 @@ final class RetryUtils {
                 return callable.call();
             } catch (Exception e) {
                 retryCount++;
-                if (retryCount > retries || containsAnyOf(e, nonRetryableKeywords)) {
+                RestClientException restClientException = restClientExceptionOf(e);
+                if (retryCount > retries || containsAnyOf(e, nonRetryableKeywords)
+                        || (restClientException != null && !restClientException.isRetryable())) {
                     throw unchecked(e);
                 }
-                long waitIntervalMs = backoffIntervalForRetry(retryCount);
+                long waitIntervalMs = waitIntervalMs(retryCount, restClientException);
                 LOGGER.warning(String.format("Couldn't connect to the service, [%s] retrying in %s seconds...", retryCount,
                         waitIntervalMs / MS_IN_SECOND));
                 sleep(waitIntervalMs);
@@ -80,6 +87,31 @@ final class RetryUtils {
         return false;
     }
 
+    /**
+     * Returns {@code e} or its first cause which is a {@link RestClientException}, or {@code null} if there is none.
+     */
+    static RestClientException restClientExceptionOf(Exception e) {
+        Throwable currentException = e;
+        while (currentException != null) {
+            if (currentException instanceof RestClientException) {
+                return (RestClientException) currentException;
+            }
+            currentException = currentException.getCause();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the exponential backoff, extended to the server-supplied delay if it is longer.
+     */
+    static long waitIntervalMs(int retryCount, RestClientException e) {
+        long result = backoffIntervalForRetry(retryCount);
+        if (e != null && e.getRetryAfterMs() > result) {
+            result = Math.min(e.getRetryAfterMs(), MAX_BACKOFF_MS);
+        }
+        return result;
+    }
+
     private static long backoffIntervalForRetry(int retryCount) {
         long result = INITIAL_BACKOFF_MS;
         for (int i = 1; i < retryCount; i++) {
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.internal.util.UuidUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Selects a bounded subset of the discovered instances as the seeds which a member tries to join, so that the join
+ * fan-out on very large fleets depends on the configured seed count instead of the number of instances.
+ * <p>
+ * The {@link #OLDEST_SEEDS} oldest instances are selected by every member, so that all members share common seeds and
+ * converge to a single cluster. The remaining seeds are taken round-robin across the zones and, within a zone, by
+ * rendezvous hashing of the local key with the private address, so that different members join through different
+ * instances while each member keeps the same seeds as long as the instances do not change.
+ */
+final class SeedSelector {
+    /**
+     * Number of the oldest instances which are always selected.
+     */
+    static final int OLDEST_SEEDS = 3;
+
+    private static final long MIX_MULTIPLIER_1 = 0xbf58476d1ce4e5b9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94d049bb133111ebL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private static final long INT_MASK = 0xffffffffL;
+
+    /**
+     * Orders by the creation time (unknown last) and then by the private address, so that all members agree on the order.
+     */
+    private static final Comparator<GcpAddress> OLDEST_FIRST = new Comparator<GcpAddress>() {
+        @Override
+        public int compare(GcpAddress o1, GcpAddress o2) {
+            int result = Long.compare(creationTimeOrMax(o1), creationTimeOrMax(o2));
+            return result != 0 ? result : o1.getPrivateAddress().compareTo(o2.getPrivateAddress());
+        }
+    };
+
+    private static final Comparator<Candidate> HIGHEST_SCORE_FIRST = new Comparator<Candidate>() {
+        @Override
+        public int compare(Candidate o1, Candidate o2) {
+            int result = Long.compare(o2.score, o1.score);
+            return result != 0 ? result : o1.address.getPrivateAddress().compareTo(o2.address.getPrivateAddress());
+        }
+    };
+
+    private final int seedCount;
+    /**
+     * Used instead of the local GCP instance id if it is not known, e.g. for Hazelcast Client.
+     */
+    private final String randomKey = UuidUtil.newUnsecureUuidString();
+
+    /**
+     * @param seedCount the maximum number of the selected instances or 0 to select all instances
+     */
+    SeedSelector(int seedCount) {
+        this.seedCount = seedCount;
+    }
+
+    /**
+     * Returns at most {@code seedCount} of the {@code addresses}, the selection of which depends on {@code localKey}
+     * (the local GCP instance id or {@code null} if unknown).
+     */
+    List<GcpAddress> select(List<GcpAddress> addresses, String localKey) {
+        if (seedCount <= 0 || addresses.size() <= seedCount) {
+            return addresses;
+        }
+        String key = localKey != null ? localKey : randomKey;
+        List<GcpAddress> candidates = new ArrayList<GcpAddress>(addresses);
+        Collections.sort(candidates, OLDEST_FIRST);
+        int oldestSeeds = Math.min(OLDEST_SEEDS, seedCount);
+        List<GcpAddress> result = new ArrayList<GcpAddress>(candidates.subList(0, oldestSeeds));
+
+        List<Iterator<GcpAddress>> zones = rankedByZone(candidates.subList(oldestSeeds, candidates.size()), key);
+        int zone = Math.floorMod(key.hashCode(), zones.size());
+        while (result.size() < seedCount) {
+            Iterator<GcpAddress> ranked = zones.get(zone);
+            if (ranked.hasNext()) {
+                result.add(ranked.next());
+            }
+            zone = (zone + 1) % zones.size();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the iterators over the instances of each zone, ordered by the descending rendezvous score.
+     */
+    private static List<Iterator<GcpAddress>> rankedByZone(List<GcpAddress> addresses, String localKey) {
+        Map<String, List<Candidate>> byZone = new TreeMap<String, List<Candidate>>();
+        for (GcpAddress address : addresses) {
+            String zone = address.getZone() == null ? "" : address.getZone();
+            List<Candidate> candidates = byZone.get(zone);
+            if (candidates == null) {
+                candidates = new ArrayList<Candidate>();
+                byZone.put(zone, candidates);
+            }
+            candidates.add(new Candidate(address, score(localKey, address.getPrivateAddress())));
+        }
+        List<Iterator<GcpAddress>> result = new ArrayList<Iterator<GcpAddress>>();
+        for (List<Candidate> candidates : byZone.values()) {
+            Collections.sort(candidates, HIGHEST_SCORE_FIRST);
+            List<GcpAddress> ranked = new ArrayList<GcpAddress>();
+            for (Candidate candidate : candidates) {
+                ranked.add(candidate.address);
+            }
+            result.add(ranked.iterator());
+        }
+        return result;
+    }
+
+    /**
+     * Rendezvous (highest random weight) score of the {@code address} for the {@code localKey}.
+     */
+    static long score(String localKey, String address) {
+        long hash = ((long) localKey.hashCode() << Integer.SIZE) | (address.hashCode() & INT_MASK);
+        hash = (hash ^ (hash >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        hash = (hash ^ (hash >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+        return hash ^ (hash >>> MIX_SHIFT_3);
+    }
+
+    private static long creationTimeOrMax(GcpAddress address) {
+        long creationTime = address.getCreationTime();
+        return creationTime == GcpAddress.UNKNOWN_CREATION_TIME ? Long.MAX_VALUE : creationTime;
+    }
+
+    private static final class Candidate {
+        private final GcpAddress address;
+        private final long score;
+
+        private Candidate(GcpAddress address, long score) {
+            this.address = address;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.instance.impl.HazelcastInstanceProxy;
+import com.hazelcast.internal.cluster.impl.ClusterServiceImpl;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GcpMembershipListener} which suspects the Hazelcast members running on GCP instances which were stopped
+ * (status {@code STOPPING}, {@code TERMINATED}, ...) or deleted, so that the cluster removes them without waiting for
+ * the heartbeat timeout.
+ * <p>
+ * An instance also disappears from the discovery result when it stops matching the configuration (e.g. its labels or
+ * the managed instance group change) while it is still running, so every removed instance is first confirmed to be not
+ * running with {@link InstanceStatusCheck}; an instance which cannot be confirmed (e.g. its zone is not known or
+ * cannot be listed) is never suspected. A failed zone keeps its last known instances (see
+ * {@link PerZoneInstanceSource}) and a failed discovery does not produce events, so API errors do not cause suspicions.
+ * <p>
+ * There is one suspector per {@link GcpClient}, shared by the strategies using it; the suspicion is raised only in the
+ * Hazelcast members registered with {@link #addLocalMember(Address)}, each of them once. While any member is
+ * registered, the suspector discovers the instances every {@code checkIntervalMs} and confirms the removed instances on
+ * its own thread, so that neither a discovery call nor the other membership listeners wait for the status check.
+ * <p>
+ * The suspicion uses the Hazelcast internals, which are not a public API; if they are not available (e.g. in another
+ * Hazelcast version), the suspector logs a warning and does nothing, leaving the failure detection to the heartbeats.
+ */
+class StoppedMemberSuspector
+        implements GcpMembershipListener {
+    private static final ILogger LOGGER = Logger.getLogger(GcpDiscoveryStrategy.class);
+
+    private final InstanceStatusCheck statusCheck;
+    private final Runnable discovery;
+    private final ClusterServices clusterServices;
+    private final long checkIntervalMs;
+    private final Set<Address> localMembers = new CopyOnWriteArraySet<Address>();
+
+    private ScheduledExecutorService executor;
+    private volatile boolean unsupported;
+
+    /**
+     * Discovers the instances with {@link GcpClient#getAddresses()} and confirms the status of the removed instances
+     * with {@link GcpClient#notRunningInstances(List)}.
+     */
+    StoppedMemberSuspector(final GcpClient gcpClient, long checkIntervalMs) {
+        this(new InstanceStatusCheck() {
+            @Override
+            public Set<String> notRunning(List<GcpMembershipEvent> removed) {
+                return gcpClient.notRunningInstances(removed);
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                gcpClient.getAddresses();
+            }
+        }, new LocalClusterServices(), checkIntervalMs);
+    }
+
+    /**
+     * For test purposes only.
+     */
+    StoppedMemberSuspector(InstanceStatusCheck statusCheck, Runnable discovery, ClusterServices clusterServices,
+                           long checkIntervalMs) {
+        this.statusCheck = statusCheck;
+        this.discovery = discovery;
+        this.clusterServices = clusterServices;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    /**
+     * Raises the suspicions in the Hazelcast member with the address {@code localMember}; the periodic discovery starts
+     * with the first registered member.
+     */
+    synchronized void addLocalMember(Address localMember) {
+        localMembers.add(localMember);
+        if (executor == null) {
+            executor = newExecutor();
+            if (checkIntervalMs > 0) {
+                executor.scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            discovery.run();
+                        } catch (Exception e) {
+                            LOGGER.fine("Cannot check the status of GCP instances", e);
+                        }
+                    }
+                }, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Stops raising the suspicions in the Hazelcast member with the address {@code localMember}; the periodic discovery
+     * stops with the last registered member.
+     */
+    synchronized void removeLocalMember(Address localMember) {
+        localMembers.remove(localMember);
+        if (localMembers.isEmpty() && executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void membershipChanged(List<GcpMembershipEvent> events) {
+        final List<GcpMembershipEvent> removed = new ArrayList<GcpMembershipEvent>();
+        for (GcpMembershipEvent event : events) {
+            if (event.getType() == GcpMembershipEvent.Type.REMOVED) {
+                removed.add(event);
+            }
+        }
+        ScheduledExecutorService currentExecutor = currentExecutor();
+        if (removed.isEmpty() || currentExecutor == null || unsupported) {
+            return;
+        }
+        try {
+            currentExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    check(removed);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the last local member was removed concurrently
+            LOGGER.finest(e);
+        }
+    }
+
+    private synchronized ScheduledExecutorService currentExecutor() {
+        return executor;
+    }
+
+    private void check(List<GcpMembershipEvent> removed) {
+        Set<String> stoppedAddresses;
+        try {
+            stoppedAddresses = statusCheck.notRunning(removed);
+        } catch (RuntimeException e) {
+            LOGGER.fine("Cannot confirm the status of the GCP instances which are no longer discovered", e);
+            return;
+        }
+        if (stoppedAddresses.isEmpty()) {
+            return;
+        }
+        try {
+            suspect(stoppedAddresses);
+        } catch (LinkageError e) {
+            disable(e);
+        } catch (ClassCastException e) {
+            disable(e);
+        }
+    }
+
+    private void suspect(Set<String> stoppedAddresses) {
+        for (Address localMember : localMembers) {
+            ClusterServiceImpl clusterService = clusterServices.get(localMember);
+            if (clusterService == null) {
+                continue;
+            }
+            for (Member member : clusterService.getMembers()) {
+                if (!member.localMember() && stoppedAddresses.contains(member.getAddress().getHost())) {
+                    LOGGER.info(String.format("GCP instance %s is no longer running, suspecting member %s",
+                            member.getAddress().getHost(), member));
+                    clusterService.suspectMember(member, "GCP instance is no longer running", true);
+                }
+            }
+        }
+    }
+
+    private void disable(Throwable cause) {
+        unsupported = true;
+        LOGGER.warning("Cannot suspect the members on stopped GCP instances with this Hazelcast version, "
+                + "they are removed by the heartbeat failure detection", cause);
+    }
+
+    private static ScheduledExecutorService newExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "hz.gcp.member-status");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Confirms the status of the instances which are no longer discovered.
+     */
+    interface InstanceStatusCheck {
+        /**
+         * Returns the private addresses of the {@code removed} instances which are confirmed to be not running or deleted.
+         */
+        Set<String> notRunning(List<GcpMembershipEvent> removed);
+    }
+
+    /**
+     * Provides the cluster service of a Hazelcast member running in this JVM.
+     */
+    interface ClusterServices {
+        /**
+         * Returns the cluster service of the running member with the address {@code localMember} or {@code null}.
+         */
+        ClusterServiceImpl get(Address localMember);
+    }
+
+    /**
+     * Finds the members in {@link Hazelcast#getAllHazelcastInstances()}; an instance which is not the
+     * {@link HazelcastInstanceProxy} of a member is skipped.
+     */
+    private static final class LocalClusterServices
+            implements ClusterServices {
+        @Override
+        public ClusterServiceImpl get(Address localMember) {
+            for (HazelcastInstance instance : Hazelcast.getAllHazelcastInstances()) {
+                if (instance instanceof HazelcastInstanceProxy && instance.getLifecycleService().isRunning()
+                        && localMember.equals(instance.getCluster().getLocalMember().getAddress())) {
+                    return ((HazelcastInstanceProxy) instance).getOriginal().node.getClusterService();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bounds and the latency factor of {@link AdaptiveTimeout}.
+ */
+final class TimeoutPolicy {
+    static final float DEFAULT_LATENCY_FACTOR = 3.0f;
+
+    private static final Pattern TIMEOUT_RANGE_REGEX = Pattern.compile("^(\\d+)-(\\d+)$");
+
+    private final int minTimeoutMs;
+    private final int maxTimeoutMs;
+    private final float latencyFactor;
+
+    TimeoutPolicy(int minTimeoutMs, int maxTimeoutMs, float latencyFactor) {
+        if (minTimeoutMs <= 0 || minTimeoutMs > maxTimeoutMs) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid timeout range: %s-%s ms", minTimeoutMs, maxTimeoutMs));
+        }
+        if (latencyFactor < 1.0f) {
+            throw new IllegalArgumentException(String.format("Timeout latency factor (%s) must be at least 1", latencyFactor));
+        }
+        this.minTimeoutMs = minTimeoutMs;
+        this.maxTimeoutMs = maxTimeoutMs;
+        this.latencyFactor = latencyFactor;
+    }
+
+    /**
+     * Creates {@link TimeoutPolicy} from the {@code spec} String.
+     *
+     * @param spec          timeout range in milliseconds (e.g. "1000-10000")
+     * @param latencyFactor multiplier applied to the observed p99 latency
+     * @throws IllegalArgumentException if the specified spec is not a valid timeout range
+     */
+    static TimeoutPolicy parse(String spec, float latencyFactor) {
+        Matcher matcher = TIMEOUT_RANGE_REGEX.matcher(spec.trim());
+        if (!matcher.find()) {
+            throw new IllegalArgumentException(String.format("Invalid timeout range specification: '%s'", spec));
+        }
+        return new TimeoutPolicy(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), latencyFactor);
+    }
+
+    /**
+     * Creates {@link TimeoutPolicy} from the default value of the timeout range {@code property}.
+     */
+    static TimeoutPolicy defaultFor(GcpProperties property) {
+        return parse((String) property.getDefaultValue(), DEFAULT_LATENCY_FACTOR);
+    }
+
+    int getMinTimeoutMs() {
+        return minTimeoutMs;
+    }
+
+    int getMaxTimeoutMs() {
+        return maxTimeoutMs;
+    }
+
+    float getLatencyFactor() {
+        return latencyFactor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s-%s ms (x%s)", minTimeoutMs, maxTimeoutMs, latencyFactor);
+    }
+}
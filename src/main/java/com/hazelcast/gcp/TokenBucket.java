@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.core.HazelcastException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket which allows {@code permitsPerSecond} on average with bursts of up to {@code burst} permits.
+ * <p>
+ * A caller which finds the bucket empty reserves the next permit in advance and waits for it, so concurrent callers
+ * are queued fairly instead of polling.
+ */
+final class TokenBucket {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    TokenBucket(double permitsPerSecond, double burst, long nowNanos) {
+        this.permitsPerNano = permitsPerSecond / NANOS_PER_SECOND;
+        this.burst = burst;
+        this.storedPermits = burst;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Blocks until a permit is available.
+     */
+    void acquire() {
+        long waitNanos = reserve(System.nanoTime());
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HazelcastException("Interrupted while waiting for the GCP API rate limit", e);
+            }
+        }
+    }
+
+    /**
+     * Takes a permit and returns the time in nanoseconds until it becomes available ({@code 0} if immediately).
+     */
+    synchronized long reserve(long nowNanos) {
+        if (nowNanos > lastRefillNanos) {
+            storedPermits = Math.min(burst, storedPermits + (nowNanos - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = nowNanos;
+        }
+        storedPermits -= 1;
+        if (storedPermits >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-storedPermits / permitsPerNano);
+    }
+}
@@ -15,6 +15,12 @@
 
 package com.hazelcast.gcp;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.List;
 
@@ -34,8 +40,48 @@ final class Utils {
         return asList(string.trim().split("\\s*,\\s*"));
     }
 
+    static String joinByComma(List<String> strings) {
+        StringBuilder result = new StringBuilder();
+        for (String string : strings) {
+            if (result.length() > 0) {
+                result.append(',');
+            }
+            result.append(string);
+        }
+        return result.toString();
+    }
+
     static String lastPartOf(String string, String separator) {
         String[] parts = string.split(separator);
         return parts[parts.length - 1];
     }
+
+    /**
+     * Writes {@code data} into a temporary file and renames it to {@code file}, so that readers never see a partially
+     * written file.
+     */
+    static void writeAtomically(File file, byte[] data)
+            throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(String.format("Cannot create directory '%s'", directory));
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            FileOutputStream os = new FileOutputStream(temp);
+            try {
+                os.write(data);
+                os.getFD().sync();
+            } finally {
+                os.close();
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
 }
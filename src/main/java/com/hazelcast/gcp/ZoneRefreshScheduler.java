@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decides which units (projects or zones) of {@link PerZoneInstanceSource} are listed again in a discovery round.
+ * <p>
+ * Each unit has its own refresh interval: a listing which found a change resets it to zero, so that a churning zone is
+ * listed in every round, while each listing without a change doubles it (starting at {@link #MIN_INTERVAL_MS}) up to
+ * {@code maxStalenessMs}, so that a static zone is listed at most once per {@code maxStalenessMs}. Failed and new units
+ * are always due. If {@code maxStalenessMs} is 0, then every unit is listed in every round.
+ */
+final class ZoneRefreshScheduler {
+    static final long MIN_INTERVAL_MS = 1000L;
+
+    private final long maxStalenessMs;
+    private final Clock clock;
+    private final Map<String, UnitState> states = new LinkedHashMap<String, UnitState>();
+
+    ZoneRefreshScheduler(long maxStalenessMs, Clock clock) {
+        this.maxStalenessMs = maxStalenessMs;
+        this.clock = clock;
+    }
+
+    long nowMs() {
+        return clock.millis();
+    }
+
+    /**
+     * Returns {@code true} if {@code unit} must be listed; otherwise records that its last known instances were reused.
+     */
+    synchronized boolean isDue(String unit, long nowMs) {
+        UnitState state = states.get(unit);
+        if (maxStalenessMs <= 0 || state == null || nowMs - state.lastRefreshMs >= state.intervalMs) {
+            return true;
+        }
+        state.skips++;
+        return false;
+    }
+
+    synchronized void refreshed(String unit, boolean changed, long nowMs) {
+        UnitState state = stateOf(unit);
+        state.refreshes++;
+        if (changed) {
+            state.changes++;
+            state.intervalMs = 0;
+        } else {
+            state.intervalMs = Math.min(Math.max(state.intervalMs * 2, MIN_INTERVAL_MS), maxStalenessMs);
+        }
+        state.lastRefreshMs = nowMs;
+    }
+
+    synchronized void failed(String unit) {
+        UnitState state = stateOf(unit);
+        state.failures++;
+        state.intervalMs = 0;
+    }
+
+    /**
+     * Returns the metrics of all units seen so far, in the order in which they were first listed.
+     */
+    synchronized Map<String, GcpZoneRefreshMetrics> metrics() {
+        long nowMs = clock.millis();
+        Map<String, GcpZoneRefreshMetrics> result = new LinkedHashMap<String, GcpZoneRefreshMetrics>();
+        for (Map.Entry<String, UnitState> entry : states.entrySet()) {
+            UnitState state = entry.getValue();
+            long stalenessMs = state.lastRefreshMs < 0 ? -1 : nowMs - state.lastRefreshMs;
+            result.put(entry.getKey(), new GcpZoneRefreshMetrics(state.refreshes, state.skips, state.changes, state.failures,
+                    state.intervalMs, stalenessMs));
+        }
+        return result;
+    }
+
+    private UnitState stateOf(String unit) {
+        UnitState state = states.get(unit);
+        if (state == null) {
+            state = new UnitState();
+            states.put(unit, state);
+        }
+        return state;
+    }
+
+    private static final class UnitState {
+        private long refreshes;
+        private long skips;
+        private long changes;
+        private long failures;
+        private long intervalMs;
+        private long lastRefreshMs = -1;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link InstanceSource} which lists the instances in each project and zone with the Compute API instances.list call.
+ */
+final class ZoneScanInstanceSource
+        implements InstanceSource {
+    private static final ILogger LOGGER = Logger.getLogger(ZoneScanInstanceSource.class);
+
+    private final GcpComputeApi gcpComputeApi;
+    private final Filter filter;
+
+    ZoneScanInstanceSource(GcpComputeApi gcpComputeApi, Filter filter) {
+        this.gcpComputeApi = gcpComputeApi;
+        this.filter = filter;
+    }
+
+    @Override
+    public List<GcpAddress> instances(List<String> projects, List<String> zones, AccessTokenSupplier accessToken) {
+        List<GcpAddress> result = new ArrayList<GcpAddress>();
+        for (String project : projects) {
+            for (String zone : zones) {
+                LOGGER.finest(String.format("Fetching instances for project '%s' and zone '%s'", project, zone));
+                List<GcpAddress> addresses = gcpComputeApi.instances(project, zone, filter, accessToken.get());
+                LOGGER.finest(String.format("Found the following instances for project '%s' and zone '%s': %s", project, zone,
+                        addresses));
+                result.addAll(addresses);
+            }
+        }
+        return result;
+    }
+}
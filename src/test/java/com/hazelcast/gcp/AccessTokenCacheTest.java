@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AccessTokenCacheTest {
+    private static final String PRIVATE_KEY_PATH = "/sample/filesystem/path";
+    private static final long EXPIRES_IN_MS = 3600000L;
+
+    private GcpMetadataApi gcpMetadataApi;
+    private GcpAuthenticator gcpAuthenticator;
+    private ManualClock clock;
+
+    @Before
+    public void setUp() {
+        gcpMetadataApi = mock(GcpMetadataApi.class);
+        gcpAuthenticator = mock(GcpAuthenticator.class);
+        when(gcpMetadataApi.accessToken()).thenReturn(new AccessToken("token-1", EXPIRES_IN_MS),
+                new AccessToken("token-2", EXPIRES_IN_MS));
+        when(gcpAuthenticator.refreshAccessToken(PRIVATE_KEY_PATH)).thenReturn(new AccessToken("key-token", EXPIRES_IN_MS));
+        clock = new ManualClock();
+    }
+
+    @Test
+    public void getReusesTokenBeforeExpiryMargin() {
+        // given
+        AccessTokenCache cache = new AccessTokenCache(gcpMetadataApi, gcpAuthenticator, null, clock);
+        cache.get();
+        clock.advance(EXPIRES_IN_MS - AccessTokenCache.EXPIRY_MARGIN_MS - 1);
+
+        // when
+        String result = cache.get();
+
+        // then
+        assertEquals("token-1", result);
+        verify(gcpMetadataApi, times(1)).accessToken();
+    }
+
+    @Test
+    public void getFetchesNewTokenWithinExpiryMargin() {
+        // given
+        AccessTokenCache cache = new AccessTokenCache(gcpMetadataApi, gcpAuthenticator, null, clock);
+        cache.get();
+        clock.advance(EXPIRES_IN_MS - AccessTokenCache.EXPIRY_MARGIN_MS);
+
+        // when
+        String result = cache.get();
+
+        // then
+        assertEquals("token-2", result);
+    }
+
+    @Test
+    public void getWithPrivateKeyPath() {
+        // given
+        AccessTokenCache cache = new AccessTokenCache(gcpMetadataApi, gcpAuthenticator, PRIVATE_KEY_PATH, clock);
+
+        // when
+        String result1 = cache.get();
+        String result2 = cache.get();
+
+        // then
+        assertEquals("key-token", result1);
+        assertEquals("key-token", result2);
+        verify(gcpAuthenticator, times(1)).refreshAccessToken(PRIVATE_KEY_PATH);
+        verify(gcpMetadataApi, never()).accessToken();
+    }
+
+    @Test
+    public void getTokenWithoutExpiry() {
+        // given
+        when(gcpMetadataApi.accessToken()).thenReturn(new AccessToken("token-1", 0L), new AccessToken("token-2", 0L));
+        AccessTokenCache cache = new AccessTokenCache(gcpMetadataApi, gcpAuthenticator, null, clock);
+        cache.get();
+
+        // when
+        String result = cache.get();
+
+        // then
+        assertEquals("token-2", result);
+    }
+
+    @Test
+    public void invalidate() {
+        // given
+        AccessTokenCache cache = new AccessTokenCache(gcpMetadataApi, gcpAuthenticator, null, clock);
+        cache.get();
+
+        // when
+        cache.invalidate("token-1");
+        String result = cache.get();
+
+        // then
+        assertEquals("token-2", result);
+    }
+
+    @Test
+    public void invalidateOtherToken() {
+        // given
+        AccessTokenCache cache = new AccessTokenCache(gcpMetadataApi, gcpAuthenticator, null, clock);
+        cache.get();
+
+        // when
+        cache.invalidate("token-0");
+        String result = cache.get();
+
+        // then
+        assertEquals("token-1", result);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveTimeoutTest {
+
+    @Test
+    public void maxTimeoutWithoutEnoughSamples() {
+        // given
+        AdaptiveTimeout timeout = new AdaptiveTimeout(new TimeoutPolicy(100, 5000, 3.0f));
+        for (int i = 0; i < AdaptiveTimeout.MIN_SAMPLES - 1; i++) {
+            timeout.recordLatencyMs(10);
+        }
+
+        // when
+        int result = timeout.timeoutMs();
+
+        // then
+        assertEquals(5000, result);
+    }
+
+    @Test
+    public void timeoutAdaptsToP99Latency() {
+        // given
+        AdaptiveTimeout timeout = new AdaptiveTimeout(new TimeoutPolicy(100, 5000, 3.0f));
+        for (int i = 0; i < 99; i++) {
+            timeout.recordLatencyMs(100);
+        }
+        timeout.recordLatencyMs(400);
+
+        // when
+        int result = timeout.timeoutMs();
+
+        // then
+        assertEquals(300, result);
+    }
+
+    @Test
+    public void timeoutBoundedByMin() {
+        // given
+        AdaptiveTimeout timeout = new AdaptiveTimeout(new TimeoutPolicy(100, 5000, 3.0f));
+        for (int i = 0; i < AdaptiveTimeout.MIN_SAMPLES; i++) {
+            timeout.recordLatencyMs(1);
+        }
+
+        // when
+        int result = timeout.timeoutMs();
+
+        // then
+        assertEquals(100, result);
+    }
+
+    @Test
+    public void timeoutBoundedByMax() {
+        // given
+        AdaptiveTimeout timeout = new AdaptiveTimeout(new TimeoutPolicy(100, 5000, 3.0f));
+        for (int i = 0; i < AdaptiveTimeout.MIN_SAMPLES; i++) {
+            timeout.recordLatencyMs(4000);
+        }
+
+        // when
+        int result = timeout.timeoutMs();
+
+        // then
+        assertEquals(5000, result);
+    }
+
+    @Test
+    public void oldSamplesAreEvicted() {
+        // given
+        AdaptiveTimeout timeout = new AdaptiveTimeout(new TimeoutPolicy(100, 5000, 3.0f));
+        for (int i = 0; i < 100; i++) {
+            timeout.recordLatencyMs(1000);
+        }
+        for (int i = 0; i < 100; i++) {
+            timeout.recordLatencyMs(200);
+        }
+
+        // when
+        int result = timeout.timeoutMs();
+
+        // then
+        assertEquals(600, result);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AddressSnapshotStoreTest {
+    private static final String KEY = "projects=[];zones=[];region=null;filter=null";
+    private static final long MAX_AGE_MS = 60000;
+    private static final List<GcpAddress> ADDRESSES = asList(new GcpAddress("10.240.0.2", "35.207.0.219"),
+            new GcpAddress("10.240.0.3", null, "us-east1-b", "default", "default-east"));
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ManualClock clock;
+    private AddressSnapshotStore store;
+
+    @Before
+    public void setUp() {
+        clock = new ManualClock();
+        store = new AddressSnapshotStore(temporaryFolder.getRoot(), KEY, MAX_AGE_MS, clock);
+    }
+
+    @Test
+    public void saveAndLoad() {
+        // given
+        store.save(ADDRESSES);
+
+        // when
+        List<GcpAddress> result = new AddressSnapshotStore(temporaryFolder.getRoot(), KEY, MAX_AGE_MS, clock).load();
+
+        // then
+        assertEquals(ADDRESSES, result);
+    }
+
+    @Test
+    public void saveAndLoadCreationTime() {
+        // given
+        store.save(asList(new GcpAddress("10.240.0.2", null, "us-east1-b", null, null, 1495119264521L),
+                new GcpAddress("10.240.0.3", null)));
+
+        // when
+        List<GcpAddress> result = new AddressSnapshotStore(temporaryFolder.getRoot(), KEY, MAX_AGE_MS, clock).load();
+
+        // then
+        assertEquals(1495119264521L, result.get(0).getCreationTime());
+        assertEquals(GcpAddress.UNKNOWN_CREATION_TIME, result.get(1).getCreationTime());
+    }
+
+    @Test
+    public void createdForChangedConfigurationDoesNotLoadPreviousSnapshot() {
+        // given
+        AddressSnapshotStore.create(config().build()).save(ADDRESSES);
+        List<GcpConfig> changedConfigs = asList(
+                config().setNetwork("data").build(),
+                config().setSubnetwork("data-east").build(),
+                config().setAddressFamily(AddressFamily.IPV6).build(),
+                config().setInstanceSource(InstanceSource.Type.AGGREGATED).build(),
+                config().setInstanceGroup("hz-mig").build());
+
+        // when & then
+        assertEquals(ADDRESSES, AddressSnapshotStore.create(config().build()).load());
+        for (GcpConfig changedConfig : changedConfigs) {
+            assertNull(AddressSnapshotStore.create(changedConfig).load());
+        }
+    }
+
+    @Test
+    public void loadSnapshotOfConfigurationWithSameHash() {
+        // given
+        // "Aa" and "BB" have the same hash code, so both stores use the same file
+        new AddressSnapshotStore(temporaryFolder.getRoot(), KEY + "Aa", MAX_AGE_MS, clock).save(ADDRESSES);
+
+        // when
+        List<GcpAddress> result = new AddressSnapshotStore(temporaryFolder.getRoot(), KEY + "BB", MAX_AGE_MS, clock).load();
+
+        // then
+        assertEquals(1, temporaryFolder.getRoot().listFiles().length);
+        assertNull(result);
+    }
+
+    @Test
+    public void loadSnapshotOlderThanMaxAge() {
+        // given
+        store.save(ADDRESSES);
+        clock.advance(MAX_AGE_MS);
+        List<GcpAddress> resultAtMaxAge = store.load();
+
+        // when
+        clock.advance(1);
+        List<GcpAddress> result = store.load();
+
+        // then
+        assertEquals(ADDRESSES, resultAtMaxAge);
+        assertNull(result);
+    }
+
+    @Test
+    public void loadOldSnapshotWithoutMaxAge() {
+        // given
+        new AddressSnapshotStore(temporaryFolder.getRoot(), KEY, 0, clock).save(ADDRESSES);
+        clock.advance(TimeUnit.DAYS.toMillis(365));
+
+        // when
+        List<GcpAddress> result = new AddressSnapshotStore(temporaryFolder.getRoot(), KEY, 0, clock).load();
+
+        // then
+        assertEquals(ADDRESSES, result);
+    }
+
+    @Test
+    public void loadMissingFile() {
+        // when
+        List<GcpAddress> result = store.load();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void loadCorruptedFile()
+            throws IOException {
+        // given
+        store.save(ADDRESSES);
+        File snapshotFile = temporaryFolder.getRoot().listFiles()[0];
+        String content = new String(Files.readAllBytes(snapshotFile.toPath()), StandardCharsets.UTF_8);
+        Files.write(snapshotFile.toPath(), content.replace("10.240.0.3", "10.240.0.4").getBytes(StandardCharsets.UTF_8));
+
+        // when
+        List<GcpAddress> result = store.load();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void loadUnsupportedVersion()
+            throws IOException {
+        // given
+        store.save(ADDRESSES);
+        File snapshotFile = temporaryFolder.getRoot().listFiles()[0];
+        String content = new String(Files.readAllBytes(snapshotFile.toPath()), StandardCharsets.UTF_8);
+        Files.write(snapshotFile.toPath(), content.replaceFirst("v2", "v0").getBytes(StandardCharsets.UTF_8));
+
+        // when
+        List<GcpAddress> result = store.load();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void saveOverwritesPreviousSnapshot() {
+        // given
+        store.save(ADDRESSES);
+
+        // when
+        store.save(ADDRESSES.subList(0, 1));
+
+        // then
+        assertEquals(ADDRESSES.subList(0, 1), store.load());
+        assertEquals(1, temporaryFolder.getRoot().listFiles().length);
+    }
+
+    private GcpConfig.Builder config() {
+        return GcpConfig.builder().setCacheDirectory(temporaryFolder.getRoot().getPath());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AddressSnapshotTest {
+    private static final List<GcpAddress> ADDRESSES = asList(
+            new GcpAddress("10.240.0.2", "35.207.0.219", "us-east1-b", "default", "default-east"),
+            new GcpAddress("10.240.0.3", null, "us-east1-b", "default", "default-east"),
+            new GcpAddress("fd20:a1b:c2d3:0:0:0:0:2", "2600:1900:4000:1a2b:0:0:0:0", "us-east1-c"),
+            new GcpAddress("hz-member-1.internal", "0.0.0.0"),
+            new GcpAddress("010.240.0.4", "255.255.255.255", null, "data", null));
+
+    @Test
+    public void roundTrip() {
+        // when
+        AddressSnapshot snapshot = AddressSnapshot.of(ADDRESSES);
+
+        // then
+        assertEquals(ADDRESSES.size(), snapshot.size());
+        assertEquals(ADDRESSES, new ArrayList<GcpAddress>(snapshot.asList()));
+    }
+
+    @Test
+    public void roundTripCreationTime() {
+        // given
+        List<GcpAddress> addresses = asList(new GcpAddress("10.240.0.2", null, null, null, null, 1495119264521L),
+                new GcpAddress("10.240.0.3", null));
+
+        // when
+        AddressSnapshot snapshot = AddressSnapshot.of(addresses);
+
+        // then
+        assertEquals(1495119264521L, snapshot.get(0).getCreationTime());
+        assertEquals(GcpAddress.UNKNOWN_CREATION_TIME, snapshot.get(1).getCreationTime());
+        assertEquals(GcpAddress.UNKNOWN_CREATION_TIME, AddressSnapshot.of(ADDRESSES).get(0).getCreationTime());
+    }
+
+    @Test
+    public void parseIpv4() {
+        assertEquals(0x0AF00002, AddressSnapshot.parseIpv4("10.240.0.2"));
+        assertEquals("10.240.0.2", AddressSnapshot.formatIpv4(0x0AF00002));
+        assertEquals("255.255.255.255", AddressSnapshot.formatIpv4(AddressSnapshot.parseIpv4("255.255.255.255")));
+        assertEquals(0, AddressSnapshot.parseIpv4("10.240.0"));
+        assertEquals(0, AddressSnapshot.parseIpv4("10.240.0.2.1"));
+        assertEquals(0, AddressSnapshot.parseIpv4("10.240.0.256"));
+        assertEquals(0, AddressSnapshot.parseIpv4("10.240..2"));
+        assertEquals(0, AddressSnapshot.parseIpv4("10.240.0.2."));
+        assertEquals(0, AddressSnapshot.parseIpv4("10.240.0.02"));
+        assertEquals(0, AddressSnapshot.parseIpv4("10.240.0.x"));
+        assertEquals(0, AddressSnapshot.parseIpv4(""));
+    }
+
+    @Test
+    public void indexOfSamePrivateAddress() {
+        // given
+        AddressSnapshot snapshot = AddressSnapshot.of(ADDRESSES);
+        AddressSnapshot other = AddressSnapshot.of(asList(
+                new GcpAddress("fd20:a1b:c2d3:0:0:0:0:2", null),
+                new GcpAddress("10.240.0.3", "35.207.0.220"),
+                new GcpAddress("10.240.0.9", null)));
+
+        // when & then
+        assertEquals(2, snapshot.indexOfSamePrivateAddress(other, 0));
+        assertEquals(1, snapshot.indexOfSamePrivateAddress(other, 1));
+        assertEquals(-1, snapshot.indexOfSamePrivateAddress(other, 2));
+        assertEquals(-1, AddressSnapshot.EMPTY.indexOfSamePrivateAddress(other, 0));
+        assertFalse(snapshot.sameInstance(1, other, 1));
+    }
+
+    @Test
+    public void indexOfSamePrivateAddressInLargeSnapshot() {
+        // given
+        List<GcpAddress> addresses = new ArrayList<GcpAddress>();
+        for (int i = 0; i < 20000; i++) {
+            addresses.add(new GcpAddress(AddressSnapshot.formatIpv4(0x0A000000 + i), null, "us-east1-" + (char) ('b' + i % 3)));
+        }
+        AddressSnapshot snapshot = AddressSnapshot.of(addresses);
+
+        // when & then
+        for (int i = 0; i < addresses.size(); i++) {
+            assertEquals(i, snapshot.indexOfSamePrivateAddress(snapshot, i));
+            assertTrue(snapshot.sameInstance(i, snapshot, i));
+        }
+    }
+
+    @Test
+    public void equality() {
+        // given
+        AddressSnapshot snapshot = AddressSnapshot.of(ADDRESSES);
+        AddressSnapshot same = AddressSnapshot.of(new ArrayList<GcpAddress>(ADDRESSES));
+        AddressSnapshot differentZone = AddressSnapshot.of(asList(ADDRESSES.get(0),
+                new GcpAddress("10.240.0.3", null, "us-east1-c", "default", "default-east"), ADDRESSES.get(2),
+                ADDRESSES.get(3), ADDRESSES.get(4)));
+
+        // when & then
+        assertEquals(snapshot, same);
+        assertEquals(snapshot.hashCode(), same.hashCode());
+        assertNotEquals(snapshot, differentZone);
+        assertNotEquals(snapshot, AddressSnapshot.EMPTY);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingInstanceSourceTest {
+    private static final long TTL_MS = 1000L;
+    private static final List<String> PROJECTS = singletonList("project-1");
+    private static final List<String> ZONES = asList("us-east1-b", "us-east1-c");
+    private static final List<GcpAddress> ADDRESSES = singletonList(new GcpAddress("10.240.0.2", "35.207.0.219"));
+
+    private InstanceSource delegate;
+    private ManualClock clock;
+    private CachingInstanceSource instanceSource;
+
+    @Before
+    public void setUp() {
+        delegate = mock(InstanceSource.class);
+        when(delegate.instances(PROJECTS, ZONES, null)).thenReturn(ADDRESSES);
+        clock = new ManualClock();
+        instanceSource = new CachingInstanceSource(delegate, TTL_MS, clock);
+    }
+
+    @Test
+    public void instancesWithinTtl() {
+        // given
+        instanceSource.instances(PROJECTS, ZONES, null);
+        clock.advance(TTL_MS - 1);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(PROJECTS, ZONES, null);
+
+        // then
+        assertEquals(ADDRESSES, result);
+        verify(delegate, times(1)).instances(PROJECTS, ZONES, null);
+    }
+
+    @Test
+    public void instancesAfterTtl() {
+        // given
+        instanceSource.instances(PROJECTS, ZONES, null);
+        clock.advance(TTL_MS);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(PROJECTS, ZONES, null);
+
+        // then
+        assertEquals(ADDRESSES, result);
+        verify(delegate, times(2)).instances(PROJECTS, ZONES, null);
+    }
+
+    @Test
+    public void instancesForChangedZones() {
+        // given
+        List<String> changedZones = singletonList("us-east1-b");
+        instanceSource.instances(PROJECTS, ZONES, null);
+
+        // when
+        instanceSource.instances(PROJECTS, changedZones, null);
+
+        // then
+        verify(delegate).instances(PROJECTS, changedZones, null);
+    }
+
+    @Test
+    public void instancesPartialResultNotCached() {
+        // given
+        List<GcpAddress> partialResult = new PartialResult(ADDRESSES, singletonList("project-1/us-east1-c"));
+        when(delegate.instances(PROJECTS, ZONES, null)).thenReturn(partialResult, ADDRESSES);
+        instanceSource.instances(PROJECTS, ZONES, null);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(PROJECTS, ZONES, null);
+
+        // then
+        assertEquals(ADDRESSES, result);
+        verify(delegate, times(2)).instances(PROJECTS, ZONES, null);
+    }
+
+    @Test
+    public void instancesWithoutTtlNotCached() {
+        // given
+        instanceSource = new CachingInstanceSource(delegate, 0L, clock);
+        instanceSource.instances(PROJECTS, ZONES, null);
+
+        // when
+        instanceSource.instances(PROJECTS, ZONES, null);
+
+        // then
+        verify(delegate, times(2)).instances(PROJECTS, ZONES, null);
+    }
+
+    @Test
+    public void instancesConcurrentCallsShareListing()
+            throws Exception {
+        // given
+        BlockingInstanceSource blockingDelegate = new BlockingInstanceSource();
+        instanceSource = new CachingInstanceSource(blockingDelegate, 0L, clock);
+        FutureTask<List<GcpAddress>> first = instancesTask();
+        start(first);
+        blockingDelegate.started.await();
+
+        // when
+        FutureTask<List<GcpAddress>> second = instancesTask();
+        awaitWaiting(start(second));
+        blockingDelegate.released.countDown();
+
+        // then
+        assertEquals(ADDRESSES, first.get());
+        assertSame(first.get(), second.get());
+        assertEquals(1, blockingDelegate.calls.get());
+    }
+
+    private FutureTask<List<GcpAddress>> instancesTask() {
+        return new FutureTask<List<GcpAddress>>(new Callable<List<GcpAddress>>() {
+            @Override
+            public List<GcpAddress> call() {
+                return instanceSource.instances(PROJECTS, ZONES, null);
+            }
+        });
+    }
+
+    private static Thread start(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Waits until {@code thread} waits for the listing started by another call.
+     */
+    private static void awaitWaiting(Thread thread)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1L);
+        }
+    }
+
+    private static final class BlockingInstanceSource
+            implements InstanceSource {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public List<GcpAddress> instances(List<String> projects, List<String> zones, AccessTokenSupplier accessToken) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return ADDRESSES;
+        }
+    }
+}
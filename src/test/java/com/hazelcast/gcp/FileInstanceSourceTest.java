@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class FileInstanceSourceTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void instances()
+            throws IOException {
+        // given
+        File file = temporaryFolder.newFile("instances.txt");
+        Files.write(file.toPath(), asList("# hazelcast members", "10.240.0.2", "", "10.240.0.3  35.207.0.219",
+                "10.240.0.4 35.207.0.220 us-east1-b"), StandardCharsets.UTF_8);
+
+        // when
+        List<GcpAddress> result = new FileInstanceSource(file).instances(Collections.<String>emptyList(), Collections.<String>emptyList(), null);
+
+        // then
+        assertEquals(asList(new GcpAddress("10.240.0.2", null), new GcpAddress("10.240.0.3", "35.207.0.219"),
+                new GcpAddress("10.240.0.4", "35.207.0.220", "us-east1-b")), result);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void instancesMissingFile() {
+        // given
+        File file = new File(temporaryFolder.getRoot(), "missing.txt");
+
+        // when
+        new FileInstanceSource(file).instances(Collections.<String>emptyList(), Collections.<String>emptyList(), null);
+
+        // then
+        // throws exception
+    }
+}
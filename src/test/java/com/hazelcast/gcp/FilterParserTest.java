@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FilterParserTest {
+    @Test
+    public void singleLabel() {
+        // given
+        String spec = "labels.application=hazelcast";
+
+        // when
+        Filter result = FilterParser.parse(spec);
+
+        // then
+        assertEquals("labels.application = \"hazelcast\"", result.toComputeFilter());
+    }
+
+    @Test
+    public void multipleLabelsWithAndOr() {
+        // given
+        String spec = "labels.application=hazelcast AND (labels.env=prod OR labels.env = \"staging\")";
+
+        // when
+        Filter result = FilterParser.parse(spec);
+
+        // then
+        assertEquals("(labels.application = \"hazelcast\") AND ((labels.env = \"prod\") OR (labels.env = \"staging\"))",
+                result.toComputeFilter());
+    }
+
+    @Test
+    public void implicitAnd() {
+        // given
+        String spec = "labels.application=hazelcast tags=hazelcast";
+
+        // when
+        Filter result = FilterParser.parse(spec);
+
+        // then
+        assertEquals("(labels.application = \"hazelcast\") AND (tags.items = \"hazelcast\")", result.toComputeFilter());
+    }
+
+    @Test
+    public void notEqual() {
+        // given
+        String spec = "labels.env!=dev";
+
+        // when
+        Filter result = FilterParser.parse(spec);
+
+        // then
+        assertEquals("labels.env != \"dev\"", result.toComputeFilter());
+    }
+
+    @Test
+    public void negationPushedDownToComparisons() {
+        // given
+        String spec = "NOT (labels.env=dev OR name!=hz-*)";
+
+        // when
+        Filter result = FilterParser.parse(spec);
+
+        // then
+        assertEquals("(labels.env != \"dev\") AND (name = \"hz-*\")", result.toComputeFilter());
+    }
+
+    @Test
+    public void doubleNegation() {
+        // given
+        String spec = "NOT NOT labels.env=dev";
+
+        // when
+        Filter result = FilterParser.parse(spec);
+
+        // then
+        assertEquals("labels.env = \"dev\"", result.toComputeFilter());
+    }
+
+    @Test
+    public void machineType() {
+        // given
+        String spec = "machineType=n2-standard-8";
+
+        // when
+        Filter result = FilterParser.parse(spec);
+
+        // then
+        assertEquals("machineType = \"*/machineTypes/n2-standard-8\"", result.toComputeFilter());
+    }
+
+    @Test
+    public void quotedValueWithEscapes() {
+        // given
+        String spec = "name=\"hz \\\"member\\\"\"";
+
+        // when
+        Filter result = FilterParser.parse(spec);
+
+        // then
+        assertEquals("name = \"hz \\\"member\\\"\"", result.toComputeFilter());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedField() {
+        // given
+        String spec = "zone=us-east1-b";
+
+        // when
+        FilterParser.parse(spec);
+
+        // then
+        // throw exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingValue() {
+        // given
+        String spec = "labels.application=";
+
+        // when
+        FilterParser.parse(spec);
+
+        // then
+        // throw exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unbalancedParentheses() {
+        // given
+        String spec = "(labels.application=hazelcast";
+
+        // when
+        FilterParser.parse(spec);
+
+        // then
+        // throw exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void danglingOperator() {
+        // given
+        String spec = "labels.application=hazelcast AND";
+
+        // when
+        FilterParser.parse(spec);
+
+        // then
+        // throw exception
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FilterTest {
+    @Test
+    public void label() {
+        // given
+        Label label = new Label("application=hazelcast");
+
+        // when
+        Filter result = Filter.label(label);
+
+        // then
+        assertEquals("labels.application = \"hazelcast\"", result.toComputeFilter());
+    }
+
+    @Test
+    public void andSkipsNulls() {
+        // given
+        Filter label = Filter.label(new Label("application=hazelcast"));
+
+        // when
+        Filter result = Filter.and(label, null);
+
+        // then
+        assertEquals(label, result);
+    }
+
+    @Test
+    public void andOfNulls() {
+        // when
+        Filter result = Filter.and(null, null);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void queryParameterEncoding() {
+        // given
+        Filter filter = FilterParser.parse("labels.application=hazelcast AND name=hz-* AND labels.env!=\"a&b\"");
+
+        // when
+        String result = filter.toQueryParameter();
+
+        // then
+        assertEquals("%28labels.application+%3D+%22hazelcast%22%29+AND+%28name+%3D+%22hz-*%22%29"
+                + "+AND+%28labels.env+%21%3D+%22a%26b%22%29", result);
+    }
+}
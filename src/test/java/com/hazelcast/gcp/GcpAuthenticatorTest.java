@@ -52,10 +52,11 @@ public class GcpAuthenticatorTest {
                 .willReturn(aResponse().withStatus(200).withBody(responseBody(ACCESS_TOKEN))));
 
         // when
-        String result = gcpAuthenticator.refreshAccessToken(PRIVATE_KEY_PATH, CURRENT_TIME_MS);
+        AccessToken result = gcpAuthenticator.refreshAccessToken(PRIVATE_KEY_PATH, CURRENT_TIME_MS);
 
         // then
-        assertEquals(ACCESS_TOKEN, result);
+        assertEquals(ACCESS_TOKEN, result.getValue());
+        assertEquals(3600000L, result.getExpiresInMs());
 
     }
 
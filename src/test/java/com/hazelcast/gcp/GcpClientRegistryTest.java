@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class GcpClientRegistryTest {
+    private static final GcpConfig CONFIG = GcpConfig.builder().setProjects(singletonList("project-1")).build();
+
+    private RecordingFactory factory;
+    private GcpClientRegistry registry;
+
+    @Before
+    public void setUp() {
+        factory = new RecordingFactory();
+        registry = new GcpClientRegistry(factory);
+    }
+
+    @Test
+    public void acquireSameConfig() {
+        // given
+        GcpClient first = registry.acquire(CONFIG);
+
+        // when
+        GcpClient second = registry.acquire(GcpConfig.builder().setProjects(singletonList("project-1")).build());
+
+        // then
+        assertSame(first, second);
+        assertEquals(1, factory.clients);
+    }
+
+    @Test
+    public void acquireDifferentConfigSharesApis() {
+        // given
+        registry.acquire(CONFIG);
+        GcpConfig otherConfig = GcpConfig.builder().setProjects(singletonList("project-1"))
+                .setFilter(FilterParser.parse("labels.cluster=other")).build();
+
+        // when
+        registry.acquire(otherConfig);
+
+        // then
+        assertEquals(2, factory.clients);
+        assertEquals(1, factory.metadataApis);
+        assertEquals(1, factory.computeApis);
+        assertEquals(1, factory.authenticators);
+        assertEquals(1, factory.accessTokenCaches);
+    }
+
+    @Test
+    public void acquireDifferentCredentials() {
+        // given
+        registry.acquire(CONFIG);
+        GcpConfig otherConfig = GcpConfig.builder().setProjects(singletonList("project-1"))
+                .setPrivateKeyPath("/path/to/key.json").build();
+
+        // when
+        registry.acquire(otherConfig);
+
+        // then
+        assertEquals(1, factory.authenticators);
+        assertEquals(2, factory.accessTokenCaches);
+    }
+
+    @Test
+    public void acquireDifferentComputeApiSettings() {
+        // given
+        registry.acquire(CONFIG);
+        GcpConfig otherConfig = GcpConfig.builder().setProjects(singletonList("project-1")).setComputeApiQps(1f).build();
+
+        // when
+        registry.acquire(otherConfig);
+
+        // then
+        assertEquals(2, factory.computeApis);
+        assertEquals(1, factory.metadataApis);
+    }
+
+    @Test
+    public void releaseShutsDownAfterLastRelease() {
+        // given
+        GcpClient client = registry.acquire(CONFIG);
+        registry.acquire(CONFIG);
+
+        // when
+        registry.release(CONFIG);
+
+        // then
+        verify(client, never()).shutdown();
+        registry.release(CONFIG);
+        verify(client).shutdown();
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void acquireAfterRelease() {
+        // given
+        GcpClient first = registry.acquire(CONFIG);
+        registry.release(CONFIG);
+
+        // when
+        GcpClient second = registry.acquire(CONFIG);
+
+        // then
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void acquireFailure() {
+        // given
+        factory.failure = new IllegalStateException("failure");
+
+        // when
+        try {
+            registry.acquire(CONFIG);
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+
+        // then
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void acquireDoesNotBlockOtherConfigsDuringCreation()
+            throws Exception {
+        // given
+        factory.blockedProjects = CONFIG.getProjects();
+        FutureTask<GcpClient> first = acquireAsync(CONFIG);
+        FutureTask<GcpClient> second = acquireAsync(CONFIG);
+        factory.blockedCreationStarted.await();
+
+        // when
+        GcpClient other;
+        try {
+            other = acquireAsync(GcpConfig.builder().setProjects(singletonList("project-2")).build())
+                    .get(5, TimeUnit.SECONDS);
+        } finally {
+            assertFalse(first.isDone());
+            factory.blockedCreationReleased.countDown();
+        }
+
+        // then
+        assertNotNull(other);
+        assertSame(first.get(), second.get());
+        assertEquals(2, factory.clients);
+    }
+
+    private FutureTask<GcpClient> acquireAsync(final GcpConfig gcpConfig) {
+        FutureTask<GcpClient> result = new FutureTask<GcpClient>(new Callable<GcpClient>() {
+            @Override
+            public GcpClient call() {
+                return registry.acquire(gcpConfig);
+            }
+        });
+        Thread thread = new Thread(result);
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    private static final class RecordingFactory
+            extends GcpClientRegistry.Factory {
+        private int metadataApis;
+        private int computeApis;
+        private int authenticators;
+        private int accessTokenCaches;
+        private volatile int clients;
+        private RuntimeException failure;
+        private List<String> blockedProjects;
+        private final CountDownLatch blockedCreationStarted = new CountDownLatch(1);
+        private final CountDownLatch blockedCreationReleased = new CountDownLatch(1);
+
+        @Override
+        GcpMetadataApi metadataApi(GcpConfig gcpConfig) {
+            metadataApis++;
+            return mock(GcpMetadataApi.class);
+        }
+
+        @Override
+        GcpComputeApi computeApi(GcpConfig gcpConfig) {
+            computeApis++;
+            return mock(GcpComputeApi.class);
+        }
+
+        @Override
+        GcpAuthenticator authenticator(GcpConfig gcpConfig) {
+            authenticators++;
+            return mock(GcpAuthenticator.class);
+        }
+
+        @Override
+        AccessTokenCache accessTokenCache(GcpMetadataApi metadataApi, GcpAuthenticator authenticator,
+                                          GcpConfig gcpConfig) {
+            accessTokenCaches++;
+            return new AccessTokenCache(metadataApi, authenticator, gcpConfig.getPrivateKeyPath());
+        }
+
+        @Override
+        GcpClient client(GcpMetadataApi metadataApi, GcpComputeApi computeApi, AccessTokenCache accessTokenCache,
+                         GcpConfig gcpConfig) {
+            if (failure != null) {
+                throw failure;
+            }
+            synchronized (this) {
+                clients++;
+            }
+            if (gcpConfig.getProjects().equals(blockedProjects)) {
+                blockedCreationStarted.countDown();
+                try {
+                    blockedCreationReleased.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return mock(GcpClient.class);
+        }
+    }
+}
@@ -16,21 +16,37 @@
 package com.hazelcast.gcp;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -48,6 +64,7 @@ public class GcpClientTest {
     private static final String ACCESS_TOKEN =
             "ya29.c.Elr6BVAeC2CeahNthgBf6Nn8j66IfIfZV6eb0LTkDeoAzELseUL5pFmfq0K_ViJN8BaeVB6b16NNCiPB0YbWPnoHRC2I1ghmnknUTzL36t-79b_OitEF_q_C1GM";
     private static final String PRIVATE_KEY_PATH = "/sample/filesystem/path";
+    private static final long TOKEN_EXPIRES_IN_MS = 3600000L;
 
     private static final GcpAddress ADDRESS_1 = new GcpAddress("10.240.0.2", "35.207.0.219");
     private static final GcpAddress ADDRESS_2 = new GcpAddress("10.240.0.3", "35.237.227.147");
@@ -55,6 +72,9 @@ public class GcpClientTest {
     private static final GcpAddress ADDRESS_4 = new GcpAddress("10.240.0.5", "35.237.227.149");
     private static final List<GcpAddress> ADDRESSES = asList(ADDRESS_1, ADDRESS_2, ADDRESS_3, ADDRESS_4);
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private GcpMetadataApi gcpMetadataApi;
     @Mock
@@ -67,18 +87,18 @@ public class GcpClientTest {
         when(gcpMetadataApi.currentProject()).thenReturn(CURRENT_PROJECT);
         when(gcpMetadataApi.currentZone()).thenReturn(CURRENT_ZONE);
         when(gcpMetadataApi.currentRegion()).thenReturn(CURRENT_REGION);
-        when(gcpMetadataApi.accessToken()).thenReturn(ACCESS_TOKEN);
+        when(gcpMetadataApi.accessToken()).thenReturn(new AccessToken(ACCESS_TOKEN, TOKEN_EXPIRES_IN_MS));
         when(gcpComputeApi.zones(CURRENT_PROJECT, CURRENT_REGION, ACCESS_TOKEN)).thenReturn(CURRENT_REGION_ZONES);
     }
 
     @Test
     public void getAddressesCurrentProjectCurrentZoneNoLabel() {
         // given
-        Label label = null;
-        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, label, ACCESS_TOKEN)).willReturn(ADDRESSES);
+        Filter filter = null;
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, filter, ACCESS_TOKEN)).willReturn(ADDRESSES);
 
         GcpConfig gcpConfig = GcpConfig.builder().build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // when
         List<GcpAddress> result = gcpClient.getAddresses();
@@ -87,14 +107,34 @@ public class GcpClientTest {
         assertEquals(ADDRESSES, result);
     }
 
+    @Test
+    public void getAddressesNotifiesMembershipListeners() {
+        // given
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN))
+                .willReturn(asList(ADDRESS_1, ADDRESS_2), singletonList(ADDRESS_1));
+        GcpMembershipListener listener = mock(GcpMembershipListener.class);
+
+        GcpConfig gcpConfig = GcpConfig.builder().build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+        gcpClient.getAddresses();
+        gcpClient.getMembershipTracker().addListener(listener);
+
+        // when
+        gcpClient.getAddresses();
+
+        // then
+        verify(listener).membershipChanged(singletonList(
+                new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_2, null)));
+    }
+
     @Test
     public void getAddressesCurrentProjectCurrentZoneWithLabel() {
         // given
-        Label label = new Label("application=hazelcast");
-        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, label, ACCESS_TOKEN)).willReturn(ADDRESSES);
+        Filter filter = Filter.label(new Label("application=hazelcast"));
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, filter, ACCESS_TOKEN)).willReturn(ADDRESSES);
 
-        GcpConfig gcpConfig = GcpConfig.builder().setLabel(label).build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpConfig gcpConfig = GcpConfig.builder().setFilter(filter).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // when
         List<GcpAddress> result = gcpClient.getAddresses();
@@ -103,21 +143,77 @@ public class GcpClientTest {
         assertEquals(ADDRESSES, result);
     }
 
+    @Test
+    public void getAddressesFromRegionalInstanceGroup() {
+        // given
+        Filter filter = Filter.label(new Label("application=hazelcast"));
+        Map<String, List<String>> managedInstances = new LinkedHashMap<String, List<String>>();
+        managedInstances.put(ZONE_1, asList("hz-1", "hz-2"));
+        managedInstances.put(ZONE_2, singletonList("hz-3"));
+        given(gcpComputeApi.managedInstances(CURRENT_PROJECT, "regions/" + REGION, "hz-mig", ACCESS_TOKEN))
+                .willReturn(managedInstances);
+        given(gcpComputeApi.instances(CURRENT_PROJECT, ZONE_1, Filter.and(filter, Filter.or(asList(
+                Filter.comparison("name", "hz-1"), Filter.comparison("name", "hz-2")))), ACCESS_TOKEN))
+                .willReturn(asList(ADDRESS_1, ADDRESS_2));
+        given(gcpComputeApi.instances(CURRENT_PROJECT, ZONE_2, Filter.and(filter, Filter.comparison("name", "hz-3")),
+                ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_3));
+
+        GcpConfig gcpConfig = GcpConfig.builder()
+                .setRegion(REGION)
+                .setFilter(filter)
+                .setInstanceGroup("hz-mig")
+                .build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+
+        // when
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(asList(ADDRESS_1, ADDRESS_2, ADDRESS_3), result);
+        verify(gcpComputeApi, never()).instances(CURRENT_PROJECT, CURRENT_ZONE, filter, ACCESS_TOKEN);
+    }
+
+    @Test
+    public void getAddressesFromZonalInstanceGroupInBatches() {
+        // given
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < 60; i++) {
+            names.add(String.format("hz-%s", i));
+        }
+        given(gcpComputeApi.managedInstances(CURRENT_PROJECT, "zones/" + ZONE_1, "hz-mig", ACCESS_TOKEN))
+                .willReturn(Collections.singletonMap(ZONE_1, names));
+        given(gcpComputeApi.instances(eq(CURRENT_PROJECT), eq(ZONE_1), any(Filter.class), eq(ACCESS_TOKEN)))
+                .willReturn(singletonList(ADDRESS_1), singletonList(ADDRESS_2));
+
+        GcpConfig gcpConfig = GcpConfig.builder()
+                .setZones(singletonList(ZONE_1))
+                .setInstanceGroup("hz-mig")
+                .build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+
+        // when
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(asList(ADDRESS_1, ADDRESS_2), result);
+        verify(gcpComputeApi, times(2)).instances(eq(CURRENT_PROJECT), eq(ZONE_1), any(Filter.class), eq(ACCESS_TOKEN));
+    }
+
     @Test
     public void getAddressesMultipleProjectsMultipleZones() {
         // given
-        Label label = new Label("application=hazelcast");
-        given(gcpComputeApi.instances(PROJECT_1, ZONE_1, label, ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_1));
-        given(gcpComputeApi.instances(PROJECT_1, ZONE_2, label, ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_2));
-        given(gcpComputeApi.instances(PROJECT_2, ZONE_1, label, ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_3));
-        given(gcpComputeApi.instances(PROJECT_2, ZONE_2, label, ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_4));
+        Filter filter = Filter.label(new Label("application=hazelcast"));
+        given(gcpComputeApi.instances(PROJECT_1, ZONE_1, filter, ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_1));
+        given(gcpComputeApi.instances(PROJECT_1, ZONE_2, filter, ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_2));
+        given(gcpComputeApi.instances(PROJECT_2, ZONE_1, filter, ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_3));
+        given(gcpComputeApi.instances(PROJECT_2, ZONE_2, filter, ACCESS_TOKEN)).willReturn(singletonList(ADDRESS_4));
 
         GcpConfig gcpConfig = GcpConfig.builder()
                 .setProjects(asList(PROJECT_1, PROJECT_2))
                 .setZones(asList(ZONE_1, ZONE_2))
-                .setLabel(label)
+                .setFilter(filter)
                 .build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // when
         List<GcpAddress> result = gcpClient.getAddresses();
@@ -126,15 +222,40 @@ public class GcpClientTest {
         assertEquals(ADDRESSES, result);
     }
 
+    @Test
+    public void getAddressesFromAggregatedListInParallel() {
+        // given
+        Filter filter = Filter.label(new Label("application=hazelcast"));
+        given(gcpComputeApi.aggregatedInstances(PROJECT_1, filter, ACCESS_TOKEN)).willReturn(asList(ADDRESS_1, ADDRESS_2));
+        given(gcpComputeApi.aggregatedInstances(PROJECT_2, filter, ACCESS_TOKEN)).willReturn(asList(ADDRESS_3, ADDRESS_4));
+
+        GcpConfig gcpConfig = GcpConfig.builder()
+                .setProjects(asList(PROJECT_1, PROJECT_2))
+                .setZones(asList(ZONE_1, ZONE_2))
+                .setFilter(filter)
+                .setInstanceSource(InstanceSource.Type.AGGREGATED)
+                .setApiParallelism(2)
+                .build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+
+        // when
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(ADDRESSES, result);
+        verify(gcpComputeApi, never()).instances(anyString(), anyString(), any(Filter.class), anyString());
+    }
+
     @Test
     public void getAddressesWithPrivateKeyPath() {
         // given
         given(gcpMetadataApi.accessToken()).willReturn(null);
-        given(gcpAuthenticator.refreshAccessToken(PRIVATE_KEY_PATH)).willReturn(ACCESS_TOKEN);
+        given(gcpAuthenticator.refreshAccessToken(PRIVATE_KEY_PATH))
+                .willReturn(new AccessToken(ACCESS_TOKEN, TOKEN_EXPIRES_IN_MS));
         given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN)).willReturn(ADDRESSES);
 
         GcpConfig gcpConfig = GcpConfig.builder().setPrivateKeyPath(PRIVATE_KEY_PATH).build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // when
         List<GcpAddress> result = gcpClient.getAddresses();
@@ -143,16 +264,49 @@ public class GcpClientTest {
         assertEquals(ADDRESSES, result);
     }
 
+    @Test
+    public void getAddressesReusesAccessToken() {
+        // given
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN)).willReturn(ADDRESSES);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE)).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+
+        // when
+        gcpClient.getAddresses();
+        gcpClient.getAddresses();
+
+        // then
+        verify(gcpMetadataApi).accessToken();
+    }
+
+    @Test
+    public void getAddressesFetchesNewAccessTokenAfterFailure() {
+        // given
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN))
+                .willThrow(new RestClientException("Unauthorized", 401))
+                .willReturn(ADDRESSES);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE)).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+        gcpClient.getAddresses();
+
+        // when
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(ADDRESSES, result);
+        verify(gcpMetadataApi, times(2)).accessToken();
+    }
+
     @Test
     public void getAddressesUnauthorized() {
         // given
-        Label label = null;
+        Filter filter = null;
         String forbiddenMessage = "\"reason\":\"Request had insufficient authentication scopes\"";
         RestClientException exception = new RestClientException(forbiddenMessage, 401);
-        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, label, ACCESS_TOKEN)).willThrow(exception);
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, filter, ACCESS_TOKEN)).willThrow(exception);
 
-        GcpConfig gcpConfig = GcpConfig.builder().setLabel(label).build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE)).setFilter(filter).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // when
         List<GcpAddress> result = gcpClient.getAddresses();
@@ -164,13 +318,13 @@ public class GcpClientTest {
     @Test
     public void getAddressesForbidden() {
         // given
-        Label label = null;
+        Filter filter = null;
         String forbiddenMessage = "\"reason\":\"Request had insufficient authentication scopes\"";
         RestClientException exception = new RestClientException(forbiddenMessage, 403);
-        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, label, ACCESS_TOKEN)).willThrow(exception);
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, filter, ACCESS_TOKEN)).willThrow(exception);
 
-        GcpConfig gcpConfig = GcpConfig.builder().setLabel(label).build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE)).setFilter(filter).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // when
         List<GcpAddress> result = gcpClient.getAddresses();
@@ -182,13 +336,13 @@ public class GcpClientTest {
     @Test
     public void getAddressesNotFound() {
         // given
-        Label label = null;
+        Filter filter = null;
         String forbiddenMessage = "Service account not enabled on this instance";
         RestClientException exception = new RestClientException(forbiddenMessage, 404);
-        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, label, ACCESS_TOKEN)).willThrow(exception);
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, filter, ACCESS_TOKEN)).willThrow(exception);
 
-        GcpConfig gcpConfig = GcpConfig.builder().setLabel(label).build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE)).setFilter(filter).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // when
         List<GcpAddress> result = gcpClient.getAddresses();
@@ -200,12 +354,12 @@ public class GcpClientTest {
     @Test(expected = Exception.class)
     public void getAddressesUnknownException() {
         // given
-        Label label = null;
+        Filter filter = null;
         RestClientException exception = new RestClientException("unknown", 500);
-        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, label, ACCESS_TOKEN)).willThrow(exception);
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, filter, ACCESS_TOKEN)).willThrow(exception);
 
-        GcpConfig gcpConfig = GcpConfig.builder().setLabel(label).build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE)).setFilter(filter).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // when
         gcpClient.getAddresses();
@@ -215,17 +369,64 @@ public class GcpClientTest {
     }
 
     @Test
-    public void getAvailabilityZone() {
+    public void getInstanceMetadata() {
         // given
-        given(gcpMetadataApi.currentZone()).willReturn(ZONE_1);
+        GcpInstanceMetadata instance = new GcpInstanceMetadata("123", "hz-1", ZONE_1, "e2-medium", null);
+        given(gcpMetadataApi.currentInstance()).willReturn(instance);
         GcpConfig gcpConfig = GcpConfig.builder().build();
-        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+
+        // when
+        GcpInstanceMetadata result = gcpClient.getInstanceMetadata();
+
+        // then
+        assertEquals(instance, result);
+    }
+
+    @Test
+    public void getInstanceMetadataWithoutRetries() {
+        // given
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE)).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+        given(gcpMetadataApi.currentInstance()).willThrow(new RestClientException("Metadata Server unavailable", 500));
 
         // when
-        String result = gcpClient.getAvailabilityZone();
+        try {
+            gcpClient.getInstanceMetadataWithoutRetries();
+            fail("Expected RestClientException");
+        } catch (RestClientException e) {
+            // expected
+        }
 
         // then
-        assertEquals(ZONE_1, result);
+        verify(gcpMetadataApi).currentInstance();
+    }
+
+    @Test
+    public void notRunningInstances() {
+        // given
+        GcpConfig gcpConfig = GcpConfig.builder().setProjects(asList(PROJECT_1, PROJECT_2))
+                .setZones(singletonList(CURRENT_ZONE)).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+        Map<String, String> project1Statuses = new LinkedHashMap<String, String>();
+        project1Statuses.put("10.240.0.2", "TERMINATED");
+        project1Statuses.put("10.240.0.3", "STOPPING");
+        given(gcpComputeApi.instanceStatuses(PROJECT_1, CURRENT_ZONE, ACCESS_TOKEN)).willReturn(project1Statuses);
+        given(gcpComputeApi.instanceStatuses(PROJECT_2, CURRENT_ZONE, ACCESS_TOKEN))
+                .willReturn(Collections.singletonMap("10.240.0.2", "RUNNING"));
+        List<GcpMembershipEvent> removed = asList(
+                removedEvent("10.240.0.2", CURRENT_ZONE),
+                removedEvent("10.240.0.3", CURRENT_ZONE),
+                removedEvent("10.240.0.4", CURRENT_ZONE),
+                removedEvent("10.240.0.5", null));
+
+        // when
+        Set<String> result = gcpClient.notRunningInstances(removed);
+
+        // then
+        assertEquals(new HashSet<String>(asList("10.240.0.3", "10.240.0.4")), result);
+        verify(gcpComputeApi).instanceStatuses(PROJECT_1, CURRENT_ZONE, ACCESS_TOKEN);
+        verify(gcpComputeApi).instanceStatuses(PROJECT_2, CURRENT_ZONE, ACCESS_TOKEN);
     }
 
     @Test
@@ -237,7 +438,7 @@ public class GcpClientTest {
                 .build();
 
         // when
-        new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // then
         verify(gcpComputeApi).zones(CURRENT_PROJECT, REGION, ACCESS_TOKEN);
@@ -249,7 +450,7 @@ public class GcpClientTest {
         GcpConfig gcpConfig = GcpConfig.builder().setZones(asList(ZONE_1, ZONE_2)).build();
 
         // when
-        new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // then
         verify(gcpComputeApi, never()).zones(any(), any(), any());
@@ -261,7 +462,7 @@ public class GcpClientTest {
         GcpConfig gcpConfig = GcpConfig.builder().build();
 
         // when
-        new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // then
         verify(gcpComputeApi).zones(CURRENT_PROJECT, CURRENT_REGION, ACCESS_TOKEN);
@@ -275,7 +476,7 @@ public class GcpClientTest {
                 .build();
 
         // then
-        new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // then
         verify(gcpComputeApi).zones(PROJECT_1, CURRENT_REGION, ACCESS_TOKEN);
@@ -292,7 +493,7 @@ public class GcpClientTest {
                 .build();
 
         // then
-        new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // then
         verify(gcpComputeApi).zones(PROJECT_1, REGION, ACCESS_TOKEN);
@@ -307,9 +508,145 @@ public class GcpClientTest {
         given(gcpComputeApi.zones(any(), any(), any())).willThrow(exception);
 
         // when
-        new GcpClient(gcpMetadataApi, gcpComputeApi, gcpAuthenticator, gcpConfig);
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
 
         // then
         // throws exception
     }
-}
\ No newline at end of file
+
+    @Test
+    public void projectsAndZonesFromCache() {
+        // given
+        GcpConfig gcpConfig = GcpConfig.builder().setCacheDirectory(temporaryFolder.getRoot().getPath()).build();
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+        given(gcpComputeApi.zones(CURRENT_PROJECT, CURRENT_REGION, ACCESS_TOKEN)).willReturn(singletonList(ZONE_1));
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN)).willReturn(ADDRESSES);
+        RecordingExecutor refreshExecutor = new RecordingExecutor();
+
+        // when
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig, refreshExecutor);
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(ADDRESSES, result);
+        verify(gcpMetadataApi).currentProject();
+        verify(gcpComputeApi).zones(CURRENT_PROJECT, CURRENT_REGION, ACCESS_TOKEN);
+        assertEquals(1, refreshExecutor.tasks.size());
+    }
+
+    @Test
+    public void projectsAndZonesRefreshedAsynchronously() {
+        // given
+        GcpConfig gcpConfig = GcpConfig.builder().setCacheDirectory(temporaryFolder.getRoot().getPath()).build();
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+        given(gcpComputeApi.zones(CURRENT_PROJECT, CURRENT_REGION, ACCESS_TOKEN)).willReturn(singletonList(ZONE_1));
+        given(gcpComputeApi.instances(CURRENT_PROJECT, ZONE_1, null, ACCESS_TOKEN)).willReturn(ADDRESSES);
+        RecordingExecutor refreshExecutor = new RecordingExecutor();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig, refreshExecutor);
+
+        // when
+        refreshExecutor.tasks.get(0).run();
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(ADDRESSES, result);
+        verify(gcpComputeApi, times(2)).zones(CURRENT_PROJECT, CURRENT_REGION, ACCESS_TOKEN);
+        verify(gcpComputeApi, never()).instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN);
+    }
+
+    @Test
+    public void projectsAndZonesKeptWhenRefreshForbidden() {
+        // given
+        GcpConfig gcpConfig = GcpConfig.builder().setCacheDirectory(temporaryFolder.getRoot().getPath()).build();
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+        given(gcpComputeApi.zones(CURRENT_PROJECT, CURRENT_REGION, ACCESS_TOKEN))
+                .willThrow(new RestClientException("Forbidden", 403));
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN)).willReturn(ADDRESSES);
+        RecordingExecutor refreshExecutor = new RecordingExecutor();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig, refreshExecutor);
+
+        // when
+        refreshExecutor.tasks.get(0).run();
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(ADDRESSES, result);
+        assertEquals(CURRENT_REGION_ZONES, ProjectZonesCache.create(gcpConfig).load().getZones());
+    }
+
+    @Test
+    public void getAddressesFromSnapshotWhenApiUnavailable() {
+        // given
+        RestClientException exception = new RestClientException("Service Unavailable", 503);
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN)).willReturn(ADDRESSES);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE))
+                .setCacheDirectory(temporaryFolder.getRoot().getPath()).build();
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig).getAddresses();
+
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN)).willThrow(exception);
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig, new RecordingExecutor());
+
+        // when
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(ADDRESSES, result);
+    }
+
+    @Test
+    public void getAddressesNotFromSnapshotWhenUnauthorized() {
+        // given
+        String forbiddenMessage = "\"reason\":\"Request had insufficient authentication scopes\"";
+        RestClientException exception = new RestClientException(forbiddenMessage, 401);
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN)).willReturn(ADDRESSES);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(singletonList(CURRENT_ZONE))
+                .setCacheDirectory(temporaryFolder.getRoot().getPath()).build();
+        new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig).getAddresses();
+
+        given(gcpComputeApi.instances(CURRENT_PROJECT, CURRENT_ZONE, null, ACCESS_TOKEN)).willThrow(exception);
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig, new RecordingExecutor());
+
+        // when
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(emptyList(), result);
+    }
+
+    @Test
+    public void getAddressesPartialResultWhenZoneUnavailable() {
+        // given
+        RestClientException exception = new RestClientException("Forbidden", 403);
+        given(gcpComputeApi.instances(CURRENT_PROJECT, ZONE_1, null, ACCESS_TOKEN)).willReturn(asList(ADDRESS_1, ADDRESS_2));
+        given(gcpComputeApi.instances(CURRENT_PROJECT, ZONE_2, null, ACCESS_TOKEN)).willThrow(exception);
+        GcpConfig gcpConfig = GcpConfig.builder().setZones(asList(ZONE_1, ZONE_2))
+                .setCacheDirectory(temporaryFolder.getRoot().getPath()).build();
+        GcpClient gcpClient = new GcpClient(gcpMetadataApi, gcpComputeApi, accessTokenCache(gcpConfig), gcpConfig);
+
+        // when
+        List<GcpAddress> result = gcpClient.getAddresses();
+
+        // then
+        assertEquals(asList(ADDRESS_1, ADDRESS_2), result);
+        assertTrue(PartialResult.isPartial(result));
+        assertNull(AddressSnapshotStore.create(gcpConfig).load());
+    }
+
+    private AccessTokenCache accessTokenCache(GcpConfig gcpConfig) {
+        return new AccessTokenCache(gcpMetadataApi, gcpAuthenticator, gcpConfig.getPrivateKeyPath());
+    }
+
+    private static GcpMembershipEvent removedEvent(String privateAddress, String zone) {
+        return new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, new GcpAddress(privateAddress, null, zone), null);
+    }
+
+    private static final class RecordingExecutor
+            implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+    }
+}
@@ -21,15 +21,19 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Map;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class GcpComputeApiTest {
     private static final String PROJECT = "project1";
@@ -37,6 +41,8 @@ public class GcpComputeApiTest {
     private static final String REGION = "us-east1";
     private static final String LABEL_KEY = "application";
     private static final String LABEL_VALUE = "hazelcast";
+    private static final String NAME_PREFIX = "hazelcast-";
+    private static final String NETWORK = "default";
     private static final String ACCESS_TOKEN = "ya29.c.Elr6BVAeC2CeahNthgBf6Nn8j66IfIfZV6eb0LTkDeoAzELseUL5pFmfq0K_ViJN8BaeVB6b16NNCiPB0YbWPnoHRC2I1ghmnknUTzL36t-79b_OitEF_q_C1GM";
 
     private static final String INSTANCE_1_PRIVATE_IP = "10.240.0.2";
@@ -59,21 +65,140 @@ public class GcpComputeApiTest {
     public void instances() {
         // given
         stubFor(get(urlEqualTo(
-                String.format("/compute/v1/projects/%s/zones/%s/instances?filter=labels.%s+eq+%s", PROJECT, ZONE, LABEL_KEY,
-                        LABEL_VALUE)))
+                String.format("/compute/v1/projects/%s/zones/%s/instances?filter=labels.%s+%%3D+%%22%s%%22", PROJECT, ZONE,
+                        LABEL_KEY, LABEL_VALUE)))
                 .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
                 .willReturn(aResponse().withStatus(200).withBody(instancesResponse())));
-        Label label = new Label(String.format("%s=%s", LABEL_KEY, LABEL_VALUE));
+        Filter filter = Filter.label(new Label(String.format("%s=%s", LABEL_KEY, LABEL_VALUE)));
 
         // when
-        List<GcpAddress> result = gcpComputeApi.instances(PROJECT, ZONE, label, ACCESS_TOKEN);
+        List<GcpAddress> result = gcpComputeApi.instances(PROJECT, ZONE, filter, ACCESS_TOKEN);
 
         // then
-        GcpAddress address1 = new GcpAddress(INSTANCE_1_PRIVATE_IP, INSTANCE_1_PUBLIC_IP);
-        GcpAddress address2 = new GcpAddress(INSTANCE_2_PRIVATE_IP, INSTANCE_2_PUBLIC_IP);
+        GcpAddress address1 = new GcpAddress(INSTANCE_1_PRIVATE_IP, INSTANCE_1_PUBLIC_IP, ZONE, NETWORK, null);
+        GcpAddress address2 = new GcpAddress(INSTANCE_2_PRIVATE_IP, INSTANCE_2_PUBLIC_IP, ZONE, NETWORK, null);
         assertEquals(asList(address1, address2), result);
     }
 
+    @Test
+    public void instancesCreationTime() {
+        // given
+        stubFor(get(urlEqualTo(String.format("/compute/v1/projects/%s/zones/%s/instances", PROJECT, ZONE)))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(instancesResponse())));
+
+        // when
+        List<GcpAddress> result = gcpComputeApi.instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+
+        // then
+        // 2017-05-18T07:54:24.521-07:00
+        assertEquals(1495119264521L, result.get(0).getCreationTime());
+    }
+
+    @Test
+    public void instancesWithFilterExpression() {
+        // given
+        stubFor(get(urlEqualTo(String.format("/compute/v1/projects/%s/zones/%s/instances?filter="
+                        + "%%28labels.%s+%%3D+%%22%s%%22%%29+AND+%%28name+%%21%%3D+%%22%s*%%22%%29", PROJECT, ZONE, LABEL_KEY,
+                LABEL_VALUE, NAME_PREFIX)))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(instancesResponse())));
+        Filter filter = FilterParser.parse(String.format("labels.%s=%s AND NOT name=%s*", LABEL_KEY, LABEL_VALUE,
+                NAME_PREFIX));
+
+        // when
+        List<GcpAddress> result = gcpComputeApi.instances(PROJECT, ZONE, filter, ACCESS_TOKEN);
+
+        // then
+        GcpAddress address1 = new GcpAddress(INSTANCE_1_PRIVATE_IP, INSTANCE_1_PUBLIC_IP, ZONE, NETWORK, null);
+        GcpAddress address2 = new GcpAddress(INSTANCE_2_PRIVATE_IP, INSTANCE_2_PUBLIC_IP, ZONE, NETWORK, null);
+        assertEquals(asList(address1, address2), result);
+    }
+
+    @Test
+    public void managedInstances() {
+        // given
+        stubFor(post(urlEqualTo(String.format("/compute/v1/projects/%s/regions/%s/instanceGroupManagers/hz-mig/"
+                + "listManagedInstances", PROJECT, REGION)))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(String.format("{\"managedInstances\":["
+                        + "{\"instance\":\"https://www.googleapis.com/compute/v1/projects/%1$s/zones/%2$s-b/instances/hz-mig-1\","
+                        + "\"instanceStatus\":\"RUNNING\",\"currentAction\":\"NONE\"},"
+                        + "{\"instance\":\"https://www.googleapis.com/compute/v1/projects/%1$s/zones/%2$s-c/instances/hz-mig-2\","
+                        + "\"instanceStatus\":\"RUNNING\",\"currentAction\":\"NONE\"},"
+                        + "{\"instance\":\"https://www.googleapis.com/compute/v1/projects/%1$s/zones/%2$s-b/instances/hz-mig-3\","
+                        + "\"currentAction\":\"CREATING\"}]}", PROJECT, REGION))));
+
+        // when
+        Map<String, List<String>> result = gcpComputeApi.managedInstances(PROJECT, String.format("regions/%s", REGION),
+                "hz-mig", ACCESS_TOKEN);
+
+        // then
+        assertEquals(asList("hz-mig-1", "hz-mig-3"), result.get(REGION + "-b"));
+        assertEquals(asList("hz-mig-2"), result.get(REGION + "-c"));
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void instancesMultiplePages() {
+        // given
+        String url = String.format("/compute/v1/projects/%s/zones/%s/instances?filter=name+%%3D+%%22hz-mig-1%%22", PROJECT,
+                ZONE);
+        stubFor(get(urlEqualTo(url))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody("{\"items\":[],\"nextPageToken\":\"page-2\"}")));
+        stubFor(get(urlEqualTo(String.format("%s&pageToken=page-2", url)))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(String.format("{\"items\":[{\"name\":\"hz-mig-1\","
+                        + "\"status\":\"RUNNING\",\"networkInterfaces\":[%s]}]}",
+                        networkInterface("nic0", "default", "default", "10.240.0.2", null)))));
+
+        // when
+        List<GcpAddress> result = gcpComputeApi.instances(PROJECT, ZONE, Filter.comparison("name", "hz-mig-1"), ACCESS_TOKEN);
+
+        // then
+        assertEquals(asList(new GcpAddress("10.240.0.2", null, ZONE, "default", "default")), result);
+    }
+
+    @Test
+    public void managedInstancesMultiplePages() {
+        // given
+        String url = String.format("/compute/v1/projects/%s/zones/%s/instanceGroupManagers/hz-mig/listManagedInstances",
+                PROJECT, ZONE);
+        stubFor(post(urlEqualTo(url))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(String.format("{\"managedInstances\":["
+                        + "{\"instance\":\"https://www.googleapis.com/compute/v1/projects/%1$s/zones/%2$s/instances/hz-mig-1\"}],"
+                        + "\"nextPageToken\":\"page-2\"}", PROJECT, ZONE))));
+        stubFor(post(urlEqualTo(String.format("%s?pageToken=page-2", url)))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(String.format("{\"managedInstances\":["
+                        + "{\"instance\":\"https://www.googleapis.com/compute/v1/projects/%1$s/zones/%2$s/instances/hz-mig-2\"}]}",
+                        PROJECT, ZONE))));
+
+        // when
+        Map<String, List<String>> result = gcpComputeApi.managedInstances(PROJECT, String.format("zones/%s", ZONE),
+                "hz-mig", ACCESS_TOKEN);
+
+        // then
+        assertEquals(asList("hz-mig-1", "hz-mig-2"), result.get(ZONE));
+    }
+
+    @Test
+    public void managedInstancesEmptyGroup() {
+        // given
+        stubFor(post(urlEqualTo(String.format("/compute/v1/projects/%s/zones/%s/instanceGroupManagers/hz-mig/"
+                + "listManagedInstances", PROJECT, ZONE)))
+                .willReturn(aResponse().withStatus(200).withBody("{}")));
+
+        // when
+        Map<String, List<String>> result = gcpComputeApi.managedInstances(PROJECT, String.format("zones/%s", ZONE),
+                "hz-mig", ACCESS_TOKEN);
+
+        // then
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     public void zones() {
         // given
@@ -102,11 +227,257 @@ public class GcpComputeApiTest {
         List<GcpAddress> result = gcpComputeApi.instances(PROJECT, ZONE, null, ACCESS_TOKEN);
 
         // then
-        GcpAddress address1 = new GcpAddress(INSTANCE_1_PRIVATE_IP, INSTANCE_1_PUBLIC_IP);
-        GcpAddress address2 = new GcpAddress(INSTANCE_2_PRIVATE_IP, INSTANCE_2_PUBLIC_IP);
+        GcpAddress address1 = new GcpAddress(INSTANCE_1_PRIVATE_IP, INSTANCE_1_PUBLIC_IP, ZONE, NETWORK, null);
+        GcpAddress address2 = new GcpAddress(INSTANCE_2_PRIVATE_IP, INSTANCE_2_PUBLIC_IP, ZONE, NETWORK, null);
         assertEquals(asList(address1, address2), result);
     }
 
+    @Test
+    public void instanceStatuses() {
+        // given
+        stubInstances(instancesResponse());
+
+        // when
+        Map<String, String> result = gcpComputeApi.instanceStatuses(PROJECT, ZONE, ACCESS_TOKEN);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals("RUNNING", result.get(INSTANCE_1_PRIVATE_IP));
+        assertEquals("RUNNING", result.get(INSTANCE_2_PRIVATE_IP));
+    }
+
+    @Test
+    public void instanceStatusesIpv6Addresses() {
+        // given
+        stubInstances(multiNicInstanceResponse(
+                dualStackNetworkInterface(INSTANCE_1_PRIVATE_IP, null, "fd20:1::2", "2600:1900:4000::1")));
+
+        // when
+        Map<String, String> result = gcpComputeApi.instanceStatuses(PROJECT, ZONE, ACCESS_TOKEN);
+
+        // then
+        assertEquals("RUNNING", result.get(INSTANCE_1_PRIVATE_IP));
+        assertEquals("RUNNING", result.get("fd20:1::2"));
+        assertEquals("RUNNING", result.get("2600:1900:4000::1"));
+    }
+
+    @Test
+    public void aggregatedInstances() {
+        // given
+        String zoneB = REGION + "-b";
+        String zoneC = REGION + "-c";
+        stubFor(get(urlEqualTo(String.format("/compute/v1/projects/%s/aggregated/instances", PROJECT)))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(String.format("{\"items\":{"
+                        + "\"zones/%s\":{\"instances\":[{\"name\":\"hz-1\",\"status\":\"RUNNING\","
+                        + "\"networkInterfaces\":[%s]}]},"
+                        + "\"zones/%s\":{\"instances\":[{\"name\":\"hz-2\",\"status\":\"TERMINATED\","
+                        + "\"networkInterfaces\":[%s]}]},"
+                        + "\"zones/%s-d\":{\"warning\":{\"code\":\"NO_RESULTS_ON_PAGE\"}}}}",
+                        zoneB, networkInterface("nic0", "default", "default", "10.240.0.2", "35.207.0.219"),
+                        zoneC, networkInterface("nic0", "default", "default", "10.240.0.3", null), REGION))));
+
+        // when
+        List<GcpAddress> result = gcpComputeApi.aggregatedInstances(PROJECT, null, ACCESS_TOKEN);
+
+        // then
+        assertEquals(asList(new GcpAddress("10.240.0.2", "35.207.0.219", zoneB, "default", "default")), result);
+    }
+
+    @Test
+    public void aggregatedInstancesMultiplePages() {
+        // given
+        String zoneB = REGION + "-b";
+        String zoneC = REGION + "-c";
+        String url = String.format("/compute/v1/projects/%s/aggregated/instances?filter=labels.%s+%%3D+%%22%s%%22", PROJECT,
+                LABEL_KEY, LABEL_VALUE);
+        stubFor(get(urlEqualTo(url))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(String.format("{\"items\":{"
+                        + "\"zones/%s\":{\"instances\":[{\"name\":\"hz-1\",\"status\":\"RUNNING\","
+                        + "\"networkInterfaces\":[%s]}]}},\"nextPageToken\":\"CkMI/2==\"}",
+                        zoneB, networkInterface("nic0", "default", "default", "10.240.0.2", null)))));
+        stubFor(get(urlEqualTo(String.format("%s&pageToken=CkMI%%2F2%%3D%%3D", url)))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(String.format("{\"items\":{"
+                        + "\"zones/%s\":{\"instances\":[{\"name\":\"hz-2\",\"status\":\"RUNNING\","
+                        + "\"networkInterfaces\":[%s]}]}}}",
+                        zoneC, networkInterface("nic0", "default", "default", "10.240.0.3", null)))));
+        Filter filter = Filter.label(new Label(String.format("%s=%s", LABEL_KEY, LABEL_VALUE)));
+
+        // when
+        List<GcpAddress> result = gcpComputeApi.aggregatedInstances(PROJECT, filter, ACCESS_TOKEN);
+
+        // then
+        assertEquals(asList(new GcpAddress("10.240.0.2", null, zoneB, "default", "default"),
+                new GcpAddress("10.240.0.3", null, zoneC, "default", "default")), result);
+    }
+
+    @Test
+    public void instancesWithTwoNetworkInterfaces() {
+        // given
+        stubInstances(multiNicInstanceResponse(
+                networkInterface("nic0", "management", "management-east", "10.0.0.2", "35.207.0.219"),
+                networkInterface("nic1", "data", "data-east", "10.1.0.2", null)));
+
+        // when
+        List<GcpAddress> primary = gcpComputeApi.instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+        List<GcpAddress> preferred = gcpComputeApiFor("data", null).instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+
+        // then
+        assertEquals(asList(new GcpAddress("10.0.0.2", "35.207.0.219", ZONE, "management", "management-east")), primary);
+        assertEquals(asList(new GcpAddress("10.1.0.2", null, ZONE, "data", "data-east")), preferred);
+    }
+
+    @Test
+    public void instancesWithThreeNetworkInterfaces() {
+        // given
+        stubInstances(multiNicInstanceResponse(
+                networkInterface("nic0", "management", "management-east", "10.0.0.2", null),
+                networkInterface("nic1", "data", "data-east-a", "10.1.0.2", null),
+                networkInterface("nic2", "data", "data-east-b", "10.2.0.2", "35.207.0.220")));
+
+        // when
+        List<GcpAddress> byNetwork = gcpComputeApiFor("data", null).instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+        List<GcpAddress> bySubnetwork = gcpComputeApiFor(null,
+                String.format("https://www.googleapis.com/compute/v1/projects/%s/regions/%s/subnetworks/data-east-b",
+                        PROJECT, REGION)).instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+
+        // then
+        assertEquals(asList(new GcpAddress("10.1.0.2", null, ZONE, "data", "data-east-a")), byNetwork);
+        assertEquals(asList(new GcpAddress("10.2.0.2", "35.207.0.220", ZONE, "data", "data-east-b")), bySubnetwork);
+    }
+
+    @Test
+    public void instancesWithoutPreferredNetwork() {
+        // given
+        stubInstances(multiNicInstanceResponse(
+                networkInterface("nic0", "management", "management-east", "10.0.0.2", null),
+                networkInterface("nic1", "data", "data-east", "10.1.0.2", null)));
+
+        // when
+        List<GcpAddress> result = gcpComputeApiFor("backup", null).instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+
+        // then
+        assertEquals(asList(new GcpAddress("10.0.0.2", null, ZONE, "management", "management-east")), result);
+    }
+
+    @Test
+    public void instancesDualStack() {
+        // given
+        stubInstances(multiNicInstanceResponse(dualStackNetworkInterface("10.0.0.2", "35.207.0.219",
+                "fd20:a1b:c2d3:0:0:0:0:2", "2600:1900:4000:1a2b:0:0:0:0")));
+
+        // when
+        List<GcpAddress> ipv4 = gcpComputeApi.instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+        List<GcpAddress> ipv6 = gcpComputeApiFor(null, null, AddressFamily.IPV6).instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+
+        // then
+        assertEquals("10.0.0.2", ipv4.get(0).getPrivateAddress());
+        assertEquals("35.207.0.219", ipv4.get(0).getPublicAddress());
+        assertEquals("fd20:a1b:c2d3:0:0:0:0:2", ipv6.get(0).getPrivateAddress());
+        assertEquals("2600:1900:4000:1a2b:0:0:0:0", ipv6.get(0).getPublicAddress());
+    }
+
+    @Test
+    public void instancesIpv6OnlyWithIpv4Preference() {
+        // given
+        stubInstances(multiNicInstanceResponse(dualStackNetworkInterface(null, null, "fd20:a1b:c2d3:0:0:0:0:2", null)));
+
+        // when
+        List<GcpAddress> result = gcpComputeApi.instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+
+        // then
+        assertEquals("fd20:a1b:c2d3:0:0:0:0:2", result.get(0).getPrivateAddress());
+        assertNull(result.get(0).getPublicAddress());
+    }
+
+    @Test
+    public void instancesIpv4OnlyWithIpv6Preference() {
+        // given
+        stubInstances(multiNicInstanceResponse(dualStackNetworkInterface("10.0.0.2", "35.207.0.219", null, null)));
+
+        // when
+        List<GcpAddress> result = gcpComputeApiFor(null, null, AddressFamily.IPV6)
+                .instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+
+        // then
+        assertEquals("10.0.0.2", result.get(0).getPrivateAddress());
+        assertEquals("35.207.0.219", result.get(0).getPublicAddress());
+    }
+
+    @Test
+    public void instancesExternalIpv6Only() {
+        // given
+        stubInstances(multiNicInstanceResponse(dualStackNetworkInterface(null, null, null, "2600:1900:4000:1a2b:0:0:0:0")));
+
+        // when
+        List<GcpAddress> result = gcpComputeApiFor(null, null, AddressFamily.IPV6)
+                .instances(PROJECT, ZONE, null, ACCESS_TOKEN);
+
+        // then
+        assertEquals("2600:1900:4000:1a2b:0:0:0:0", result.get(0).getPrivateAddress());
+        assertEquals("2600:1900:4000:1a2b:0:0:0:0", result.get(0).getPublicAddress());
+    }
+
+    private GcpComputeApi gcpComputeApiFor(String network, String subnetwork) {
+        return gcpComputeApiFor(network, subnetwork, AddressFamily.IPV4);
+    }
+
+    private GcpComputeApi gcpComputeApiFor(String network, String subnetwork, AddressFamily addressFamily) {
+        return new GcpComputeApi(String.format("http://localhost:%s", wireMockRule.port()),
+                TimeoutPolicy.defaultFor(GcpProperties.COMPUTE_API_TIMEOUT), network, subnetwork, addressFamily,
+                ProjectRateLimiter.UNLIMITED);
+    }
+
+    private static String dualStackNetworkInterface(String networkIp, String natIp, String ipv6Address,
+                                                    String externalIpv6) {
+        StringBuilder result = new StringBuilder("{\"name\":\"nic0\",\"stackType\":\"IPV4_IPV6\"");
+        if (networkIp != null) {
+            result.append(String.format(",\"networkIP\":\"%s\"", networkIp));
+        }
+        if (natIp != null) {
+            result.append(String.format(",\"accessConfigs\":[{\"type\":\"ONE_TO_ONE_NAT\",\"natIP\":\"%s\"}]", natIp));
+        }
+        if (ipv6Address != null) {
+            result.append(String.format(",\"ipv6Address\":\"%s\"", ipv6Address));
+        }
+        if (externalIpv6 != null) {
+            result.append(String.format(",\"ipv6AccessConfigs\":[{\"type\":\"DIRECT_IPV6\",\"externalIpv6\":\"%s\","
+                    + "\"externalIpv6PrefixLength\":96}]", externalIpv6));
+        }
+        return result.append('}').toString();
+    }
+
+    private static void stubInstances(String response) {
+        stubFor(get(urlEqualTo(String.format("/compute/v1/projects/%s/zones/%s/instances", PROJECT, ZONE)))
+                .withHeader("Authorization", equalTo(String.format("OAuth %s", ACCESS_TOKEN)))
+                .willReturn(aResponse().withStatus(200).withBody(response)));
+    }
+
+    private static String multiNicInstanceResponse(String... networkInterfaces) {
+        StringBuilder interfaces = new StringBuilder();
+        for (String networkInterface : networkInterfaces) {
+            if (interfaces.length() > 0) {
+                interfaces.append(',');
+            }
+            interfaces.append(networkInterface);
+        }
+        return String.format("{\"items\":[{\"name\":\"hazelcast-multi-nic\",\"status\":\"RUNNING\","
+                + "\"networkInterfaces\":[%s]}]}", interfaces);
+    }
+
+    private static String networkInterface(String name, String network, String subnetwork, String networkIp,
+                                           String natIp) {
+        String accessConfigs = natIp == null ? ""
+                : String.format(",\"accessConfigs\":[{\"type\":\"ONE_TO_ONE_NAT\",\"natIP\":\"%s\"}]", natIp);
+        return String.format("{\"name\":\"%s\","
+                        + "\"network\":\"https://www.googleapis.com/compute/v1/projects/%s/global/networks/%s\","
+                        + "\"subnetwork\":\"https://www.googleapis.com/compute/v1/projects/%s/regions/%s/subnetworks/%s\","
+                        + "\"networkIP\":\"%s\"%s}",
+                name, PROJECT, network, PROJECT, REGION, subnetwork, networkIp, accessConfigs);
+    }
+
     /**
      * Reponse recorded from the real Cloud Compute API call.
      */
@@ -25,6 +25,7 @@ import com.hazelcast.spi.discovery.impl.DefaultDiscoveryService;
 import com.hazelcast.spi.discovery.integration.DiscoveryServiceSettings;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -36,17 +37,26 @@ import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class GcpDiscoveryStrategyFactoryTest {
+    private static final String SERVICE_ACCOUNT_ENDPOINT = "/computeMetadata/v1/instance/service-accounts/default/";
+
     @Rule
     public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void validConfiguration() {
         DiscoveryStrategy strategy = createStrategy("test-gcp-config.xml");
@@ -83,6 +93,127 @@ public class GcpDiscoveryStrategyFactoryTest {
         assertTrue(isAvailable);
     }
 
+    @Test
+    public void isRunningOnGcpDmiProductName()
+            throws IOException {
+        // given
+        stubMetadataServer();
+        String dmiProductName = createTestFile("Google Compute Engine\n");
+
+        // when
+        boolean result = GcpDiscoveryStrategyFactory.isRunningOnGcp(dmiProductName, missingFile(), missingFile(),
+                metadataEndpoint());
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    public void isRunningOnGcpOtherDmiProductName()
+            throws IOException {
+        // given
+        stubMetadataServer();
+        String dmiProductName = createTestFile("VirtualBox\n");
+        String resolvConf = createTestFile("search c.project.internal google.internal\n");
+
+        // when
+        boolean result = GcpDiscoveryStrategyFactory.isRunningOnGcp(dmiProductName, resolvConf, missingFile(),
+                metadataEndpoint());
+
+        // then
+        assertFalse(result);
+        verify(0, anyRequestedFor(anyUrl()));
+    }
+
+    @Test
+    public void isRunningOnGcpNoServiceAccount()
+            throws IOException {
+        // given
+        String dmiProductName = createTestFile("Google Compute Engine\n");
+        stubFor(get(urlEqualTo(SERVICE_ACCOUNT_ENDPOINT)).willReturn(aResponse().withStatus(404)));
+
+        // when
+        boolean result = GcpDiscoveryStrategyFactory.isRunningOnGcp(dmiProductName, missingFile(), missingFile(),
+                metadataEndpoint());
+
+        // then
+        assertFalse(result);
+    }
+
+    @Test
+    public void isRunningOnGcpGoogleInternalDns()
+            throws IOException {
+        // given
+        stubMetadataServer();
+        String hosts = createTestFile("169.254.169.254 metadata.google.internal\n");
+
+        // when
+        boolean result = GcpDiscoveryStrategyFactory.isRunningOnGcp(missingFile(), missingFile(), hosts, metadataEndpoint());
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    public void isRunningOnGcpNoGoogleInternalDns()
+            throws IOException {
+        // given
+        stubMetadataServer();
+        String resolvConf = createTestFile("nameserver 8.8.8.8\n");
+        String hosts = createTestFile("127.0.0.1 localhost\n");
+
+        // when
+        boolean result = GcpDiscoveryStrategyFactory.isRunningOnGcp(missingFile(), resolvConf, hosts, metadataEndpoint());
+
+        // then
+        assertFalse(result);
+        verify(0, anyRequestedFor(anyUrl()));
+    }
+
+    @Test
+    public void isRunningOnGcpMetadataServerNotResponding()
+            throws IOException {
+        // given
+        stubFor(get(anyUrl()).willReturn(aResponse().withStatus(200).withBody("some-body").withFixedDelay(10000)));
+        String resolvConf = createTestFile("search c.project.internal google.internal\n");
+
+        // when
+        long startTimeMs = System.currentTimeMillis();
+        boolean result = GcpDiscoveryStrategyFactory.isRunningOnGcp(missingFile(), resolvConf, missingFile(),
+                metadataEndpoint());
+        long durationMs = System.currentTimeMillis() - startTimeMs;
+
+        // then
+        assertFalse(result);
+        assertTrue(String.format("Detection took %s ms", durationMs), durationMs < 5000);
+    }
+
+    @Test
+    public void isRunningOnGcpNoMetadataServerCallsWhenNoFiles() {
+        // given
+        String endpoint = "http://localhost:1";
+
+        // when
+        boolean result = GcpDiscoveryStrategyFactory.isRunningOnGcp(missingFile(), missingFile(), missingFile(), endpoint);
+
+        // then
+        assertFalse(result);
+        verify(0, anyRequestedFor(anyUrl()));
+    }
+
+    private void stubMetadataServer() {
+        stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("computeMetadata/")));
+        stubFor(get(urlEqualTo(SERVICE_ACCOUNT_ENDPOINT)).willReturn(aResponse().withStatus(200).withBody("email")));
+    }
+
+    private String metadataEndpoint() {
+        return String.format("http://localhost:%d", wireMockRule.port());
+    }
+
+    private String missingFile() {
+        return new File(temporaryFolder.getRoot(), "missing").getAbsolutePath();
+    }
+
     @Test
     public void readFileContents()
             throws IOException {
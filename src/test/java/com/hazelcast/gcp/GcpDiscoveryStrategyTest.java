@@ -15,8 +15,10 @@
 
 package com.hazelcast.gcp;
 
+import com.hazelcast.cluster.Address;
 import com.hazelcast.config.InvalidConfigurationException;
 import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
 import com.hazelcast.spi.partitiongroup.PartitionGroupMetaData;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,15 +26,22 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -40,23 +49,27 @@ public class GcpDiscoveryStrategyTest {
     private static final String ZONE = "us-east1-a";
     private static final int PORT1 = 5701;
     private static final int PORT2 = 5702;
+    private static final GcpInstanceMetadata INSTANCE = new GcpInstanceMetadata("123", "hz-1", ZONE, "e2-medium", null);
 
     @Mock
     private GcpClient gcpClient;
 
+    private DiscoveryNode localNode;
     private GcpDiscoveryStrategy gcpDiscoveryStrategy;
 
     @Before
-    public void setUp() {
+    public void setUp()
+            throws Exception {
+        localNode = new SimpleDiscoveryNode(new Address("10.0.0.1", PORT1));
         Map<String, Comparable> properties = new HashMap<String, Comparable>();
         properties.put("hz-port", String.format("%s-%s", PORT1, PORT2));
-        gcpDiscoveryStrategy = new GcpDiscoveryStrategy(properties, gcpClient);
+        gcpDiscoveryStrategy = new GcpDiscoveryStrategy(properties, gcpClient, localNode);
     }
 
     @Test
     public void discoverLocalMetadata() {
         // given
-        given(gcpClient.getAvailabilityZone()).willReturn(ZONE);
+        given(gcpClient.getInstanceMetadata()).willReturn(INSTANCE);
 
         // when
         Map<String, String> result1 = gcpDiscoveryStrategy.discoverLocalMetadata();
@@ -65,7 +78,37 @@ public class GcpDiscoveryStrategyTest {
         // then
         assertEquals(ZONE, result1.get(PartitionGroupMetaData.PARTITION_GROUP_ZONE));
         assertEquals(ZONE, result2.get(PartitionGroupMetaData.PARTITION_GROUP_ZONE));
-        verify(gcpClient).getAvailabilityZone();
+        verify(gcpClient).getInstanceMetadata();
+    }
+
+    @Test
+    public void discoverLocalMetadataPrecomputedAtStart() {
+        // given
+        given(gcpClient.getInstanceMetadata()).willReturn(
+                new GcpInstanceMetadata("4324997519045467154", "hz-1", ZONE, "e2-medium", "/a1b2/c3d4/e5f6"));
+
+        // when
+        gcpDiscoveryStrategy.start();
+        Map<String, String> result = gcpDiscoveryStrategy.discoverLocalMetadata();
+
+        // then
+        assertEquals(ZONE, result.get(PartitionGroupMetaData.PARTITION_GROUP_ZONE));
+        assertEquals("/a1b2/c3d4/e5f6", result.get(PartitionGroupMetaData.PARTITION_GROUP_NODE));
+        assertEquals("4324997519045467154", result.get(GcpDiscoveryStrategy.INSTANCE_ID_ATTRIBUTE));
+        assertEquals("e2-medium", result.get(GcpDiscoveryStrategy.MACHINE_TYPE_ATTRIBUTE));
+        verify(gcpClient).getInstanceMetadata();
+    }
+
+    @Test
+    public void discoverLocalMetadataWhenMetadataServerUnavailable() {
+        // given
+        given(gcpClient.getInstanceMetadata()).willThrow(new RestClientException("Metadata Server unavailable", 500));
+
+        // when
+        Map<String, String> result = gcpDiscoveryStrategy.discoverLocalMetadata();
+
+        // then
+        assertTrue(result.isEmpty());
     }
 
     @Test
@@ -76,7 +119,7 @@ public class GcpDiscoveryStrategyTest {
         properties.put("zones", "us-east1-b");
 
         // when
-        new GcpDiscoveryStrategy(properties);
+        new GcpDiscoveryStrategy(properties, localNode);
 
         // then
         // no exception
@@ -89,7 +132,7 @@ public class GcpDiscoveryStrategyTest {
         properties.put("hz-port", "invalid");
 
         // when
-        new GcpDiscoveryStrategy(properties);
+        new GcpDiscoveryStrategy(properties, localNode);
 
         // then
         // throw exception
@@ -102,7 +145,7 @@ public class GcpDiscoveryStrategyTest {
         properties.put("label", "invalid");
 
         // when
-        new GcpDiscoveryStrategy(properties);
+        new GcpDiscoveryStrategy(properties, localNode);
 
         // then
         // throw exception
@@ -142,6 +185,234 @@ public class GcpDiscoveryStrategyTest {
         assertEquals(PORT2, node4.getPrivateAddress().getPort());
     }
 
+    @Test
+    public void discoverNodesWithSeedCount() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("hz-port", String.valueOf(PORT1));
+        properties.put("seed-count", 4);
+        GcpDiscoveryStrategy strategy = new GcpDiscoveryStrategy(properties, gcpClient, localNode);
+        List<GcpAddress> addresses = new ArrayList<GcpAddress>();
+        for (int i = 0; i < 20; i++) {
+            addresses.add(new GcpAddress(String.format("192.168.1.%s", i), null, ZONE, null, null, 1000L + i));
+        }
+        given(gcpClient.getInstanceMetadata()).willReturn(INSTANCE);
+        given(gcpClient.getAddresses()).willReturn(addresses);
+
+        // when
+        Iterable<DiscoveryNode> nodes = strategy.discoverNodes();
+
+        // then
+        Set<String> hosts = new HashSet<String>();
+        for (DiscoveryNode node : nodes) {
+            hosts.add(node.getPrivateAddress().getHost());
+        }
+        assertEquals(4, hosts.size());
+        assertTrue(hosts.containsAll(asList("192.168.1.0", "192.168.1.1", "192.168.1.2")));
+    }
+
+    @Test
+    public void discoverNodesSameZoneFirst() {
+        // given
+        GcpAddress otherRegion = new GcpAddress("192.168.1.11", null, "europe-west1-b");
+        GcpAddress sameRegion = new GcpAddress("192.168.1.12", null, "us-east1-b");
+        GcpAddress sameZone2 = new GcpAddress("192.168.1.14", null, ZONE);
+        GcpAddress sameZone1 = new GcpAddress("192.168.1.13", null, ZONE);
+        given(gcpClient.getInstanceMetadata()).willReturn(INSTANCE);
+        given(gcpClient.getAddresses()).willReturn(asList(otherRegion, sameRegion, sameZone2, sameZone1));
+
+        // when
+        Iterable<DiscoveryNode> nodes = gcpDiscoveryStrategy.discoverNodes();
+
+        // then
+        List<String> result = new ArrayList<String>();
+        for (DiscoveryNode node : nodes) {
+            if (node.getPrivateAddress().getPort() == PORT1) {
+                result.add(node.getPrivateAddress().getHost());
+            }
+        }
+        assertEquals(asList("192.168.1.13", "192.168.1.14", "192.168.1.12", "192.168.1.11"), result);
+    }
+
+    @Test
+    public void discoverNodesWithZoneProperty() {
+        // given
+        given(gcpClient.getAddresses()).willReturn(asList(new GcpAddress("192.168.1.15", null, ZONE)));
+
+        // when
+        Iterable<DiscoveryNode> nodes = gcpDiscoveryStrategy.discoverNodes();
+
+        // then
+        DiscoveryNode node = nodes.iterator().next();
+        assertEquals(ZONE, node.getProperties().get(PartitionGroupMetaData.PARTITION_GROUP_ZONE));
+    }
+
+    @Test
+    public void discoverNodesWhenCurrentZoneUnavailable() {
+        // given
+        GcpAddress gcpInstance1 = new GcpAddress("192.168.1.16", null, "us-east1-b");
+        GcpAddress gcpInstance2 = new GcpAddress("192.168.1.15", null, ZONE);
+        given(gcpClient.getInstanceMetadata()).willThrow(new RestClientException("Metadata Server unavailable", 500));
+        given(gcpClient.getAddresses()).willReturn(asList(gcpInstance1, gcpInstance2));
+
+        // when
+        gcpDiscoveryStrategy.discoverNodes();
+        Iterable<DiscoveryNode> nodes = gcpDiscoveryStrategy.discoverNodes();
+
+        // then
+        assertEquals(gcpInstance2.getPrivateAddress(), nodes.iterator().next().getPrivateAddress().getHost());
+        verify(gcpClient).getInstanceMetadata();
+    }
+
+    @Test
+    public void discoverNodesClientWithPublicIp() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("hz-port", String.valueOf(PORT1));
+        properties.put("use-public-ip", true);
+        GcpDiscoveryStrategy clientStrategy = new GcpDiscoveryStrategy(properties, gcpClient, null);
+        given(gcpClient.getAddresses()).willReturn(asList(new GcpAddress("192.168.1.15", "38.146.24.2"),
+                new GcpAddress("192.168.1.16", null)));
+
+        // when
+        clientStrategy.start();
+        Iterable<DiscoveryNode> nodes = clientStrategy.discoverNodes();
+
+        // then
+        Iterator<DiscoveryNode> iter = nodes.iterator();
+        DiscoveryNode node = iter.next();
+        assertEquals("38.146.24.2", node.getPrivateAddress().getHost());
+        assertEquals("38.146.24.2", node.getPublicAddress().getHost());
+        assertFalse(iter.hasNext());
+        verify(gcpClient, never()).getInstanceMetadata();
+    }
+
+    @Test
+    public void discoverNodesClientWithPrivateIp() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("hz-port", String.valueOf(PORT1));
+        properties.put("use-public-ip", false);
+        GcpDiscoveryStrategy clientStrategy = new GcpDiscoveryStrategy(properties, gcpClient, null);
+        given(gcpClient.getInstanceMetadataWithoutRetries()).willReturn(INSTANCE);
+        given(gcpClient.getAddresses()).willReturn(asList(new GcpAddress("192.168.1.15", "38.146.24.2")));
+
+        // when
+        Iterable<DiscoveryNode> nodes = clientStrategy.discoverNodes();
+
+        // then
+        DiscoveryNode node = nodes.iterator().next();
+        assertEquals("192.168.1.15", node.getPrivateAddress().getHost());
+        assertEquals("192.168.1.15", node.getPublicAddress().getHost());
+        verify(gcpClient, never()).getInstanceMetadata();
+    }
+
+    @Test
+    public void discoverNodesMemberIgnoresUsePublicIp() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("hz-port", String.valueOf(PORT1));
+        properties.put("use-public-ip", true);
+        GcpDiscoveryStrategy memberStrategy = new GcpDiscoveryStrategy(properties, gcpClient, localNode);
+        given(gcpClient.getAddresses()).willReturn(asList(new GcpAddress("192.168.1.15", "38.146.24.2")));
+
+        // when
+        Iterable<DiscoveryNode> nodes = memberStrategy.discoverNodes();
+
+        // then
+        DiscoveryNode node = nodes.iterator().next();
+        assertEquals("192.168.1.15", node.getPrivateAddress().getHost());
+        assertEquals("38.146.24.2", node.getPublicAddress().getHost());
+    }
+
+    @Test
+    public void discoverNodesIpv6()
+            throws UnknownHostException {
+        // given
+        given(gcpClient.getAddresses()).willReturn(asList(new GcpAddress("fd20:a1b:c2d3:0:0:0:0:2",
+                "[2600:1900:4000:1a2b:0:0:0:0]")));
+
+        // when
+        Iterable<DiscoveryNode> nodes = gcpDiscoveryStrategy.discoverNodes();
+
+        // then
+        DiscoveryNode node = nodes.iterator().next();
+        assertTrue(node.getPrivateAddress().isIPv6());
+        assertEquals("fd20:a1b:c2d3:0:0:0:0:2", node.getPrivateAddress().getInetAddress().getHostAddress());
+        assertEquals("2600:1900:4000:1a2b:0:0:0:0", node.getPublicAddress().getInetAddress().getHostAddress());
+    }
+
+    @Test
+    public void discoverNodesWithoutPublicAddress() {
+        // given
+        given(gcpClient.getAddresses()).willReturn(asList(new GcpAddress("192.168.1.15", null)));
+
+        // when
+        Iterable<DiscoveryNode> nodes = gcpDiscoveryStrategy.discoverNodes();
+
+        // then
+        DiscoveryNode node = nodes.iterator().next();
+        assertEquals("192.168.1.15", node.getPublicAddress().getHost());
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void newInvalidAddressFamilyProperty() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("address-family", "ipv5");
+
+        // when
+        new GcpDiscoveryStrategy(properties, localNode);
+
+        // then
+        // throw exception
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void newFileInstanceSourceWithoutInstancesFile() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("instance-source", "file");
+
+        // when
+        new GcpDiscoveryStrategy(properties, localNode);
+
+        // then
+        // throw exception
+    }
+
+    @Test
+    public void startupJitterMs() {
+        // given
+        long maxJitterMs = 10000;
+        Set<Long> jitters = new HashSet<Long>();
+
+        // when
+        for (long instanceId = 1234567890123456789L; instanceId < 1234567890123456789L + 100; instanceId++) {
+            long jitter = GcpDiscoveryStrategy.startupJitterMs(Long.toString(instanceId), maxJitterMs);
+            assertTrue(jitter >= 0 && jitter < maxJitterMs);
+            jitters.add(jitter / (maxJitterMs / 10));
+        }
+
+        // then
+        assertEquals(GcpDiscoveryStrategy.startupJitterMs("123", maxJitterMs),
+                GcpDiscoveryStrategy.startupJitterMs("123", maxJitterMs));
+        assertEquals(10, jitters.size());
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void newNegativeComputeApiQps() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("compute-api-qps", -1f);
+
+        // when
+        new GcpDiscoveryStrategy(properties, localNode);
+
+        // then
+        // throw exception
+    }
+
     @Test
     public void discoverNodesEmpty() {
         // given
@@ -165,4 +436,49 @@ public class GcpDiscoveryStrategyTest {
         // then
         assertFalse(nodes.iterator().hasNext());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void startMemberStatusChecks() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("member-status-check-interval-ms", 10L);
+        StoppedMemberSuspector suspector = mock(StoppedMemberSuspector.class);
+        given(gcpClient.getInstanceMetadata()).willReturn(INSTANCE);
+        given(gcpClient.getStoppedMemberSuspector()).willReturn(suspector);
+        GcpDiscoveryStrategy strategy = new GcpDiscoveryStrategy(properties, gcpClient, localNode);
+
+        // when
+        strategy.start();
+        strategy.destroy();
+
+        // then
+        verify(suspector).addLocalMember(localNode.getPrivateAddress());
+        verify(suspector).removeLocalMember(localNode.getPrivateAddress());
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void newNegativeSeedCount() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("seed-count", -1);
+
+        // when
+        new GcpDiscoveryStrategy(properties, localNode);
+
+        // then
+        // throw exception
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void newNegativeMemberStatusCheckInterval() {
+        // given
+        Map<String, Comparable> properties = new HashMap<String, Comparable>();
+        properties.put("member-status-check-interval-ms", -1L);
+
+        // when
+        new GcpDiscoveryStrategy(properties, localNode);
+
+        // then
+        // throw exception
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class GcpInstanceMetadataTest {
+
+    @Test
+    public void parse() {
+        // given
+        String response = "{\"id\":4324997519045467154,\"name\":\"hz-1\",\"zone\":\"projects/183928891381/zones/us-east1-b\","
+                + "\"machineType\":\"projects/183928891381/machineTypes/e2-medium\","
+                + "\"attributes\":{\"physical_host\":\"/a1b2/c3d4/e5f6\"},\"hostname\":\"hz-1.c.project-1.internal\"}";
+
+        // when
+        GcpInstanceMetadata result = GcpInstanceMetadata.parse(response);
+
+        // then
+        assertEquals("4324997519045467154", result.getId());
+        assertEquals("hz-1", result.getName());
+        assertEquals("us-east1-b", result.getZone());
+        assertEquals("e2-medium", result.getMachineType());
+        assertEquals("/a1b2/c3d4/e5f6", result.getPhysicalHost());
+    }
+
+    @Test
+    public void parseWithoutOptionalFields() {
+        // given
+        String response = "{\"zone\":\"projects/183928891381/zones/us-east1-b\",\"attributes\":{}}";
+
+        // when
+        GcpInstanceMetadata result = GcpInstanceMetadata.parse(response);
+
+        // then
+        assertEquals("us-east1-b", result.getZone());
+        assertNull(result.getId());
+        assertNull(result.getMachineType());
+        assertNull(result.getPhysicalHost());
+    }
+}
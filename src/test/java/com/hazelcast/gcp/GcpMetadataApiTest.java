@@ -85,6 +85,71 @@ public class GcpMetadataApiTest {
         assertEquals("us-east1", result);
     }
 
+    @Test
+    public void currentInstance() {
+        // given
+        stubFor(get(urlEqualTo("/computeMetadata/v1/instance/?recursive=true"))
+                .withHeader("Metadata-Flavor", equalTo("Google"))
+                .willReturn(aResponse().withStatus(200).withBody(String.format("{\"id\":4324997519045467154,"
+                        + "\"name\":\"hz-1\",\"zone\":\"%s\",\"machineType\":\"projects/183928891381/machineTypes/e2-medium\","
+                        + "\"attributes\":{\"physical_host\":\"/a1b2/c3d4/e5f6\"}}", zoneResponse(ZONE)))));
+
+        // when
+        GcpInstanceMetadata result = gcpMetadataApi.currentInstance();
+
+        // then
+        assertEquals("4324997519045467154", result.getId());
+        assertEquals("hz-1", result.getName());
+        assertEquals(ZONE, result.getZone());
+        assertEquals("e2-medium", result.getMachineType());
+        assertEquals("/a1b2/c3d4/e5f6", result.getPhysicalHost());
+    }
+
+    @Test
+    public void waitForPreempted() {
+        // given
+        stubFor(get(urlEqualTo("/computeMetadata/v1/instance/preempted?wait_for_change=true&timeout_sec=60&last_etag=etag-1"))
+                .withHeader("Metadata-Flavor", equalTo("Google"))
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-2").withBody("TRUE")));
+
+        // when
+        GcpMetadataApi.WatchedValue result = gcpMetadataApi.waitForPreempted("etag-1", 60, new AbortSignal());
+
+        // then
+        assertEquals("TRUE", result.getValue());
+        assertEquals("etag-2", result.getEtag());
+    }
+
+    @Test
+    public void waitForMaintenanceEvent() {
+        // given
+        stubFor(get(urlEqualTo("/computeMetadata/v1/instance/maintenance-event?wait_for_change=true&timeout_sec=60&last_etag=etag-1"))
+                .withHeader("Metadata-Flavor", equalTo("Google"))
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-2").withBody("MIGRATE_ON_HOST_MAINTENANCE")));
+
+        // when
+        GcpMetadataApi.WatchedValue result = gcpMetadataApi.waitForMaintenanceEvent("etag-1", 60, new AbortSignal());
+
+        // then
+        assertEquals("MIGRATE_ON_HOST_MAINTENANCE", result.getValue());
+        assertEquals("etag-2", result.getEtag());
+    }
+
+    @Test
+    public void waitForPreemptedWithoutEtag() {
+        // given
+        stubFor(get(urlEqualTo("/computeMetadata/v1/instance/preempted"))
+                .withHeader("Metadata-Flavor", equalTo("Google"))
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-1").withBody("FALSE")));
+
+        // when
+        GcpMetadataApi.WatchedValue result = gcpMetadataApi.waitForPreempted(null, 60, new AbortSignal());
+
+        // then
+        assertEquals("FALSE", result.getValue());
+        assertEquals("etag-1", result.getEtag());
+    }
+
     private static String zoneResponse(String zone) {
         String sampleProjectId = "183928891381";
         return String.format("projects/%s/zones/%s", sampleProjectId, zone);
@@ -98,10 +163,11 @@ public class GcpMetadataApiTest {
                 .willReturn(aResponse().withStatus(200).withBody(accessTokenResponse(ACCESS_TOKEN))));
 
         // when
-        String result = gcpMetadataApi.accessToken();
+        AccessToken result = gcpMetadataApi.accessToken();
 
         // then
-        assertEquals(ACCESS_TOKEN, result);
+        assertEquals(ACCESS_TOKEN, result.getValue());
+        assertEquals(3599000L, result.getExpiresInMs());
     }
 
     private static String accessTokenResponse(String accessToken) {
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.internal.json.JsonValue;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InstancesPayloadScannerTest {
+    private static final String ZONE = "us-east1-b";
+
+    /**
+     * Contains the recognized keys also at the paths which must be skipped, escaped strings and all JSON value types.
+     */
+    private static final String INSTANCES_RESPONSE = "{\n"
+            + "  \"kind\": \"compute#instanceList\",\n"
+            + "  \"status\": \"not an instance\",\n"
+            + "  \"items\": [\n"
+            + "    {\n"
+            + "      \"id\": 1234567890,\n"
+            + "      \"name\": \"hz-\\\"quoted\\\"-\\u017c\\u00f3\\u0142w\",\n"
+            + "      \"deletionProtection\": false,\n"
+            + "      \"description\": null,\n"
+            + "      \"metadata\": {\"items\": [{\"key\": \"status\", \"value\": \"{\\\"networkIP\\\": \\\"1.1.1.1\\\"}\"}]},\n"
+            + "      \"tags\": {\"items\": [\"[hz]\", \"{member}\"]},\n"
+            + "      \"scheduling\": {\"preemptible\": true, \"nodeAffinities\": []},\n"
+            + "      \"networkInterfaces\": [\n"
+            + "        {\n"
+            + "          \"network\": \"https://www.googleapis.com/compute/v1/projects/project-1/global/networks/default\",\n"
+            + "          \"subnetwork\": \"https://www.googleapis.com/compute/v1/projects/project-1/regions/us-east1/subnetworks/default\",\n"
+            + "          \"networkIP\": \"10.240.0.2\",\n"
+            + "          \"aliasIpRanges\": [{\"ipCidrRange\": \"10.1.0.0/24\"}],\n"
+            + "          \"accessConfigs\": [{\"type\": \"ONE_TO_ONE_NAT\", \"name\": \"External NAT\", \"natIP\": \"35.207.0.219\"},"
+            + " {\"natIP\": \"35.207.0.220\"}],\n"
+            + "          \"fingerprint\": \"6ZV6\\/ZgPq+E=\"\n"
+            + "        },\n"
+            + "        {\"networkIP\": \"10.0.0.2\", \"ipv6Address\": \"fd20:a1b:c2d3:0:0:0:0:2\","
+            + " \"ipv6AccessConfigs\": [{\"type\": \"DIRECT_IPV6\"}, {\"externalIpv6\": \"2600:1900:4000:1a2b:0:0:0:0\"}]}\n"
+            + "      ],\n"
+            + "      \"status\": \"RUNNING\",\n"
+            + "      \"cpuPlatform\": \"Intel Haswell\",\n"
+            + "      \"labels\": {}\n"
+            + "    },\n"
+            + "    {\"name\": \"hz-2\", \"status\": \"TERMINATED\", \"networkInterfaces\": [{\"networkIP\": \"10.240.0.3\"}],"
+            + " \"accessConfigs\": [{\"natIP\": \"8.8.8.8\"}], \"creationTimestamp\": \"2017-05-18T07:54:24.521-07:00\"},\n"
+            + "    {\"name\": \"hz-3\", \"status\": \"RUNNING\"}\n"
+            + "  ],\n"
+            + "  \"selfLink\": \"https://www.googleapis.com/compute/v1/projects/project-1/zones/us-east1-b/instances\",\n"
+            + "  \"id\": -1.5e3\n"
+            + "}";
+
+    @Test
+    public void scanListEquivalentToJsonTree() {
+        // given
+        byte[] response = INSTANCES_RESPONSE.getBytes(StandardCharsets.UTF_8);
+
+        // when
+        List<InstancesPayloadScanner.Instance> result = InstancesPayloadScanner.scanList(response, ZONE).getInstances();
+
+        // then
+        assertEquals(fromJsonTree(INSTANCES_RESPONSE), describe(result));
+    }
+
+    @Test
+    public void scanListFields() {
+        // given
+        byte[] response = INSTANCES_RESPONSE.getBytes(StandardCharsets.UTF_8);
+
+        // when
+        List<InstancesPayloadScanner.Instance> result = InstancesPayloadScanner.scanList(response, ZONE).getInstances();
+
+        // then
+        assertEquals(3, result.size());
+        InstancesPayloadScanner.Instance instance = result.get(0);
+        assertEquals("hz-\"quoted\"-żółw", instance.getName());
+        assertEquals("RUNNING", instance.getStatus());
+        assertEquals(ZONE, instance.getZone());
+        assertEquals("10.240.0.2", instance.getNetworkInterfaces().get(0).getNetworkIp());
+        assertEquals("35.207.0.219", instance.getNetworkInterfaces().get(0).getNatIp());
+        assertEquals("2600:1900:4000:1a2b:0:0:0:0", instance.getNetworkInterfaces().get(1).getExternalIpv6());
+        assertNull(result.get(1).getNetworkInterfaces().get(0).getNatIp());
+        assertTrue(result.get(2).getNetworkInterfaces().isEmpty());
+    }
+
+    @Test
+    public void scanListEmpty() {
+        // given
+        byte[] response = "{\"kind\": \"compute#instanceList\", \"items\": []}".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        List<InstancesPayloadScanner.Instance> result = InstancesPayloadScanner.scanList(response, ZONE).getInstances();
+
+        // then
+        assertTrue(result.isEmpty());
+        assertNull(InstancesPayloadScanner.scanList(response, ZONE).getNextPageToken());
+    }
+
+    @Test
+    public void scanAggregatedList() {
+        // given
+        String response = "{\"items\": {"
+                + "\"regions/us-east1\": {\"instances\": [{\"name\": \"not-a-zone\", \"status\": \"RUNNING\"}]},"
+                + "\"zones/us-east1-b\": {\"instances\": [{\"name\": \"hz-1\", \"status\": \"RUNNING\"}]},"
+                + "\"zones/us-east1-c\": {\"warning\": {\"code\": \"NO_RESULTS_ON_PAGE\", \"data\": [{\"key\": \"scope\"}]}},"
+                + "\"zones/us-east1-d\": {\"instances\": [{\"name\": \"hz-2\", \"status\": \"STOPPING\"}]}},"
+                + "\"nextPageToken\": \"CkMI\"}";
+
+        // when
+        InstancesPayloadScanner.Page page = InstancesPayloadScanner.scanAggregatedList(response.getBytes(StandardCharsets.UTF_8));
+        List<InstancesPayloadScanner.Instance> result = page.getInstances();
+
+        // then
+        assertEquals("CkMI", page.getNextPageToken());
+        assertEquals(2, result.size());
+        assertEquals("hz-1", result.get(0).getName());
+        assertEquals("us-east1-b", result.get(0).getZone());
+        assertEquals("hz-2", result.get(1).getName());
+        assertEquals("us-east1-d", result.get(1).getZone());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scanListTruncated() {
+        // given
+        String truncated = INSTANCES_RESPONSE.substring(0, INSTANCES_RESPONSE.length() / 2);
+
+        // when
+        InstancesPayloadScanner.scanList(truncated.getBytes(StandardCharsets.UTF_8), ZONE);
+
+        // then
+        // throws exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scanListMissingComma() {
+        // given
+        byte[] response = "{\"items\": [{\"name\": \"hz-1\" \"status\": \"RUNNING\"}]}".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        InstancesPayloadScanner.scanList(response, ZONE);
+
+        // then
+        // throws exception
+    }
+
+    private static List<String> describe(List<InstancesPayloadScanner.Instance> instances) {
+        List<String> result = new ArrayList<String>();
+        for (InstancesPayloadScanner.Instance instance : instances) {
+            result.add(String.format("%s %s", instance.getName(), instance.getStatus()));
+            for (InstancesPayloadScanner.NetworkInterface networkInterface : instance.getNetworkInterfaces()) {
+                result.add(String.format("  %s %s %s %s %s %s", networkInterface.getNetwork(),
+                        networkInterface.getSubnetwork(), networkInterface.getNetworkIp(), networkInterface.getIpv6Address(),
+                        networkInterface.getNatIp(), networkInterface.getExternalIpv6()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reference extraction of the same fields with the Json tree, which was used before the scanner.
+     */
+    private static List<String> fromJsonTree(String response) {
+        List<String> result = new ArrayList<String>();
+        for (JsonValue item : Json.parse(response).asObject().get("items").asArray()) {
+            JsonObject instance = item.asObject();
+            result.add(String.format("%s %s", instance.getString("name", null), instance.getString("status", null)));
+            JsonValue networkInterfaces = instance.get("networkInterfaces");
+            if (networkInterfaces == null) {
+                continue;
+            }
+            for (JsonValue value : networkInterfaces.asArray()) {
+                JsonObject networkInterface = value.asObject();
+                result.add(String.format("  %s %s %s %s %s %s", networkInterface.getString("network", null),
+                        networkInterface.getString("subnetwork", null), networkInterface.getString("networkIP", null),
+                        networkInterface.getString("ipv6Address", null), firstOf(networkInterface.get("accessConfigs"), "natIP"),
+                        firstOf(networkInterface.get("ipv6AccessConfigs"), "externalIpv6")));
+            }
+        }
+        return result;
+    }
+
+    private static String firstOf(JsonValue accessConfigs, String field) {
+        if (accessConfigs == null) {
+            return null;
+        }
+        for (JsonValue accessConfig : accessConfigs.asArray()) {
+            String result = accessConfig.asObject().getString(field, null);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
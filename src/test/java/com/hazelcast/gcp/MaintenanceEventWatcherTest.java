@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MaintenanceEventWatcherTest {
+    private static final String MIGRATE = "MIGRATE_ON_HOST_MAINTENANCE";
+
+    private GcpMaintenanceListener listener;
+    private MaintenanceEventWatcher watcher;
+
+    @Before
+    public void setUp() {
+        listener = mock(GcpMaintenanceListener.class);
+        watcher = new MaintenanceEventWatcher(mock(GcpMetadataApi.class));
+        watcher.addListener(listener);
+    }
+
+    @Test
+    public void onValueInitialNone() {
+        // when
+        watcher.onValue(MaintenanceEventWatcher.NO_MAINTENANCE);
+
+        // then
+        verify(listener, never()).maintenanceEventChanged(anyString(), anyString());
+        assertEquals(MaintenanceEventWatcher.NO_MAINTENANCE, watcher.maintenanceEvent());
+    }
+
+    @Test
+    public void onValueUpcomingMaintenance() {
+        // given
+        watcher.onValue(MaintenanceEventWatcher.NO_MAINTENANCE);
+
+        // when
+        watcher.onValue(MIGRATE);
+        watcher.onValue(MIGRATE);
+        watcher.onValue(MaintenanceEventWatcher.NO_MAINTENANCE);
+
+        // then
+        verify(listener, times(1)).maintenanceEventChanged(MaintenanceEventWatcher.NO_MAINTENANCE, MIGRATE);
+        verify(listener, times(1)).maintenanceEventChanged(MIGRATE, MaintenanceEventWatcher.NO_MAINTENANCE);
+        assertEquals(MaintenanceEventWatcher.NO_MAINTENANCE, watcher.maintenanceEvent());
+    }
+
+    @Test
+    public void onValueInitialMaintenance() {
+        // when
+        watcher.onValue(MIGRATE);
+
+        // then
+        verify(listener).maintenanceEventChanged(null, MIGRATE);
+    }
+
+    @Test
+    public void removeListener() {
+        // given
+        watcher.removeListener(listener);
+
+        // when
+        watcher.onValue(MIGRATE);
+
+        // then
+        verify(listener, never()).maintenanceEventChanged(anyString(), anyString());
+    }
+
+    @Test
+    public void maintenanceEventUnknown() {
+        assertNull(watcher.maintenanceEvent());
+    }
+}
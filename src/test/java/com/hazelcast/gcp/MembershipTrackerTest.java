@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class MembershipTrackerTest {
+    private static final GcpAddress ADDRESS_1 = new GcpAddress("10.240.0.2", "35.207.0.219", "us-east1-b");
+    private static final GcpAddress ADDRESS_2 = new GcpAddress("10.240.0.3", null, "us-east1-c");
+    private static final GcpAddress ADDRESS_3 = new GcpAddress("10.240.0.4", null, "us-east1-b");
+    private static final GcpAddress ADDRESS_1_NEW_PUBLIC_IP = new GcpAddress("10.240.0.2", "35.207.0.220", "us-east1-b");
+
+    private MembershipTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new MembershipTracker();
+    }
+
+    @Test
+    public void updateFirstRound() {
+        // when
+        List<GcpMembershipEvent> events = tracker.update(asList(ADDRESS_1, ADDRESS_2));
+
+        // then
+        assertEquals(2, events.size());
+        assertEquals(GcpMembershipEvent.Type.ADDED, events.get(0).getType());
+        assertEquals("10.240.0.2", events.get(0).getPrivateAddress());
+        assertEquals("35.207.0.219", events.get(0).getPublicAddress());
+        assertEquals(GcpMembershipEvent.Type.ADDED, events.get(1).getType());
+        assertEquals(2, tracker.addedCount());
+    }
+
+    @Test
+    public void updateDelta() {
+        // given
+        tracker.update(asList(ADDRESS_1, ADDRESS_2));
+
+        // when
+        List<GcpMembershipEvent> events = tracker.update(asList(ADDRESS_1_NEW_PUBLIC_IP, ADDRESS_3));
+
+        // then
+        assertEquals(3, events.size());
+        assertEquals(GcpMembershipEvent.Type.ADDRESS_CHANGED, events.get(0).getType());
+        assertEquals("35.207.0.219", events.get(0).getPreviousPublicAddress());
+        assertEquals("35.207.0.220", events.get(0).getPublicAddress());
+        assertEquals(GcpMembershipEvent.Type.ADDED, events.get(1).getType());
+        assertEquals("10.240.0.4", events.get(1).getPrivateAddress());
+        assertEquals(GcpMembershipEvent.Type.REMOVED, events.get(2).getType());
+        assertEquals("10.240.0.3", events.get(2).getPrivateAddress());
+        assertEquals("us-east1-c", events.get(2).getZone());
+        assertEquals(3, tracker.addedCount());
+        assertEquals(1, tracker.removedCount());
+        assertEquals(1, tracker.changedCount());
+    }
+
+    @Test
+    public void updateDuplicatePrivateAddress() {
+        // when
+        List<GcpMembershipEvent> events = tracker.update(asList(ADDRESS_1, ADDRESS_1_NEW_PUBLIC_IP));
+
+        // then
+        assertEquals(1, events.size());
+        assertEquals("35.207.0.219", events.get(0).getPublicAddress());
+    }
+
+    @Test
+    public void updateUnchanged() {
+        // given
+        GcpMembershipListener listener = mock(GcpMembershipListener.class);
+        tracker.update(asList(ADDRESS_1, ADDRESS_2));
+        tracker.addListener(listener);
+
+        // when
+        List<GcpMembershipEvent> events = tracker.update(asList(ADDRESS_2, ADDRESS_1));
+
+        // then
+        assertTrue(events.isEmpty());
+        verify(listener, never()).membershipChanged(anyListOf(GcpMembershipEvent.class));
+    }
+
+    @Test
+    public void updateNotifiesListeners() {
+        // given
+        GcpMembershipListener failingListener = mock(GcpMembershipListener.class);
+        GcpMembershipListener listener = mock(GcpMembershipListener.class);
+        doThrow(new IllegalStateException("failure")).when(failingListener)
+                .membershipChanged(anyListOf(GcpMembershipEvent.class));
+        tracker.addListener(failingListener);
+        tracker.addListener(listener);
+
+        // when
+        List<GcpMembershipEvent> events = tracker.update(Collections.singletonList(ADDRESS_1));
+
+        // then
+        verify(listener).membershipChanged(events);
+    }
+
+    @Test
+    public void updateNotifiesListenersInResultOrder()
+            throws Exception {
+        // given
+        final CountDownLatch firstNotificationStarted = new CountDownLatch(1);
+        final CountDownLatch firstNotificationReleased = new CountDownLatch(1);
+        final List<List<GcpMembershipEvent>> notifications = new CopyOnWriteArrayList<List<GcpMembershipEvent>>();
+        tracker.addListener(new GcpMembershipListener() {
+            @Override
+            public void membershipChanged(List<GcpMembershipEvent> events) {
+                notifications.add(events);
+                firstNotificationStarted.countDown();
+                await(firstNotificationReleased);
+            }
+        });
+        Thread firstRound = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                tracker.update(Collections.singletonList(ADDRESS_1));
+            }
+        });
+        firstRound.start();
+        firstNotificationStarted.await();
+
+        // when
+        Thread secondRound = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                tracker.update(Collections.<GcpAddress>emptyList());
+            }
+        });
+        secondRound.start();
+        while (secondRound.getState() != Thread.State.BLOCKED && secondRound.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        int notificationsDuringFirst = notifications.size();
+        firstNotificationReleased.countDown();
+        firstRound.join();
+        secondRound.join();
+
+        // then
+        assertEquals(1, notificationsDuringFirst);
+        assertEquals(2, notifications.size());
+        assertEquals(GcpMembershipEvent.Type.ADDED, notifications.get(0).get(0).getType());
+        assertEquals(GcpMembershipEvent.Type.REMOVED, notifications.get(1).get(0).getType());
+    }
+
+    @Test
+    public void churnRate() {
+        // given
+        tracker.update(asList(ADDRESS_1, ADDRESS_2));
+
+        // when
+        tracker.update(asList(ADDRESS_1, ADDRESS_2));
+
+        // then
+        assertEquals(2, tracker.rounds());
+        assertEquals(1.6, tracker.churnRate(), 0.001);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
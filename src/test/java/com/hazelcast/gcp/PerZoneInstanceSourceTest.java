@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PerZoneInstanceSourceTest {
+    private static final long MAX_STALENESS_MS = 60000L;
+    private static final List<String> NO_KEYWORDS = Collections.emptyList();
+    private static final List<String> PROJECTS = asList("project-1", "project-2");
+    private static final List<String> ZONES = asList("us-east1-b", "us-east1-c");
+    private static final GcpAddress ADDRESS_1 = new GcpAddress("10.240.0.2", null, "us-east1-b");
+    private static final GcpAddress ADDRESS_2 = new GcpAddress("10.240.0.3", null, "us-east1-c");
+    private static final GcpAddress ADDRESS_3 = new GcpAddress("10.240.0.4", null, "us-east1-b");
+
+    private InstanceSource delegate;
+    private Executor executor;
+    private ManualClock clock;
+    private ZoneRefreshScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        delegate = mock(InstanceSource.class);
+        executor = PerZoneInstanceSource.newExecutor(2);
+        clock = new ManualClock();
+        scheduler = new ZoneRefreshScheduler(0, clock);
+    }
+
+    @Test
+    public void instancesZonal() {
+        // given
+        when(delegate.instances(singletonList("project-1"), singletonList("us-east1-b"), null))
+                .thenReturn(singletonList(ADDRESS_1));
+        when(delegate.instances(singletonList("project-1"), singletonList("us-east1-c"), null))
+                .thenReturn(singletonList(ADDRESS_2));
+        when(delegate.instances(singletonList("project-2"), singletonList("us-east1-b"), null))
+                .thenReturn(singletonList(ADDRESS_3));
+        when(delegate.instances(singletonList("project-2"), singletonList("us-east1-c"), null))
+                .thenReturn(Collections.<GcpAddress>emptyList());
+        PerZoneInstanceSource instanceSource = new PerZoneInstanceSource(delegate, true, executor, 0, NO_KEYWORDS, scheduler);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(PROJECTS, ZONES, null);
+
+        // then
+        assertEquals(asList(ADDRESS_1, ADDRESS_2, ADDRESS_3), result);
+    }
+
+    @Test
+    public void instancesPerProject() {
+        // given
+        when(delegate.instances(singletonList("project-1"), ZONES, null)).thenReturn(asList(ADDRESS_1, ADDRESS_2));
+        when(delegate.instances(singletonList("project-2"), ZONES, null)).thenReturn(singletonList(ADDRESS_3));
+        PerZoneInstanceSource instanceSource = new PerZoneInstanceSource(delegate, false, executor, 0, NO_KEYWORDS, scheduler);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(PROJECTS, ZONES, null);
+
+        // then
+        assertEquals(asList(ADDRESS_1, ADDRESS_2, ADDRESS_3), result);
+        verify(delegate).instances(singletonList("project-2"), ZONES, null);
+    }
+
+    @Test
+    public void instancesPartialFailure() {
+        // given
+        when(delegate.instances(singletonList("project-1"), ZONES, null)).thenThrow(new IllegalStateException("failure"));
+        when(delegate.instances(singletonList("project-2"), ZONES, null)).thenReturn(singletonList(ADDRESS_3));
+        PerZoneInstanceSource instanceSource = new PerZoneInstanceSource(delegate, false, executor, 0, NO_KEYWORDS, scheduler);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(PROJECTS, ZONES, null);
+
+        // then
+        assertEquals(singletonList(ADDRESS_3), result);
+        assertTrue(PartialResult.isPartial(result));
+        assertEquals(singletonList("project-1"), ((PartialResult) result).getFailedUnits());
+    }
+
+    @Test
+    public void instancesFailedZoneUsesLastKnownResult() {
+        // given
+        when(delegate.instances(singletonList("project-1"), singletonList("us-east1-b"), null))
+                .thenReturn(singletonList(ADDRESS_1))
+                .thenThrow(new IllegalStateException("failure"));
+        when(delegate.instances(singletonList("project-1"), singletonList("us-east1-c"), null))
+                .thenReturn(singletonList(ADDRESS_2));
+        PerZoneInstanceSource instanceSource = new PerZoneInstanceSource(delegate, true,
+                PerZoneInstanceSource.newExecutor(1), 0, NO_KEYWORDS, scheduler);
+        List<String> projects = singletonList("project-1");
+        instanceSource.instances(projects, ZONES, null);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(projects, ZONES, null);
+
+        // then
+        assertEquals(asList(ADDRESS_1, ADDRESS_2), result);
+        assertEquals(singletonList("project-1/us-east1-b"), ((PartialResult) result).getFailedUnits());
+    }
+
+    @Test
+    public void instancesFailedZoneRetriedOnItsOwn() {
+        // given
+        when(delegate.instances(singletonList("project-1"), singletonList("us-east1-b"), null))
+                .thenThrow(new IllegalStateException("failure"))
+                .thenReturn(singletonList(ADDRESS_1));
+        when(delegate.instances(singletonList("project-1"), singletonList("us-east1-c"), null))
+                .thenReturn(singletonList(ADDRESS_2));
+        PerZoneInstanceSource instanceSource = new PerZoneInstanceSource(delegate, true,
+                PerZoneInstanceSource.newExecutor(1), 1, NO_KEYWORDS, scheduler);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(singletonList("project-1"), ZONES, null);
+
+        // then
+        assertEquals(asList(ADDRESS_1, ADDRESS_2), result);
+        assertFalse(PartialResult.isPartial(result));
+        verify(delegate).instances(singletonList("project-1"), singletonList("us-east1-c"), null);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void instancesAllFailed() {
+        // given
+        when(delegate.instances(singletonList("project-1"), ZONES, null)).thenThrow(new IllegalStateException("failure"));
+        when(delegate.instances(singletonList("project-2"), ZONES, null)).thenThrow(new IllegalStateException("failure"));
+        PerZoneInstanceSource instanceSource = new PerZoneInstanceSource(delegate, false, executor, 0, NO_KEYWORDS, scheduler);
+
+        // when
+        instanceSource.instances(PROJECTS, ZONES, null);
+
+        // then
+        // throws exception
+    }
+
+    @Test
+    public void instancesReusesUnchangedZoneUntilDue() {
+        // given
+        when(delegate.instances(singletonList("project-1"), singletonList("us-east1-b"), null))
+                .thenReturn(singletonList(ADDRESS_1));
+        when(delegate.instances(singletonList("project-1"), singletonList("us-east1-c"), null))
+                .thenReturn(singletonList(ADDRESS_2), Collections.<GcpAddress>emptyList());
+        scheduler = new ZoneRefreshScheduler(MAX_STALENESS_MS, clock);
+        PerZoneInstanceSource instanceSource = new PerZoneInstanceSource(delegate, true,
+                PerZoneInstanceSource.newExecutor(1), 0, NO_KEYWORDS, scheduler);
+        List<String> projects = singletonList("project-1");
+        instanceSource.instances(projects, ZONES, null);
+        clock.advance(ZoneRefreshScheduler.MIN_INTERVAL_MS - 1);
+        instanceSource.instances(projects, ZONES, null);
+        clock.advance(1);
+
+        // when
+        List<GcpAddress> result = instanceSource.instances(projects, ZONES, null);
+
+        // then
+        assertEquals(singletonList(ADDRESS_1), result);
+        verify(delegate, times(2)).instances(projects, singletonList("us-east1-b"), null);
+        verify(delegate, times(2)).instances(projects, singletonList("us-east1-c"), null);
+        GcpZoneRefreshMetrics metrics = scheduler.metrics().get("project-1/us-east1-c");
+        assertEquals(2, metrics.getRefreshCount());
+        assertEquals(1, metrics.getSkippedCount());
+        assertEquals(1, metrics.getChangeCount());
+        assertEquals(0, metrics.getRefreshIntervalMs());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class PreemptionWatcherTest {
+    private static final String PREEMPTED = "/computeMetadata/v1/instance/preempted";
+    private static final String WAIT_FOR_CHANGE = String.format("%s?wait_for_change=true&timeout_sec=%s&last_etag=%%s",
+            PREEMPTED, MetadataWatcher.WAIT_TIMEOUT_SEC);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    private GcpMetadataApi gcpMetadataApi;
+    private GcpPreemptionListener listener;
+
+    @Before
+    public void setUp() {
+        gcpMetadataApi = new GcpMetadataApi(String.format("http://localhost:%s", wireMockRule.port()));
+        listener = mock(GcpPreemptionListener.class);
+    }
+
+    @Test
+    public void runUntilPreempted() {
+        // given
+        stubFor(get(urlEqualTo(PREEMPTED))
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-1").withBody("FALSE")));
+        stubFor(get(urlEqualTo(String.format(WAIT_FOR_CHANGE, "etag-1")))
+                .inScenario("preemption").whenScenarioStateIs(Scenario.STARTED).willSetStateTo("preempted")
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-1").withBody("FALSE")));
+        stubFor(get(urlEqualTo(String.format(WAIT_FOR_CHANGE, "etag-1")))
+                .inScenario("preemption").whenScenarioStateIs("preempted")
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-2").withBody("TRUE")));
+        PreemptionWatcher watcher = new PreemptionWatcher(gcpMetadataApi, listener, 1L);
+
+        // when
+        watcher.run();
+
+        // then
+        verify(listener).preempted();
+        WireMock.verify(2, getRequestedFor(urlEqualTo(String.format(WAIT_FOR_CHANGE, "etag-1"))));
+    }
+
+    @Test
+    public void runRetriesFailures() {
+        // given
+        stubFor(get(urlEqualTo(PREEMPTED))
+                .inScenario("failure").whenScenarioStateIs(Scenario.STARTED).willSetStateTo("recovered")
+                .willReturn(aResponse().withStatus(503)));
+        stubFor(get(urlEqualTo(PREEMPTED))
+                .inScenario("failure").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-1").withBody("TRUE")));
+        PreemptionWatcher watcher = new PreemptionWatcher(gcpMetadataApi, listener, 1L);
+
+        // when
+        watcher.run();
+
+        // then
+        verify(listener).preempted();
+    }
+
+    @Test
+    public void stopAbortsWaitForChange()
+            throws InterruptedException {
+        // given
+        stubFor(get(urlEqualTo(PREEMPTED))
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-1").withBody("FALSE")));
+        stubFor(get(urlEqualTo(String.format(WAIT_FOR_CHANGE, "etag-1")))
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-2").withBody("TRUE").withFixedDelay(5000)));
+        PreemptionWatcher watcher = new PreemptionWatcher(gcpMetadataApi, listener, 1L);
+        Thread watcherThread = new Thread(watcher);
+        watcherThread.start();
+        awaitRequest(String.format(WAIT_FOR_CHANGE, "etag-1"));
+
+        // when
+        watcher.stop();
+
+        // then
+        watcherThread.join(2000);
+        assertFalse(watcherThread.isAlive());
+        verify(listener, never()).preempted();
+    }
+
+    @Test
+    public void runStopped() {
+        // given
+        PreemptionWatcher watcher = new PreemptionWatcher(gcpMetadataApi, listener, 1L);
+        watcher.stop();
+
+        // when
+        watcher.run();
+
+        // then
+        verify(listener, never()).preempted();
+        WireMock.verify(0, getRequestedFor(urlMatching(String.format("%s.*", PREEMPTED))));
+    }
+
+    private static void awaitRequest(String url)
+            throws InterruptedException {
+        while (WireMock.findAll(getRequestedFor(urlEqualTo(url))).isEmpty()) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ProjectZonesCacheTest {
+    private static final String KEY = "projects=[];zones=[];region=null";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void storeAndLoad() {
+        // given
+        ProjectZonesCache cache = new ProjectZonesCache(temporaryFolder.getRoot(), KEY);
+        cache.store(singletonList("project-1"), asList("us-east1-b", "us-east1-c"), 1234L);
+
+        // when
+        ProjectZonesCache.Entry result = new ProjectZonesCache(temporaryFolder.getRoot(), KEY).load();
+
+        // then
+        assertEquals(singletonList("project-1"), result.getProjects());
+        assertEquals(asList("us-east1-b", "us-east1-c"), result.getZones());
+        assertEquals(1234L, result.getRefreshTimeMs());
+    }
+
+    @Test
+    public void loadMissingFile() {
+        // given
+        ProjectZonesCache cache = new ProjectZonesCache(temporaryFolder.getRoot(), KEY);
+
+        // when
+        ProjectZonesCache.Entry result = cache.load();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void loadDifferentConfiguration() {
+        // given
+        new ProjectZonesCache(temporaryFolder.getRoot(), KEY).store(singletonList("project-1"), singletonList("zone-1"), 1L);
+        File cacheFile = temporaryFolder.getRoot().listFiles()[0];
+        File otherKeyFile = new File(temporaryFolder.getRoot(),
+                String.format("hazelcast-gcp-%08x.zones", "other-key".hashCode()));
+        cacheFile.renameTo(otherKeyFile);
+
+        // when
+        ProjectZonesCache.Entry result = new ProjectZonesCache(temporaryFolder.getRoot(), "other-key").load();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void loadCorruptedFile()
+            throws IOException {
+        // given
+        ProjectZonesCache cache = new ProjectZonesCache(temporaryFolder.getRoot(), KEY);
+        cache.store(singletonList("project-1"), singletonList("zone-1"), 1L);
+        File cacheFile = temporaryFolder.getRoot().listFiles()[0];
+        FileOutputStream os = new FileOutputStream(cacheFile);
+        os.write("key=projects=[];zones=[];region=null\nprojects=p\nzones=z\nrefresh-time-ms=x".getBytes(StandardCharsets.UTF_8));
+        os.close();
+
+        // when
+        ProjectZonesCache.Entry result = cache.load();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void createWithoutCacheDirectory() {
+        // given
+        GcpConfig gcpConfig = GcpConfig.builder().build();
+
+        // when
+        ProjectZonesCache result = ProjectZonesCache.create(gcpConfig);
+
+        // then
+        assertNull(result);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ResponseReaderTest {
+    private static final int MAX_RESPONSE_BYTES = 1024 * 1024;
+
+    @Test
+    public void readStringWithContentLength()
+            throws IOException {
+        // given
+        byte[] body = "{\"name\":\"hazelcast-żółw\"}".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        String result = ResponseReader.readString(new ByteArrayInputStream(body), body.length, MAX_RESPONSE_BYTES);
+
+        // then
+        assertEquals("{\"name\":\"hazelcast-żółw\"}", result);
+    }
+
+    @Test
+    public void readStringWithoutContentLength()
+            throws IOException {
+        // given
+        byte[] body = largeBody(100 * 1024);
+
+        // when
+        String result = ResponseReader.readString(new TrickleInputStream(body), -1, MAX_RESPONSE_BYTES);
+
+        // then
+        assertEquals(new String(body, StandardCharsets.UTF_8), result);
+    }
+
+    @Test
+    public void readStringEmpty()
+            throws IOException {
+        // when
+        String result = ResponseReader.readString(new ByteArrayInputStream(new byte[0]), 0, MAX_RESPONSE_BYTES);
+
+        // then
+        assertEquals("", result);
+    }
+
+    @Test
+    public void readBytesReusesBufferAcrossCalls()
+            throws IOException {
+        // given
+        byte[] large = largeBody(16 * 1024);
+        byte[] small = "small".getBytes(StandardCharsets.UTF_8);
+        ResponseReader.readBytes(new ByteArrayInputStream(large), -1, MAX_RESPONSE_BYTES);
+
+        // when
+        byte[] result = ResponseReader.readBytes(new ByteArrayInputStream(small), -1, MAX_RESPONSE_BYTES);
+
+        // then
+        assertArrayEquals(small, result);
+    }
+
+    @Test
+    public void readStringExactlyMaxResponseBytes()
+            throws IOException {
+        // given
+        byte[] body = largeBody(MAX_RESPONSE_BYTES);
+
+        // when
+        String result = ResponseReader.readString(new TrickleInputStream(body), -1, MAX_RESPONSE_BYTES);
+
+        // then
+        assertEquals(MAX_RESPONSE_BYTES, result.length());
+    }
+
+    @Test(expected = RestClientException.class)
+    public void readStringContentLengthExceedsMaxResponseBytes()
+            throws IOException {
+        // given
+        byte[] body = largeBody(MAX_RESPONSE_BYTES + 1);
+
+        // when
+        ResponseReader.readString(new ByteArrayInputStream(body), body.length, MAX_RESPONSE_BYTES);
+
+        // then
+        // throws exception
+    }
+
+    @Test(expected = RestClientException.class)
+    public void readStringStreamExceedsMaxResponseBytes()
+            throws IOException {
+        // given
+        byte[] body = largeBody(MAX_RESPONSE_BYTES + 1);
+
+        // when
+        ResponseReader.readString(new TrickleInputStream(body), -1, MAX_RESPONSE_BYTES);
+
+        // then
+        // throws exception
+    }
+
+    private static byte[] largeBody(int size) {
+        byte[] result = new byte[size];
+        Arrays.fill(result, (byte) 'a');
+        return result;
+    }
+
+    /**
+     * Returns at most a few bytes per read, like a slow network stream.
+     */
+    private static final class TrickleInputStream
+            extends InputStream {
+        private static final int CHUNK = 1000;
+
+        private final ByteArrayInputStream delegate;
+
+        private TrickleInputStream(byte[] bytes) {
+            this.delegate = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return delegate.read(b, off, Math.min(len, CHUNK));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RestClientExceptionTest {
+
+    @Test
+    public void isRetryable() {
+        assertTrue(new RestClientException("connection refused", new IOException()).isRetryable());
+        assertTrue(new RestClientException("timeout", 408).isRetryable());
+        assertTrue(new RestClientException("too many requests", 429).isRetryable());
+        assertTrue(new RestClientException("server error", 500).isRetryable());
+        assertTrue(new RestClientException("unavailable", 503).isRetryable());
+        assertTrue(new RestClientException("quota", 403, "rateLimitExceeded", -1).isRetryable());
+        assertTrue(new RestClientException("quota", 403, "userRateLimitExceeded", -1).isRetryable());
+
+        assertFalse(new RestClientException("unauthorized", 401).isRetryable());
+        assertFalse(new RestClientException("forbidden", 403, "forbidden", -1).isRetryable());
+        assertFalse(new RestClientException("not found", 404).isRetryable());
+        assertFalse(RestClientException.permanent("too large").isRetryable());
+    }
+
+    @Test
+    public void isThrottled() {
+        assertTrue(new RestClientException("too many requests", 429).isThrottled());
+        assertTrue(new RestClientException("quota", 403, "RESOURCE_EXHAUSTED", -1).isThrottled());
+        assertFalse(new RestClientException("server error", 500).isThrottled());
+    }
+}
@@ -20,14 +20,21 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class RestClientTest {
     private static final String API_ENDPOINT = "/some/endpoint";
@@ -57,6 +64,36 @@ public class RestClientTest {
         assertEquals(BODY_RESPONSE, result);
     }
 
+    @Test
+    public void getBytesSuccess() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE)));
+
+        // when
+        byte[] result = RestClient.create(String.format("%s%s", address, API_ENDPOINT)).getBytes();
+
+        // then
+        assertEquals(BODY_RESPONSE, new String(result, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void getWithResponseHeader() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "etag-1").withBody(BODY_RESPONSE)));
+        RestClient restClient = RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                                          .withResponseHeader("ETag")
+                                          .withResponseHeader("Absent-Header");
+
+        // when
+        restClient.get();
+
+        // then
+        assertEquals("etag-1", restClient.responseHeader("ETag"));
+        assertNull(restClient.responseHeader("Absent-Header"));
+    }
+
     @Test
     public void getWithHeaderSuccess() {
         // given
@@ -88,6 +125,58 @@ public class RestClientTest {
         // throw exception
     }
 
+    @Test(expected = RestClientException.class)
+    public void getExceedingMaxResponseBytes() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE)));
+
+        // when
+        RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                .withMaxResponseBytes(BODY_RESPONSE.length() - 1)
+                .get();
+
+        // then
+        // throws exception
+    }
+
+    @Test
+    public void getFailureWithRetryAfterAndReason() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(403).withHeader("Retry-After", "30")
+                        .withBody("{\"error\": {\"code\": 403, \"errors\": [{\"reason\": \"rateLimitExceeded\"}]}}")));
+
+        // when
+        try {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT)).get();
+            fail("Expected RestClientException");
+        } catch (RestClientException e) {
+            // then
+            assertEquals(403, e.getHttpErrorCode());
+            assertEquals("rateLimitExceeded", e.getReason());
+            assertEquals(30000L, e.getRetryAfterMs());
+            assertTrue(e.isRetryable());
+        }
+    }
+
+    @Test
+    public void parseRetryAfterMs() {
+        long nowMs = 1445412480000L;
+        assertEquals(120000L, RestClient.parseRetryAfterMs("120", nowMs));
+        assertEquals(5000L, RestClient.parseRetryAfterMs("Wed, 21 Oct 2015 07:28:05 GMT", nowMs));
+        assertEquals(0L, RestClient.parseRetryAfterMs("Wed, 21 Oct 2015 07:00:00 GMT", nowMs));
+        assertEquals(-1L, RestClient.parseRetryAfterMs("soon", nowMs));
+        assertEquals(-1L, RestClient.parseRetryAfterMs(null, nowMs));
+    }
+
+    @Test
+    public void errorReason() {
+        assertEquals("PERMISSION_DENIED", RestClient.errorReason("{\"error\": {\"status\": \"PERMISSION_DENIED\"}}"));
+        assertNull(RestClient.errorReason("{\"error\": \"invalid_grant\"}"));
+        assertNull(RestClient.errorReason("Service account not enabled on this instance"));
+    }
+
     @Test
     public void postSuccess() {
         // given
@@ -103,4 +192,93 @@ public class RestClientTest {
         // then
         assertEquals(BODY_RESPONSE, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getWithTimeoutFailsPromptly() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE).withFixedDelay(5000)));
+        AdaptiveTimeout timeout = new AdaptiveTimeout(new TimeoutPolicy(100, 200, 3.0f));
+        long startTimeMs = System.currentTimeMillis();
+
+        // when
+        try {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT)).withTimeout(timeout).get();
+            fail("Expected RestClientException");
+        } catch (RestClientException e) {
+            // expected
+        }
+
+        // then
+        assertTrue(System.currentTimeMillis() - startTimeMs < 2000);
+    }
+
+    @Test
+    public void getAbortedFailsPromptly() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE).withFixedDelay(5000)));
+        final AbortSignal abortSignal = new AbortSignal();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sleep(200);
+                abortSignal.abort();
+            }
+        }).start();
+        long startTimeMs = System.currentTimeMillis();
+
+        // when
+        try {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT)).withAbortSignal(abortSignal).get();
+            fail("Expected RestClientException");
+        } catch (RestClientException e) {
+            // expected
+        }
+
+        // then
+        assertTrue(System.currentTimeMillis() - startTimeMs < 2000);
+    }
+
+    @Test
+    public void getAfterAbortNotSent() {
+        // given
+        AbortSignal abortSignal = new AbortSignal();
+        abortSignal.abort();
+
+        // when
+        try {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT)).withAbortSignal(abortSignal).get();
+            fail("Expected RestClientException");
+        } catch (RestClientException e) {
+            // expected
+        }
+
+        // then
+        verify(0, getRequestedFor(urlEqualTo(API_ENDPOINT)));
+    }
+
+    @Test
+    public void getWithTimeoutRecordsLatency() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE).withFixedDelay(50)));
+        AdaptiveTimeout timeout = new AdaptiveTimeout(new TimeoutPolicy(100, 60000, 3.0f));
+
+        // when
+        for (int i = 0; i < AdaptiveTimeout.MIN_SAMPLES; i++) {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT)).withTimeout(timeout).get();
+        }
+
+        // then
+        assertTrue(timeout.timeoutMs() < 60000);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
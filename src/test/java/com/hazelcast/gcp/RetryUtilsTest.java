@@ -24,7 +24,9 @@ import java.util.concurrent.Callable;
 import static com.hazelcast.gcp.RetryUtils.BACKOFF_MULTIPLIER;
 import static com.hazelcast.gcp.RetryUtils.INITIAL_BACKOFF_MS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -107,6 +109,47 @@ public class RetryUtilsTest {
         assertTrue(twoBackoffIntervalsMs < (endTimeMs - startTimeMs));
     }
 
+    @Test
+    public void retryPermanentHttpErrorNotRetried()
+            throws Exception {
+        // given
+        RestClientException exception = new RestClientException("forbidden", 403, "forbidden", -1);
+        given(callable.call()).willThrow(exception).willReturn(RESULT);
+
+        // when
+        try {
+            RetryUtils.retry(callable, RETRIES);
+            fail("Expected RestClientException");
+        } catch (RestClientException e) {
+            // then
+            assertSame(exception, e);
+        }
+        verify(callable).call();
+    }
+
+    @Test
+    public void retryThrottledHttpError()
+            throws Exception {
+        // given
+        given(callable.call()).willThrow(new HazelcastException(new RestClientException("quota", 403, "rateLimitExceeded", 0)))
+                              .willReturn(RESULT);
+
+        // when
+        String result = RetryUtils.retry(callable, RETRIES);
+
+        // then
+        assertEquals(RESULT, result);
+        verify(callable, times(2)).call();
+    }
+
+    @Test
+    public void waitIntervalMsHonoursRetryAfter() {
+        assertEquals(INITIAL_BACKOFF_MS, RetryUtils.waitIntervalMs(1, null));
+        assertEquals(INITIAL_BACKOFF_MS, RetryUtils.waitIntervalMs(1, new RestClientException("unavailable", 503, null, 100)));
+        assertEquals(30000L, RetryUtils.waitIntervalMs(1, new RestClientException("unavailable", 503, null, 30000)));
+        assertEquals(300000L, RetryUtils.waitIntervalMs(1, new RestClientException("unavailable", 503, null, 3600000)));
+    }
+
     @Test(expected = HazelcastException.class)
     public void retryNonRetryableKeywords()
             throws Exception {
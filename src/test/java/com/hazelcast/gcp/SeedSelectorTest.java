@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SeedSelectorTest {
+    private static final List<String> ZONES = asList("us-east1-b", "us-east1-c", "us-east1-d");
+
+    @Test
+    public void selectAllWhenDisabled() {
+        // given
+        List<GcpAddress> addresses = addresses(10);
+
+        // when
+        List<GcpAddress> result = new SeedSelector(0).select(addresses, "123");
+
+        // then
+        assertSame(addresses, result);
+    }
+
+    @Test
+    public void selectAllWhenFewerInstancesThanSeeds() {
+        // given
+        List<GcpAddress> addresses = addresses(5);
+
+        // when
+        List<GcpAddress> result = new SeedSelector(5).select(addresses, "123");
+
+        // then
+        assertSame(addresses, result);
+    }
+
+    @Test
+    public void selectIncludesOldest() {
+        // given
+        List<GcpAddress> addresses = new ArrayList<GcpAddress>(addresses(100));
+        GcpAddress oldest = new GcpAddress("10.0.9.9", null, "us-east1-c", null, null, 1L);
+        addresses.add(50, oldest);
+
+        // when
+        List<GcpAddress> result = new SeedSelector(10).select(addresses, "123");
+
+        // then
+        assertEquals(10, result.size());
+        assertEquals(oldest, result.get(0));
+        assertTrue(result.containsAll(asList(addresses.get(0), addresses.get(1))));
+    }
+
+    @Test
+    public void selectOldestByPrivateAddressWhenCreationTimeUnknown() {
+        // given
+        List<GcpAddress> addresses = new ArrayList<GcpAddress>();
+        for (int i = 9; i >= 0; i--) {
+            addresses.add(new GcpAddress(String.format("10.0.0.%s", i), null));
+        }
+
+        // when
+        List<GcpAddress> result = new SeedSelector(3).select(addresses, "123");
+
+        // then
+        assertEquals(asList(new GcpAddress("10.0.0.0", null), new GcpAddress("10.0.0.1", null),
+                new GcpAddress("10.0.0.2", null)), result);
+    }
+
+    @Test
+    public void selectBalancedAcrossZones() {
+        // given
+        List<GcpAddress> addresses = addresses(300);
+
+        // when
+        List<GcpAddress> result = new SeedSelector(3 + 9).select(addresses, "123");
+
+        // then
+        Map<String, Integer> perZone = new HashMap<String, Integer>();
+        for (GcpAddress address : result.subList(SeedSelector.OLDEST_SEEDS, result.size())) {
+            Integer count = perZone.get(address.getZone());
+            perZone.put(address.getZone(), count == null ? 1 : count + 1);
+        }
+        assertEquals(3, perZone.size());
+        for (Integer count : perZone.values()) {
+            assertEquals(3, (int) count);
+        }
+    }
+
+    @Test
+    public void selectStableForSameKey() {
+        // given
+        List<GcpAddress> addresses = addresses(300);
+        List<GcpAddress> reversed = new ArrayList<GcpAddress>(addresses);
+        Collections.reverse(reversed);
+
+        // when
+        List<GcpAddress> result1 = new SeedSelector(10).select(addresses, "123");
+        List<GcpAddress> result2 = new SeedSelector(10).select(reversed, "123");
+
+        // then
+        assertEquals(new HashSet<GcpAddress>(result1), new HashSet<GcpAddress>(result2));
+    }
+
+    @Test
+    public void selectSpreadsAcrossKeys() {
+        // given
+        List<GcpAddress> addresses = addresses(300);
+
+        // when
+        Set<GcpAddress> selected = new HashSet<GcpAddress>();
+        for (int i = 0; i < 50; i++) {
+            selected.addAll(new SeedSelector(10).select(addresses, String.valueOf(4324997519045467154L + i)));
+        }
+
+        // then
+        assertTrue(String.format("selected %s instances", selected.size()), selected.size() > 150);
+        assertNotEquals(new SeedSelector(10).select(addresses, "1"), new SeedSelector(10).select(addresses, "2"));
+    }
+
+    /**
+     * Instances spread round-robin across {@link #ZONES}, created in the order of the list.
+     */
+    private static List<GcpAddress> addresses(int count) {
+        List<GcpAddress> result = new ArrayList<GcpAddress>();
+        for (int i = 0; i < count; i++) {
+            result.add(new GcpAddress(String.format("10.0.%s.%s", i / 256, i % 256), null, ZONES.get(i % ZONES.size()),
+                    null, null, 1000L + i));
+        }
+        return result;
+    }
+}
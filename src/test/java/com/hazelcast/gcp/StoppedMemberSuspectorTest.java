@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.internal.cluster.impl.ClusterServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StoppedMemberSuspectorTest {
+    private static final long CHECK_INTERVAL_MS = 10L;
+    private static final int TIMEOUT_MS = 5000;
+    private static final int NO_CALL_WAIT_MS = 200;
+
+    private static final GcpAddress ADDRESS_1 = new GcpAddress("10.240.0.2", "35.207.0.219", "us-east1-a");
+    private static final GcpAddress ADDRESS_2 = new GcpAddress("10.240.0.3", "35.237.227.147", "us-east1-a");
+
+    private ClusterServiceImpl clusterService;
+    private Member localMember;
+    private Member member2;
+    private volatile Set<String> notRunning;
+    private volatile RuntimeException statusCheckFailure;
+    private volatile List<GcpMembershipEvent> checkedEvents;
+    private volatile CountDownLatch statusCheckRelease = new CountDownLatch(0);
+    private volatile Error clusterServicesFailure;
+    private final AtomicInteger discoveries = new AtomicInteger();
+    private StoppedMemberSuspector suspector;
+
+    @Before
+    public void setUp()
+            throws UnknownHostException {
+        clusterService = mock(ClusterServiceImpl.class);
+        localMember = member("10.240.0.1", true);
+        member2 = member("10.240.0.3", false);
+        when(clusterService.getMembers()).thenReturn(new HashSet<Member>(asList(localMember, member2)));
+        notRunning = singleton(ADDRESS_2.getPrivateAddress());
+        suspector = new StoppedMemberSuspector(new StoppedMemberSuspector.InstanceStatusCheck() {
+            @Override
+            public Set<String> notRunning(List<GcpMembershipEvent> removed) {
+                awaitUninterruptibly(statusCheckRelease);
+                checkedEvents = removed;
+                if (statusCheckFailure != null) {
+                    throw statusCheckFailure;
+                }
+                return notRunning;
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                discoveries.incrementAndGet();
+            }
+        }, new StoppedMemberSuspector.ClusterServices() {
+            @Override
+            public ClusterServiceImpl get(Address address) {
+                if (clusterServicesFailure != null) {
+                    throw clusterServicesFailure;
+                }
+                return address.equals(localMember.getAddress()) ? clusterService : null;
+            }
+        }, CHECK_INTERVAL_MS);
+        suspector.addLocalMember(localMember.getAddress());
+    }
+
+    @After
+    public void tearDown() {
+        suspector.removeLocalMember(localMember.getAddress());
+    }
+
+    @Test
+    public void membershipChangedRemoved() {
+        // given
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_2, null);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, timeout(TIMEOUT_MS)).suspectMember(member2, "GCP instance is no longer running", true);
+        assertEquals(singletonList(event), checkedEvents);
+    }
+
+    @Test
+    public void membershipChangedRemovedStillRunning() {
+        // given
+        notRunning = emptySet();
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_2, null);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void membershipChangedStatusCheckFailed() {
+        // given
+        statusCheckFailure = new RestClientException("Forbidden", 403);
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_2, null);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void membershipChangedRemovedUnknownMember() {
+        // given
+        notRunning = singleton(ADDRESS_1.getPrivateAddress());
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_1, null);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void membershipChangedAdded() {
+        // given
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.ADDED, null, ADDRESS_2);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+        assertNull(checkedEvents);
+    }
+
+    @Test
+    public void membershipChangedRemovedLocalMember() {
+        // given
+        GcpAddress localAddress = new GcpAddress("10.240.0.1", null, "us-east1-a");
+        notRunning = singleton(localAddress.getPrivateAddress());
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, localAddress, null);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void membershipChangedWithoutLocalMembers() {
+        // given
+        suspector.removeLocalMember(localMember.getAddress());
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_2, null);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+        assertNull(checkedEvents);
+    }
+
+    @Test
+    public void membershipChangedLocalMemberNotRunning()
+            throws UnknownHostException {
+        // given
+        suspector.removeLocalMember(localMember.getAddress());
+        suspector.addLocalMember(new Address("10.240.0.4", 5701));
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_2, null);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void membershipChangedDoesNotWaitForStatusCheck() {
+        // given
+        statusCheckRelease = new CountDownLatch(1);
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_2, null);
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        assertNull(checkedEvents);
+        statusCheckRelease.countDown();
+        verify(clusterService, timeout(TIMEOUT_MS)).suspectMember(member2, "GCP instance is no longer running", true);
+    }
+
+    @Test
+    public void membershipChangedWithUnsupportedHazelcastInternals() {
+        // given
+        clusterServicesFailure = new NoSuchFieldError("node");
+        GcpMembershipEvent event = new GcpMembershipEvent(GcpMembershipEvent.Type.REMOVED, ADDRESS_2, null);
+        suspector.membershipChanged(singletonList(event));
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+        checkedEvents = null;
+
+        // when
+        suspector.membershipChanged(singletonList(event));
+
+        // then
+        verify(clusterService, after(NO_CALL_WAIT_MS).never()).suspectMember(any(Member.class), anyString(), anyBoolean());
+        assertNull(checkedEvents);
+    }
+
+    @Test
+    public void addLocalMemberStartsPeriodicDiscovery() {
+        // when
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (discoveries.get() < 2 && System.currentTimeMillis() < deadline) {
+            sleep();
+        }
+
+        // then
+        assertTrue(discoveries.get() >= 2);
+    }
+
+    @Test
+    public void removeLastLocalMemberStopsPeriodicDiscovery() {
+        // given
+        suspector.removeLocalMember(localMember.getAddress());
+        sleep();
+        int discoveriesAfterRemoval = discoveries.get();
+
+        // when
+        sleep();
+
+        // then
+        assertEquals(discoveriesAfterRemoval, discoveries.get());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(CHECK_INTERVAL_MS * 5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Member member(String host, boolean local)
+            throws UnknownHostException {
+        Member member = mock(Member.class);
+        when(member.getAddress()).thenReturn(new Address(host, 5701));
+        when(member.localMember()).thenReturn(local);
+        return member;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeoutPolicyTest {
+
+    @Test
+    public void parse() {
+        // given
+        String spec = "500-5000";
+
+        // when
+        TimeoutPolicy timeoutPolicy = TimeoutPolicy.parse(spec, 2.5f);
+
+        // then
+        assertEquals(500, timeoutPolicy.getMinTimeoutMs());
+        assertEquals(5000, timeoutPolicy.getMaxTimeoutMs());
+        assertEquals(2.5f, timeoutPolicy.getLatencyFactor(), 0.0f);
+    }
+
+    @Test
+    public void defaultFor() {
+        // when
+        TimeoutPolicy timeoutPolicy = TimeoutPolicy.defaultFor(GcpProperties.COMPUTE_API_TIMEOUT);
+
+        // then
+        assertEquals(2000, timeoutPolicy.getMinTimeoutMs());
+        assertEquals(30000, timeoutPolicy.getMaxTimeoutMs());
+        assertEquals(TimeoutPolicy.DEFAULT_LATENCY_FACTOR, timeoutPolicy.getLatencyFactor(), 0.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseInvalidSpec() {
+        TimeoutPolicy.parse("5000", 3.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minGreaterThanMax() {
+        TimeoutPolicy.parse("5000-500", 3.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void latencyFactorLowerThanOne() {
+        TimeoutPolicy.parse("500-5000", 0.5f);
+    }
+}
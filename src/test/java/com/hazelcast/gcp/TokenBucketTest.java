@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.hazelcast.gcp;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class TokenBucketTest {
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void reserveWithinBurst() {
+        // given
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+
+        // when & then
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+    }
+
+    @Test
+    public void reserveBeyondBurstQueuesCallers() {
+        // given
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        bucket.reserve(0);
+        bucket.reserve(0);
+
+        // when
+        long firstWait = bucket.reserve(0);
+        long secondWait = bucket.reserve(0);
+
+        // then
+        assertEquals(SECOND_NANOS / 2, firstWait);
+        assertEquals(SECOND_NANOS, secondWait);
+    }
+
+    @Test
+    public void reserveAfterRefill() {
+        // given
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        bucket.reserve(0);
+        bucket.reserve(0);
+
+        // when
+        long wait = bucket.reserve(SECOND_NANOS / 2);
+
+        // then
+        assertEquals(0, wait);
+    }
+
+    @Test
+    public void refillCappedAtBurst() {
+        // given
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+
+        // when
+        bucket.reserve(10 * SECOND_NANOS);
+        bucket.reserve(10 * SECOND_NANOS);
+        long wait = bucket.reserve(10 * SECOND_NANOS);
+
+        // then
+        assertEquals(SECOND_NANOS / 2, wait);
+    }
+}
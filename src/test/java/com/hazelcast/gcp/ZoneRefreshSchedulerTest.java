@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.hazelcast.gcp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ZoneRefreshSchedulerTest {
+    private static final String UNIT = "project-1/us-east1-b";
+    private static final long MAX_STALENESS_MS = 5000L;
+
+    private ManualClock clock;
+    private ZoneRefreshScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        clock = new ManualClock();
+        scheduler = new ZoneRefreshScheduler(MAX_STALENESS_MS, clock);
+    }
+
+    @Test
+    public void isDueNewUnit() {
+        assertTrue(scheduler.isDue(UNIT, clock.millis()));
+    }
+
+    @Test
+    public void isDueBacksOffUnchangedUnitUpToMaxStaleness() {
+        // given
+        scheduler.refreshed(UNIT, false, clock.millis());
+        clock.advance(ZoneRefreshScheduler.MIN_INTERVAL_MS);
+        scheduler.refreshed(UNIT, false, clock.millis());
+        clock.advance(2 * ZoneRefreshScheduler.MIN_INTERVAL_MS);
+        scheduler.refreshed(UNIT, false, clock.millis());
+        clock.advance(4 * ZoneRefreshScheduler.MIN_INTERVAL_MS);
+        scheduler.refreshed(UNIT, false, clock.millis());
+
+        // when
+        clock.advance(MAX_STALENESS_MS - 1);
+        boolean dueBeforeMaxStaleness = scheduler.isDue(UNIT, clock.millis());
+        clock.advance(1);
+        boolean dueAtMaxStaleness = scheduler.isDue(UNIT, clock.millis());
+
+        // then
+        assertFalse(dueBeforeMaxStaleness);
+        assertTrue(dueAtMaxStaleness);
+        assertEquals(MAX_STALENESS_MS, scheduler.metrics().get(UNIT).getRefreshIntervalMs());
+    }
+
+    @Test
+    public void isDueChangedUnit() {
+        // given
+        scheduler.refreshed(UNIT, false, clock.millis());
+        scheduler.refreshed(UNIT, true, clock.millis());
+
+        // when
+        boolean result = scheduler.isDue(UNIT, clock.millis());
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    public void isDueFailedUnit() {
+        // given
+        scheduler.refreshed(UNIT, false, clock.millis());
+        scheduler.failed(UNIT);
+
+        // when
+        boolean result = scheduler.isDue(UNIT, clock.millis());
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    public void isDueWithoutMaxStaleness() {
+        // given
+        ZoneRefreshScheduler scheduler = new ZoneRefreshScheduler(0, clock);
+        scheduler.refreshed(UNIT, false, clock.millis());
+
+        // when
+        boolean result = scheduler.isDue(UNIT, clock.millis());
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    public void metrics() {
+        // given
+        scheduler.refreshed(UNIT, false, clock.millis());
+        scheduler.isDue(UNIT, clock.millis());
+        scheduler.refreshed(UNIT, true, clock.millis());
+        scheduler.failed(UNIT);
+        clock.advance(ZoneRefreshScheduler.MIN_INTERVAL_MS);
+
+        // when
+        GcpZoneRefreshMetrics result = scheduler.metrics().get(UNIT);
+
+        // then
+        assertEquals(2, result.getRefreshCount());
+        assertEquals(1, result.getSkippedCount());
+        assertEquals(1, result.getChangeCount());
+        assertEquals(1, result.getFailureCount());
+        assertEquals(0, result.getRefreshIntervalMs());
+        assertEquals(ZoneRefreshScheduler.MIN_INTERVAL_MS, result.getStalenessMs());
+    }
+}